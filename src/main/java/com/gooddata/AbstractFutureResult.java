@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.gooddata.util.Validate.notNull;
+import static java.lang.String.format;
+
+/**
+ * Base of {@link FutureResult} implementations completed by another thread. Handles waiting for the result
+ * and notification of the callbacks.
+ *
+ * @param <T> result type
+ */
+abstract class AbstractFutureResult<T> implements ListenableFutureResult<T> {
+
+    private static final Executor CALLING_THREAD = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    private final CountDownLatch completion = new CountDownLatch(1);
+
+    private final List<Runnable> callbacks = new ArrayList<>();
+
+    private boolean completed;
+
+    private volatile T result;
+
+    private volatile Throwable failure;
+
+    /**
+     * Complete with the given value. Has no effect when already completed.
+     *
+     * @param result result value
+     * @return true if this call completed the result, false if it was already completed
+     */
+    final boolean complete(final T result) {
+        return complete(result, null);
+    }
+
+    /**
+     * Complete with the given failure. Has no effect when already completed.
+     *
+     * @param failure the failure
+     * @return true if this call completed the result, false if it was already completed
+     */
+    final boolean fail(final Throwable failure) {
+        return complete(null, notNull(failure, "failure"));
+    }
+
+    private boolean complete(final T result, final Throwable failure) {
+        final List<Runnable> toRun;
+        synchronized (callbacks) {
+            if (completed) {
+                return false;
+            }
+            this.result = result;
+            this.failure = failure;
+            completed = true;
+            toRun = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        completion.countDown();
+        for (Runnable callback : toRun) {
+            try {
+                callback.run();
+            } catch (RuntimeException ignored) {
+                // failing callback must not prevent notification of the others
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isDone() {
+        if (completion.getCount() > 0) {
+            return false;
+        }
+        getResult();
+        return true;
+    }
+
+    @Override
+    public T get() {
+        try {
+            completion.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GoodDataException("interrupted", e);
+        }
+        return getResult();
+    }
+
+    @Override
+    public T get(final long timeout, final TimeUnit unit) {
+        if (unit == null) {
+            return get();
+        }
+        try {
+            if (!completion.await(timeout, unit)) {
+                timedOut();
+                throw new GoodDataException(format("timeout: result not available in %d %s",
+                        timeout, unit.name().toLowerCase()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GoodDataException("interrupted", e);
+        }
+        return getResult();
+    }
+
+    /**
+     * Called when {@link #get(long, TimeUnit)} gives up waiting for the result.
+     */
+    void timedOut() {
+    }
+
+    @Override
+    public boolean cancel() {
+        if (!fail(new ResultCancelledException())) {
+            return false;
+        }
+        cancelled();
+        return true;
+    }
+
+    /**
+     * Whether the result has been completed, failed or cancelled
+     */
+    final boolean isCompleted() {
+        return completion.getCount() == 0;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return completion.getCount() == 0 && failure instanceof ResultCancelledException;
+    }
+
+    /**
+     * Called when the result was cancelled, after the waiting threads were released.
+     */
+    void cancelled() {
+    }
+
+    private T getResult() {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new GoodDataException("Unable to get result", failure);
+        }
+        return result;
+    }
+
+    @Override
+    public void addCallback(final FutureResultCallback<? super T> callback) {
+        addCallback(callback, CALLING_THREAD);
+    }
+
+    @Override
+    public void addCallback(final FutureResultCallback<? super T> callback, final Executor executor) {
+        notNull(callback, "callback");
+        notNull(executor, "executor");
+        final Runnable notification = new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (failure != null) {
+                            callback.onFailure(failure);
+                        } else {
+                            callback.onSuccess(result);
+                        }
+                    }
+                });
+            }
+        };
+        synchronized (callbacks) {
+            if (!completed) {
+                callbacks.add(notification);
+                return;
+            }
+        }
+        notification.run();
+    }
+}
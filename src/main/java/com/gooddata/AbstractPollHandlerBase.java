@@ -61,9 +61,62 @@ public abstract class AbstractPollHandlerBase<P, R> implements PollHandler<P, R>
         return HttpStatus.OK.equals(response.getStatusCode());
     }
 
+    /**
+     * Whether {@link #isFinished(ClientHttpResponse)} reads the raw body of the poll response or parses it into
+     * another class than the {@link #getPollClass() poll class} (default false). The body of such handler's poll
+     * responses is buffered in memory, otherwise it's parsed just once into the poll class and can't be read again.
+     *
+     * @return true to buffer the body of the poll responses
+     */
+    protected boolean isRawBodyNeeded() {
+        return false;
+    }
+
+    /**
+     * Whether the body of the given poll response is read by {@link #streamBody(ClientHttpResponse)} while
+     * the connection is still open, instead of being parsed into the poll class (default false).
+     * Lets the handler consume the payload of the finished task (e.g. the exported report) directly from
+     * the last poll response instead of downloading it again. Asked only when {@link #isStreaming()}.
+     *
+     * @param response client side HTTP response, its body is not read yet
+     * @return true to stream the body
+     * @throws IOException when there's a problem reading the response
+     */
+    protected boolean isStreamed(final ClientHttpResponse response) throws IOException {
+        return false;
+    }
+
+    /**
+     * Whether some poll response may be streamed, see {@link #isStreamed(ClientHttpResponse)} (default false).
+     * The polls of such handler are executed by the transfer threads of the {@link PollScheduler}, so the streaming
+     * doesn't hold up the polling of the other tasks.
+     *
+     * @return true if the handler streams the body of the finished task
+     */
+    protected boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Read the body of the poll response streamed by {@link #isStreamed(ClientHttpResponse)} (default no-op).
+     * The response is then passed to {@link #isFinished(ClientHttpResponse)} as usual, without the body.
+     *
+     * @param response client side HTTP response
+     * @throws IOException when there's a problem reading the body
+     */
+    protected void streamBody(final ClientHttpResponse response) throws IOException {
+    }
+
     /**
      * Method called after polling is successfully finished (default no-op)
      */
     protected void onFinish() {
     }
+
+    /**
+     * Method called after the result was cancelled and the polling stopped (default no-op).
+     * Should release the resources held for the task and abort the task where the API allows it.
+     */
+    protected void onCancel() {
+    }
 }
@@ -18,11 +18,9 @@ import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.concurrent.TimeUnit;
+import java.net.URI;
 
 
 /**
@@ -30,10 +28,21 @@ import java.util.concurrent.TimeUnit;
  */
 public abstract class AbstractService {
 
+    /**
+     * @deprecated not used anymore, the delay between polls is decided by the {@link PollingPolicy},
+     * see {@link GoodDataSettings#setPollingPolicy(PollingPolicy)}
+     */
+    @Deprecated
     public static final Integer WAIT_BEFORE_RETRY_IN_MILLIS = 5 * 1000;
 
+    private static final ThreadLocal<PollProgress> POLLING = new ThreadLocal<>();
+
     protected final RestTemplate restTemplate;
 
+    private final PollScheduler pollScheduler;
+
+    private TaskJournal taskJournal;
+
     protected final ObjectMapper mapper = new ObjectMapper();
 
     protected final RequestCallback noopRequestCallback = new RequestCallback() {
@@ -42,14 +51,6 @@ public abstract class AbstractService {
         }
     };
 
-    private final ResponseExtractor<ClientHttpResponse> reusableResponseExtractor = new ResponseExtractor<ClientHttpResponse>() {
-        @Override
-        public ClientHttpResponse extractData(final ClientHttpResponse response) throws IOException {
-            return new ReusableClientHttpResponse(response);
-        }
-    };
-
-
     /**
      * Sets RESTful HTTP Spring template. Should be called from constructor of concrete service extending
      * this abstract one.
@@ -57,39 +58,124 @@ public abstract class AbstractService {
      * @param restTemplate RESTful HTTP Spring template
      */
     public AbstractService(RestTemplate restTemplate) {
+        this(restTemplate, PollScheduler.getDefault());
+    }
+
+    /**
+     * Sets RESTful HTTP Spring template and scheduler driving the polling. Should be called from constructor
+     * of concrete service extending this abstract one.
+     *
+     * @param restTemplate  RESTful HTTP Spring template
+     * @param pollScheduler scheduler driving the polling
+     */
+    public AbstractService(RestTemplate restTemplate, PollScheduler pollScheduler) {
         this.restTemplate = notNull(restTemplate, "restTemplate");
+        this.pollScheduler = notNull(pollScheduler, "pollScheduler");
     }
 
-    final <R> R poll(final PollHandler<?,R> handler, long timeout, final TimeUnit unit) {
+    /**
+     * Whether the current thread executes the poll request.
+     *
+     * @return true during the poll request
+     */
+    static boolean isPolling() {
+        return POLLING.get() != null;
+    }
+
+    /**
+     * Progress of the polling the current thread executes the poll request of.
+     *
+     * @return progress or null when not polling
+     */
+    static PollProgress getPollProgress() {
+        return POLLING.get();
+    }
+
+    final PollScheduler getPollScheduler() {
+        return pollScheduler;
+    }
+
+    /**
+     * Journal the tasks polled by this service are recorded in
+     *
+     * @return journal or null if the tasks are not journaled
+     */
+    final TaskJournal getTaskJournal() {
+        return taskJournal;
+    }
+
+    final void setTaskJournal(final TaskJournal taskJournal) {
+        this.taskJournal = taskJournal;
+    }
+
+    final <P> boolean pollOnce(final PollHandler<P,?> handler, final PollProgress progress) {
         notNull(handler, "handler");
-        final long start = System.currentTimeMillis();
-        while (true) {
-            if (pollOnce(handler)) {
-                return handler.getResult();
-            }
-            if (unit != null && start + unit.toMillis(timeout) > System.currentTimeMillis()) {
-                throw new GoodDataException("timeout");
+        notNull(progress, "progress");
+        final FlightRecorderEvent event = FlightRecorderEvent.POLL.begin();
+        final String uri = handler.getPollingUri();
+        try {
+            return poll(handler, progress);
+        } finally {
+            // the coalesced polls aren't the platform's work
+            if (progress.isRequested()) {
+                event.commit(uri, handler.isDone());
             }
+        }
+    }
 
+    private <P> boolean poll(final PollHandler<P,?> handler, final PollProgress progress) {
+        final long start = System.currentTimeMillis();
+        // observers of the same task share the responses
+        final PollCoalescer.Stream stream = pollScheduler.getCoalescer()
+                .getStream(restTemplate, handler.getPollingUri(), handler.getPollClass());
+        progress.setRequested(false);
+        final boolean rawBody = isRawBodyNeeded(handler);
+        PollResponse response = stream.getResponse(progress.getSeenNanos());
+        if (response != null && rawBody && !response.hasRawBody()) {
+            // read by another observer without the raw body
+            response = null;
+        }
+        if (response == null) {
+            if (!stream.startPoll()) {
+                // another observer is polling the task right now, its response is reused by the next poll
+                return false;
+            }
+            progress.setRequested(true);
+            POLLING.set(progress);
             try {
-                Thread.sleep(WAIT_BEFORE_RETRY_IN_MILLIS);
-            } catch (InterruptedException e) {
-                throw new GoodDataException("interrupted");
+                response = restTemplate.execute(handler.getPollingUri(), GET, noopRequestCallback,
+                        new ResponseExtractor<PollResponse>() {
+                            @Override
+                            public PollResponse extractData(final ClientHttpResponse response) throws IOException {
+                                final boolean streamed = streamBody(handler, response);
+                                return new PollResponse(response, handler.getPollClass(),
+                                        restTemplate.getMessageConverters(), streamed, rawBody);
+                            }
+                        });
+                if (!response.isStreamed()) {
+                    stream.setResponse(response);
+                }
+            } catch (PollRetryException e) {
+                // the transient failure (or postponed poll) is retried by the next poll
+                progress.retryAfter(e.getDelayMillis(), e.isFailed());
+                return false;
+            } catch (GoodDataRestException e) {
+                progress.polled(e.getStatusCode(), e.getRequestId(), System.currentTimeMillis() - start, -1);
+                handler.handlePollException(e);
+                throw new GoodDataException("Handler " + handler.getClass().getName() + " didn't handle exception",
+                        e);
+            } finally {
+                POLLING.remove();
+                stream.endPoll();
             }
         }
-    }
 
-    final <P> boolean pollOnce(final PollHandler<P,?> handler) {
-        notNull(handler, "handler");
-        final ClientHttpResponse response;
+        progress.seen(response.getReceivedNanos());
         try {
-            response = restTemplate.execute(handler.getPollingUri(), GET, noopRequestCallback, reusableResponseExtractor);
-        } catch (GoodDataRestException e) {
-            handler.handlePollException(e);
-            throw new GoodDataException("Handler " + handler.getClass().getName() + " didn't handle exception", e);
-        }
+            final HttpHeaders headers = response.getHeaders();
+            progress.polled(response.getRawStatusCode(), headers.getFirst(GoodData.GDC_REQUEST_ID_HEADER),
+                    System.currentTimeMillis() - start, RetryAfter.getMillis(headers));
 
-        try {
             if (handler.isFinished(response)) {
                 final P data = extractData(response, handler.getPollClass());
                 handler.handlePollResult(data);
@@ -97,6 +183,8 @@ public abstract class AbstractService {
                 throw new GoodDataException(
                         format("Polling returned client error HTTP status %s", response.getStatusCode().value())
                 );
+            } else {
+                followLocation(handler, response);
             }
         } catch (IOException e) {
             throw new GoodDataException("I/O error occurred during HTTP response extraction", e);
@@ -104,71 +192,54 @@ public abstract class AbstractService {
         return handler.isDone();
     }
 
-    protected final <T> T extractData(ClientHttpResponse response, Class<T> cls) throws IOException {
-        notNull(response, "response");
-        notNull(cls, "cls");
-        if (Void.class.isAssignableFrom(cls)) {
-            return null;
-        }
-        return new HttpMessageConverterExtractor<>(cls, restTemplate.getMessageConverters()).extractData(response);
+    /**
+     * Whether the handler reads the raw body of the poll response, the handlers not derived from
+     * {@link AbstractPollHandlerBase} are expected to
+     */
+    private static boolean isRawBodyNeeded(final PollHandler<?, ?> handler) {
+        return !(handler instanceof AbstractPollHandlerBase)
+                || ((AbstractPollHandlerBase<?, ?>) handler).isRawBodyNeeded();
     }
 
-    private static class ReusableClientHttpResponse implements ClientHttpResponse {
-
-        private byte[] body;
-        private final HttpStatus statusCode;
-        private final int rawStatusCode;
-        private final String statusText;
-        private final HttpHeaders headers;
-
-        public ReusableClientHttpResponse(ClientHttpResponse response) {
-            try {
-                final InputStream bodyStream = response.getBody();
-                if (bodyStream != null) {
-                    body = FileCopyUtils.copyToByteArray(bodyStream);
-                }
-                statusCode = response.getStatusCode();
-                rawStatusCode = response.getRawStatusCode();
-                statusText = response.getStatusText();
-                headers = response.getHeaders();
-            } catch (IOException e) {
-                throw new RuntimeException("Unable to read from HTTP response", e);
-            } finally {
-                if (response != null) {
-                    response.close();
-                }
+    /**
+     * Let the handler consume the body of the poll response while the connection is open
+     *
+     * @return true if the body was consumed
+     */
+    private static boolean streamBody(final PollHandler<?, ?> handler, final ClientHttpResponse response)
+            throws IOException {
+        if (handler instanceof AbstractPollHandlerBase) {
+            final AbstractPollHandlerBase<?, ?> base = (AbstractPollHandlerBase<?, ?>) handler;
+            if (base.isStreaming() && base.isStreamed(response)) {
+                base.streamBody(response);
+                return true;
             }
         }
+        return false;
+    }
 
-        @Override
-        public HttpStatus getStatusCode() throws IOException {
-            return statusCode;
-        }
-
-        @Override
-        public int getRawStatusCode() throws IOException {
-            return rawStatusCode;
-        }
-
-        @Override
-        public String getStatusText() throws IOException {
-            return statusText;
-        }
-
-        @Override
-        public HttpHeaders getHeaders() {
-            return headers;
+    /**
+     * Continue polling on the URI given by the Location header of unfinished task response (if any)
+     */
+    private static void followLocation(final PollHandler<?, ?> handler, final ClientHttpResponse response)
+            throws IOException {
+        final URI location = response.getHeaders().getLocation();
+        if (location != null && HttpStatus.ACCEPTED.equals(response.getStatusCode())
+                && handler instanceof AbstractPollHandler) {
+            ((AbstractPollHandler) handler).setPollingUri(location.toString());
         }
+    }
 
-        @Override
-        public InputStream getBody() throws IOException {
-            return body != null ? new ByteArrayInputStream(body) : null;
+    protected final <T> T extractData(ClientHttpResponse response, Class<T> cls) throws IOException {
+        notNull(response, "response");
+        notNull(cls, "cls");
+        if (Void.class.isAssignableFrom(cls)) {
+            return null;
         }
-
-        @Override
-        public void close() {
-            //already closed
+        if (response instanceof PollResponse) {
+            return ((PollResponse) response).getData(cls);
         }
+        return new HttpMessageConverterExtractor<>(cls, restTemplate.getMessageConverters()).extractData(response);
     }
 
     protected static class OutputStreamResponseExtractor implements ResponseExtractor<Integer> {
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.gooddata.util.Validate.notNull;
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Polling policy using exponential backoff with jitter, which learns how long the tasks usually take.
+ * <p>
+ * The first poll is made immediately, following delays grow exponentially from the initial delay up to the maximal
+ * delay. The delays are randomized by the jitter factor to spread polls of tasks submitted at the same moment.
+ * Once a task of some type (represented by the class of its {@link PollHandler}) finishes, its duration contributes
+ * to the moving estimate of the completion time of that task type. Subsequent tasks of the same type skip the polls
+ * which would be made before the estimated completion time. The delay requested by the server using the Retry-After
+ * header is honored up to the maximal delay, so a bogus or hostile value can't stall the polling.
+ */
+public class AdaptivePollingPolicy implements PollingPolicy {
+
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 250;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 30 * 1000;
+    public static final double DEFAULT_MULTIPLIER = 2;
+    public static final double DEFAULT_JITTER = 0.2;
+
+    /**
+     * Weight of the last observed duration in the moving estimate
+     */
+    private static final double SMOOTHING = 0.3;
+
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double multiplier;
+    private final double jitter;
+
+    private final ConcurrentMap<Class<?>, Long> estimates = new ConcurrentHashMap<>();
+
+    /**
+     * Create policy with default settings (initial delay 250 ms, maximal delay 30 s, multiplier 2, jitter 0.2).
+     */
+    public AdaptivePollingPolicy() {
+        this(DEFAULT_INITIAL_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MULTIPLIER, DEFAULT_JITTER);
+    }
+
+    /**
+     * Create policy with given settings.
+     *
+     * @param initialDelayMillis delay between the first and the second poll
+     * @param maxDelayMillis     maximal delay between two polls
+     * @param multiplier         factor the delay is multiplied by after each poll (at least 1)
+     * @param jitter             relative randomization of the delays (between 0 and 1)
+     */
+    public AdaptivePollingPolicy(long initialDelayMillis, long maxDelayMillis, double multiplier, double jitter) {
+        isTrue(initialDelayMillis > 0, "initialDelayMillis must be greater than zero");
+        isTrue(maxDelayMillis >= initialDelayMillis, "maxDelayMillis must be greater or equal to initialDelayMillis");
+        isTrue(multiplier >= 1, "multiplier must be at least 1");
+        isTrue(jitter >= 0 && jitter <= 1, "jitter must be between 0 and 1");
+        this.initialDelay = initialDelayMillis;
+        this.maxDelay = maxDelayMillis;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public long getDelay(final PollHandler<?, ?> handler, final int attempts, final long elapsedMillis,
+                         final long retryAfterMillis) {
+        notNull(handler, "handler");
+        if (retryAfterMillis >= 0) {
+            return Math.min(maxDelay, retryAfterMillis);
+        }
+        if (attempts == 0) {
+            return 0;
+        }
+        long delay = (long) Math.min(maxDelay, initialDelay * Math.pow(multiplier, attempts - 1));
+        final long estimate = getEstimatedDuration(handler);
+        if (estimate > elapsedMillis) {
+            delay = Math.min(maxDelay, Math.max(delay, estimate - elapsedMillis));
+        }
+        return randomize(delay);
+    }
+
+    @Override
+    public void onFinish(final PollHandler<?, ?> handler, final int attempts, final long elapsedMillis) {
+        notNull(handler, "handler");
+        final Class<?> type = handler.getClass();
+        while (true) {
+            final Long estimate = estimates.get(type);
+            if (estimate == null) {
+                if (estimates.putIfAbsent(type, elapsedMillis) == null) {
+                    return;
+                }
+            } else {
+                final long updated = Math.round(SMOOTHING * elapsedMillis + (1 - SMOOTHING) * estimate);
+                if (estimates.replace(type, estimate, updated)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get estimated duration of polling for the type of the given handler.
+     *
+     * @param handler poll handler
+     * @return estimated milliseconds until the polling is finished, or -1 when no estimate is available yet
+     */
+    public long getEstimatedDuration(final PollHandler<?, ?> handler) {
+        notNull(handler, "handler");
+        final Long estimate = estimates.get(handler.getClass());
+        return estimate != null ? estimate : -1;
+    }
+
+    private long randomize(final long delay) {
+        if (jitter == 0) {
+            return delay;
+        }
+        final double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Math.round(delay * factor);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof AdaptivePollingPolicy))
+            return false;
+
+        AdaptivePollingPolicy that = (AdaptivePollingPolicy) o;
+
+        if (initialDelay != that.initialDelay)
+            return false;
+        if (maxDelay != that.maxDelay)
+            return false;
+        if (Double.compare(that.multiplier, multiplier) != 0)
+            return false;
+        return Double.compare(that.jitter, jitter) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (initialDelay ^ (initialDelay >>> 32));
+        result = 31 * result + (int) (maxDelay ^ (maxDelay >>> 32));
+        long temp = Double.doubleToLongBits(multiplier);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(jitter);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptivePollingPolicy{" +
+                "initialDelay=" + initialDelay +
+                ", maxDelay=" + maxDelay +
+                ", multiplier=" + multiplier +
+                ", jitter=" + jitter +
+                '}';
+    }
+}
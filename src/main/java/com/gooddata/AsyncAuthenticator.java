@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.http.client.SSTRetrievalStrategy;
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.CookieStore;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.cookie.BasicClientCookie;
+import org.apache.http.nio.client.HttpAsyncClient;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import static com.gooddata.http.client.CookieUtils.SST_COOKIE_NAME;
+import static com.gooddata.http.client.CookieUtils.SST_COOKIE_PATH;
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Non-blocking counterpart of the SST/TT authentication performed by
+ * {@link com.gooddata.http.client.GoodDataHttpClient}.
+ * <p>
+ * Requests carry the authentication cookies of the shared cookie store. When the API challenges a request
+ * by <code>401 Unauthorized</code>, the temporary token (TT) is refreshed first, the super-secure token (SST)
+ * is obtained using the {@link SSTRetrievalStrategy} only when the TT refresh is refused.
+ * Concurrent refreshes are coalesced, so a burst of challenged requests triggers just a single one.
+ */
+class AsyncAuthenticator {
+
+    static final String TOKEN_URL = "/gdc/account/token";
+
+    private static final String WWW_AUTHENTICATE_HEADER = "WWW-Authenticate";
+    private static final String TT_CHALLENGE = "cookie=GDCAuthTT";
+    private static final String SST_CHALLENGE = "cookie=GDCAuthSST";
+
+    private final HttpAsyncClient client;
+    private final HttpHost host;
+    private final SSTRetrievalStrategy sstStrategy;
+    private final Executor loginExecutor;
+    private final CookieStore cookieStore = new BasicCookieStore();
+
+    private final Object refreshLock = new Object();
+    private SettableFutureResult<Void> refresh;
+
+    /**
+     * Construct authenticator.
+     *
+     * @param client        client used to refresh TT
+     * @param host          GoodData Platform's API host
+     * @param sstStrategy   strategy used to obtain SST
+     * @param loginExecutor executor running the (possibly blocking) SST retrieval
+     */
+    AsyncAuthenticator(final HttpAsyncClient client, final HttpHost host, final SSTRetrievalStrategy sstStrategy,
+                       final Executor loginExecutor) {
+        this.client = notNull(client, "client");
+        this.host = notNull(host, "host");
+        this.sstStrategy = notNull(sstStrategy, "sstStrategy");
+        this.loginExecutor = notNull(loginExecutor, "loginExecutor");
+    }
+
+    /**
+     * Create context of single request sharing the authentication cookies.
+     *
+     * @return request context
+     */
+    HttpClientContext createContext() {
+        final HttpClientContext context = HttpClientContext.create();
+        context.setCookieStore(cookieStore);
+        return context;
+    }
+
+    /**
+     * Check whether the response is an authentication challenge which can be handled by {@link #refresh(boolean)}.
+     *
+     * @param response response to check
+     * @return true if the response challenges the request
+     */
+    static boolean isChallenge(final HttpResponse response) {
+        return response.getStatusLine().getStatusCode() == HttpStatus.SC_UNAUTHORIZED
+                && (hasChallenge(response, TT_CHALLENGE) || hasChallenge(response, SST_CHALLENGE));
+    }
+
+    /**
+     * Check whether the response challenges the request by expired SST.
+     *
+     * @param response response to check
+     * @return true if new SST must be obtained
+     */
+    static boolean isSstChallenge(final HttpResponse response) {
+        return hasChallenge(response, SST_CHALLENGE);
+    }
+
+    private static boolean hasChallenge(final HttpResponse response, final String challenge) {
+        for (Header header : response.getHeaders(WWW_AUTHENTICATE_HEADER)) {
+            if (header.getValue() != null && header.getValue().contains(challenge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Refresh the authentication cookies. Joins the refresh in progress, if any.
+     *
+     * @param sstExpired true if new SST is needed, false to try to refresh only TT first
+     * @return result completed when the authentication cookies are refreshed
+     */
+    ListenableFutureResult<Void> refresh(final boolean sstExpired) {
+        final SettableFutureResult<Void> result;
+        synchronized (refreshLock) {
+            if (refresh != null) {
+                return refresh;
+            }
+            result = refresh = new SettableFutureResult<>();
+        }
+        result.addCallback(new FutureResultCallback<Void>() {
+            @Override
+            public void onSuccess(final Void ignored) {
+                finished();
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                finished();
+            }
+
+            private void finished() {
+                synchronized (refreshLock) {
+                    refresh = null;
+                }
+            }
+        });
+        if (sstExpired) {
+            obtainSst(result);
+        } else {
+            refreshTt(result, true);
+        }
+        return result;
+    }
+
+    private void refreshTt(final SettableFutureResult<Void> result, final boolean obtainSstIfRefused) {
+        try {
+            client.execute(new HttpGet(host.toURI() + TOKEN_URL), createContext(), new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(final HttpResponse response) {
+                    final int status = response.getStatusLine().getStatusCode();
+                    if (status == HttpStatus.SC_OK) {
+                        result.set(null);
+                    } else if (status == HttpStatus.SC_UNAUTHORIZED && obtainSstIfRefused) {
+                        obtainSst(result);
+                    } else if (obtainSstIfRefused) {
+                        result.setException(new GoodDataException("Unable to obtain TT: " + response.getStatusLine()));
+                    } else {
+                        result.setException(new GoodDataException(
+                                "Unable to obtain TT after successfully obtained SST: " + response.getStatusLine()));
+                    }
+                }
+
+                @Override
+                public void failed(final Exception e) {
+                    result.setException(new GoodDataException("Unable to obtain TT", e));
+                }
+
+                @Override
+                public void cancelled() {
+                    result.setException(new GoodDataException("Unable to obtain TT: request cancelled"));
+                }
+            });
+        } catch (RuntimeException e) {
+            result.setException(new GoodDataException("Unable to obtain TT", e));
+        }
+    }
+
+    private void obtainSst(final SettableFutureResult<Void> result) {
+        try {
+            loginExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final String sst;
+                    try {
+                        sst = sstStrategy.obtainSst();
+                    } catch (IOException | RuntimeException e) {
+                        result.setException(new GoodDataException("Unable to obtain SST", e));
+                        return;
+                    }
+                    final BasicClientCookie cookie = new BasicClientCookie(SST_COOKIE_NAME, sst);
+                    cookie.setDomain(host.getHostName());
+                    cookie.setPath(SST_COOKIE_PATH);
+                    cookieStore.addCookie(cookie);
+                    refreshTt(result, false);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.setException(new GoodDataException("Unable to obtain SST", e));
+        }
+    }
+}
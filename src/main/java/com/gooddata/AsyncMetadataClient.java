@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.account.Account;
+import com.gooddata.http.client.LoginSSTRetrievalStrategy;
+import com.gooddata.http.client.SSTRetrievalStrategy;
+import com.gooddata.md.AsyncMetadataService;
+import com.gooddata.project.AsyncProjectService;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.RequestAcceptEncoding;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.gooddata.util.Validate.notEmpty;
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Experimental non-blocking client for reading the projects and metadata objects, e.g. for a metadata crawl.
+ * <p>
+ * Unlike {@link GoodData}, the services of this instance return {@link ListenableFutureResult}s immediately and execute
+ * the requests by the NIO based HTTP client, so many requests can be in progress using just a few I/O threads.
+ * The authentication follows the same SST/TT flow as {@link GoodData}.
+ * <p>
+ * Only the {@link AsyncProjectService} and {@link AsyncMetadataService} reads are available. There are no async
+ * counterparts of the dataset, report, process or other services, use {@link GoodData} for them. This API may change
+ * in future versions.
+ * <p>
+ * Usage example:
+ * <pre><code>
+ *     AsyncMetadataClient client = new AsyncMetadataClient("roman@gooddata.com", "Roman1");
+ *     ListenableFutureResult&lt;Project&gt; project = client.getProjectService().getProjectById(projectId);
+ *     // do something useful like: project.addCallback(...)
+ *     client.logout().get();
+ *     client.close();
+ * </code></pre>
+ */
+public class AsyncMetadataClient {
+
+    private final AsyncRestClient restClient;
+    private final CloseableHttpClient loginClient;
+    private final ThreadPoolExecutor loginExecutor;
+    private final AsyncProjectService projectService;
+    private final AsyncMetadataService metadataService;
+
+    /**
+     * Create instance configured to communicate with GoodData Platform under user with given credentials.
+     *
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     */
+    public AsyncMetadataClient(String login, String password) {
+        this(GoodData.HOSTNAME, login, password, new GoodDataSettings());
+    }
+
+    /**
+     * Create instance configured to communicate with GoodData Platform under user with given credentials.
+     *
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     * @param settings additional settings
+     */
+    public AsyncMetadataClient(String login, String password, GoodDataSettings settings) {
+        this(GoodData.HOSTNAME, login, password, settings);
+    }
+
+    /**
+     * Create instance configured to communicate with GoodData Platform running on given host using given user's
+     * credentials.
+     *
+     * @param hostname GoodData Platform's host name (e.g. secure.gooddata.com)
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     * @param settings additional settings
+     */
+    public AsyncMetadataClient(String hostname, String login, String password, GoodDataSettings settings) {
+        this(hostname, login, password, GoodData.PORT, GoodData.PROTOCOL, settings);
+    }
+
+    /**
+     * Create instance configured to communicate with GoodData Platform running on given host, port and protocol using
+     * given user's credentials.
+     *
+     * @param hostname GoodData Platform's host name (e.g. secure.gooddata.com)
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     * @param port     GoodData Platform's API port (e.g. 443)
+     * @param protocol GoodData Platform's API protocol (e.g. https)
+     * @param settings additional settings
+     */
+    protected AsyncMetadataClient(String hostname, String login, String password, int port, String protocol,
+                            GoodDataSettings settings) {
+        notEmpty(hostname, "hostname");
+        notEmpty(login, "login");
+        notEmpty(password, "password");
+        notEmpty(protocol, "protocol");
+        notNull(settings, "settings");
+        final HttpHost host = new HttpHost(hostname, port, protocol);
+
+        final CloseableHttpAsyncClient client = createHttpAsyncClient(settings);
+        loginClient = createLoginHttpClient(settings);
+        loginExecutor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new LoginThreadFactory());
+        final AsyncAuthenticator authenticator = new AsyncAuthenticator(client, host,
+                createSstStrategy(login, password, host), loginExecutor);
+        restClient = new AsyncRestClient(client, authenticator, new UriPrefixer(host.toURI()),
+                GoodData.getAcceptHeaderValue());
+        client.start();
+
+        projectService = new AsyncProjectService(restClient);
+        metadataService = new AsyncMetadataService(restClient);
+    }
+
+    private CloseableHttpAsyncClient createHttpAsyncClient(final GoodDataSettings settings) {
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout(settings.getConnectionTimeout())
+                .setSoTimeout(settings.getSocketTimeout())
+                .build();
+        final PoolingNHttpClientConnectionManager connectionManager;
+        try {
+            connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        } catch (IOReactorException e) {
+            throw new GoodDataException("Unable to start I/O reactor", e);
+        }
+        final ConnectionPoolSettings pool = settings.getApiConnectionPool();
+        connectionManager.setDefaultMaxPerRoute(pool.getMaxPerRoute());
+        connectionManager.setMaxTotal(pool.getMaxTotal());
+
+        final RequestConfig.Builder requestConfig = RequestConfig.copy(RequestConfig.DEFAULT);
+        requestConfig.setConnectTimeout(settings.getConnectionTimeout());
+        requestConfig.setSocketTimeout(settings.getSocketTimeout());
+
+        final HttpAsyncClientBuilder builder = HttpAsyncClientBuilder.create()
+                .setUserAgent(GoodData.getUserAgent())
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig.build());
+        if (pool.getMaxKeepAlive() > 0) {
+            builder.setKeepAliveStrategy(new MaxKeepAliveStrategy(pool.getMaxKeepAlive()));
+        }
+        if (settings.getCompressionMode().isResponseCompression()) {
+            builder.addInterceptorLast(new RequestAcceptEncoding());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Blocking client of the login requests, with the same timeouts as the API requests
+     */
+    private static CloseableHttpClient createLoginHttpClient(final GoodDataSettings settings) {
+        final RequestConfig.Builder requestConfig = RequestConfig.copy(RequestConfig.DEFAULT);
+        requestConfig.setConnectTimeout(settings.getConnectionTimeout());
+        requestConfig.setConnectionRequestTimeout(settings.getConnectionTimeout());
+        requestConfig.setSocketTimeout(settings.getSocketTimeout());
+        return HttpClientBuilder.create()
+                .setUserAgent(GoodData.getUserAgent())
+                .setDefaultRequestConfig(requestConfig.build())
+                .build();
+    }
+
+    /**
+     * Create strategy obtaining SST, the strategy is always called outside of the I/O threads, so it may block.
+     * This is the extension point for inheriting classes using different way of login.
+     *
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     * @param host     GoodData Platform's API host
+     * @return SST retrieval strategy
+     */
+    protected SSTRetrievalStrategy createSstStrategy(final String login, final String password, final HttpHost host) {
+        return new LoginSSTRetrievalStrategy(loginClient, host, login, password);
+    }
+
+    /**
+     * Get the configured {@link AsyncRestClient} used by the library.
+     * This is the extension point for inheriting classes providing additional services.
+     * @return REST client
+     */
+    protected final AsyncRestClient getRestClient() {
+        return restClient;
+    }
+
+    /**
+     * Logout from GoodData Platform
+     *
+     * @return result completed when logged out, it fails by {@link GoodDataException} when logout failed
+     */
+    public ListenableFutureResult<Void> logout() {
+        final SettableFutureResult<Void> result = new SettableFutureResult<>();
+        final ListenableFutureResult<Account> account = restClient.getForObject(Account.URI, Account.class,
+                Account.CURRENT_ID);
+        result.cancelWith(account);
+        account.addCallback(new FutureResultCallback<Account>() {
+            @Override
+            public void onSuccess(final Account account) {
+                final ListenableFutureResult<Void> delete = restClient.delete(Account.LOGIN_URI, account.getId());
+                result.cancelWith(delete);
+                delete.addCallback(new FutureResultCallback<Void>() {
+                    @Override
+                    public void onSuccess(final Void ignored) {
+                        result.set(null);
+                    }
+
+                    @Override
+                    public void onFailure(final Throwable cause) {
+                        result.setException(new GoodDataException("Unable to logout", cause));
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                result.setException(new GoodDataException("Unable to logout", cause));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Release the HTTP connections and threads held by this instance. Requests in progress are aborted.
+     */
+    public void close() {
+        loginExecutor.shutdownNow();
+        restClient.close();
+        try {
+            loginClient.close();
+        } catch (IOException ignored) {
+            // the connections are released anyway
+        }
+    }
+
+    /**
+     * Get initialized service for project management (to list projects, get a project, ...)
+     *
+     * @return initialized service for project management
+     */
+    public AsyncProjectService getProjectService() {
+        return projectService;
+    }
+
+    /**
+     * Get initialized service for metadata management (to get project metadata like attributes, facts, metrics,
+     * reports, ...)
+     *
+     * @return initialized service for metadata management
+     */
+    public AsyncMetadataService getMetadataService() {
+        return metadataService;
+    }
+
+    private static class LoginThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable,
+                    "gooddata-login-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.gdc.GdcError;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.ResponseContentEncoding;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.util.EntityUtils;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.web.util.UriTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.Future;
+
+import static com.gooddata.GoodData.GDC_REQUEST_ID_HEADER;
+import static com.gooddata.util.Validate.notEmpty;
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Non-blocking counterpart of the {@link org.springframework.web.client.RestTemplate} used by the services
+ * of {@link AsyncMetadataClient}.
+ * <p>
+ * Requests are executed by the NIO based HTTP client, no thread is blocked while waiting for the response.
+ * The returned results are completed (and their callbacks registered without an executor are notified) by the I/O
+ * dispatcher threads of the client, such callbacks should be therefore short and must not wait for other results.
+ * Unsuccessful responses complete the result by {@link GoodDataRestException}, client-side failures
+ * by {@link GoodDataException}.
+ */
+public class AsyncRestClient {
+
+    private static final ResponseContentEncoding CONTENT_DECODING = new ResponseContentEncoding();
+
+    private final CloseableHttpAsyncClient client;
+    private final AsyncAuthenticator authenticator;
+    private final UriPrefixer uriPrefixer;
+    private final String accept;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    AsyncRestClient(final CloseableHttpAsyncClient client, final AsyncAuthenticator authenticator,
+                    final UriPrefixer uriPrefixer, final String accept) {
+        this.client = notNull(client, "client");
+        this.authenticator = notNull(authenticator, "authenticator");
+        this.uriPrefixer = notNull(uriPrefixer, "uriPrefixer");
+        this.accept = notEmpty(accept, "accept");
+    }
+
+    /**
+     * Retrieve a representation by doing a GET on the URI template.
+     *
+     * @param uri          the URI template, relative to the GoodData Platform's API root
+     * @param responseType the type of the return value
+     * @param uriVariables the variables to expand the template
+     * @param <T>          the type of the return value
+     * @return the converted object, null when the response has no body
+     */
+    public <T> ListenableFutureResult<T> getForObject(final String uri, final Class<T> responseType,
+                                            final Object... uriVariables) {
+        return execute(new HttpGet(expand(uri, uriVariables)), responseType);
+    }
+
+    /**
+     * Create a new resource by POSTing the given object to the URI template.
+     *
+     * @param uri          the URI template, relative to the GoodData Platform's API root
+     * @param body         the object to be POSTed, may be null
+     * @param responseType the type of the return value
+     * @param uriVariables the variables to expand the template
+     * @param <T>          the type of the return value
+     * @return the converted object, null when the response has no body
+     */
+    public <T> ListenableFutureResult<T> postForObject(final String uri, final Object body, final Class<T> responseType,
+                                             final Object... uriVariables) {
+        return execute(withBody(new HttpPost(expand(uri, uriVariables)), body), responseType);
+    }
+
+    /**
+     * Create or update a resource by PUTting the given object to the URI template.
+     *
+     * @param uri          the URI template, relative to the GoodData Platform's API root
+     * @param body         the object to be PUT, may be null
+     * @param uriVariables the variables to expand the template
+     * @return result completed when the request is done
+     */
+    public ListenableFutureResult<Void> put(final String uri, final Object body, final Object... uriVariables) {
+        return execute(withBody(new HttpPut(expand(uri, uriVariables)), body), Void.class);
+    }
+
+    /**
+     * Delete the resource at the URI template.
+     *
+     * @param uri          the URI template, relative to the GoodData Platform's API root
+     * @param uriVariables the variables to expand the template
+     * @return result completed when the request is done
+     */
+    public ListenableFutureResult<Void> delete(final String uri, final Object... uriVariables) {
+        return execute(new HttpDelete(expand(uri, uriVariables)), Void.class);
+    }
+
+    /**
+     * Close the underlying HTTP client. Requests in progress are aborted.
+     */
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            throw new GoodDataException("Unable to close HTTP client", e);
+        }
+    }
+
+    private URI expand(final String uri, final Object... uriVariables) {
+        notEmpty(uri, "uri");
+        return uriPrefixer.mergeUris(new UriTemplate(uri).expand(uriVariables));
+    }
+
+    private <R extends HttpRequestBase & HttpEntityEnclosingRequest> R withBody(final R request, final Object body) {
+        if (body != null) {
+            try {
+                request.setEntity(new ByteArrayEntity(mapper.writeValueAsBytes(body), ContentType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new GoodDataException("Unable to serialize " + body.getClass().getSimpleName(), e);
+            }
+        }
+        return request;
+    }
+
+    private <T> ListenableFutureResult<T> execute(final HttpRequestBase request, final Class<T> responseType) {
+        request.setHeader("Accept", accept);
+        final SettableFutureResult<T> result = new SettableFutureResult<>();
+        execute(request, responseType, result, false);
+        return result;
+    }
+
+    private <T> void execute(final HttpRequestBase request, final Class<T> responseType,
+                             final SettableFutureResult<T> result, final boolean authenticated) {
+        try {
+            final FutureCallback<HttpResponse> callback = new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(final HttpResponse response) {
+                    if (!authenticated && AsyncAuthenticator.isChallenge(response)) {
+                        EntityUtils.consumeQuietly(response.getEntity());
+                        reauthenticate(request, responseType, result, AsyncAuthenticator.isSstChallenge(response));
+                        return;
+                    }
+                    try {
+                        result.set(extractData(response, responseType));
+                    } catch (IOException e) {
+                        result.setException(new GoodDataException("Unable to read response of "
+                                + request.getMethod() + " " + request.getURI(), e));
+                    } catch (RuntimeException e) {
+                        result.setException(e);
+                    }
+                }
+
+                @Override
+                public void failed(final Exception e) {
+                    result.setException(new GoodDataException("Unable to execute "
+                            + request.getMethod() + " " + request.getURI(), e));
+                }
+
+                @Override
+                public void cancelled() {
+                    result.setException(new GoodDataException("Request cancelled: "
+                            + request.getMethod() + " " + request.getURI()));
+                }
+            };
+            final Future<HttpResponse> response = client.execute(request, authenticator.createContext(), callback);
+            // abort the request when the caller is no more interested in its result
+            result.onCancel(new Runnable() {
+                @Override
+                public void run() {
+                    response.cancel(true);
+                }
+            });
+        } catch (RuntimeException e) {
+            result.setException(new GoodDataException("Unable to execute "
+                    + request.getMethod() + " " + request.getURI(), e));
+        }
+    }
+
+    private <T> void reauthenticate(final HttpRequestBase request, final Class<T> responseType,
+                                    final SettableFutureResult<T> result, final boolean sstExpired) {
+        authenticator.refresh(sstExpired).addCallback(new FutureResultCallback<Void>() {
+            @Override
+            public void onSuccess(final Void ignored) {
+                request.reset();
+                execute(request, responseType, result, true);
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                result.setException(cause);
+            }
+        });
+    }
+
+    private <T> T extractData(final HttpResponse response, final Class<T> responseType) throws IOException {
+        try {
+            // the response is decoded here as the content isn't available yet when the response interceptors run
+            CONTENT_DECODING.process(response, new BasicHttpContext());
+        } catch (HttpException e) {
+            throw new IOException("Unable to decode response", e);
+        }
+        final HttpEntity entity = response.getEntity();
+        final int status = response.getStatusLine().getStatusCode();
+        if (status >= 400) {
+            throw createRestException(response);
+        }
+        if (entity == null || entity.getContentLength() == 0 || Void.class.equals(responseType)) {
+            EntityUtils.consume(entity);
+            return null;
+        }
+        try (InputStream content = entity.getContent()) {
+            return mapper.readValue(content, responseType);
+        }
+    }
+
+    private GoodDataRestException createRestException(final HttpResponse response) {
+        GdcError error = null;
+        try {
+            final HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                error = mapper.readValue(entity.getContent(), GdcError.class);
+            }
+        } catch (IOException | RuntimeException ignored) {
+        }
+        final String requestId = response.getFirstHeader(GDC_REQUEST_ID_HEADER) != null
+                ? response.getFirstHeader(GDC_REQUEST_ID_HEADER).getValue() : null;
+        return new GoodDataRestException(response.getStatusLine().getStatusCode(), requestId,
+                response.getStatusLine().getReasonPhrase(), error);
+    }
+}
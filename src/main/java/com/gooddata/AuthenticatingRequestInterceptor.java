@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.http.client.SSTRetrievalStrategy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.List;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Transport independent counterpart of the SST/TT authentication performed by
+ * {@link com.gooddata.http.client.GoodDataHttpClient}, used with the custom {@link HttpTransport} or when enabled by
+ * the {@link AuthenticationSettings}.
+ * <p>
+ * Requests carry the temporary token (TT) cookie. When the API challenges a request by <code>401 Unauthorized</code>,
+ * the TT is refreshed and the request is executed again, the super-secure token (SST) is obtained using
+ * the {@link SSTRetrievalStrategy} only when the TT refresh is refused. Concurrently challenged requests wait for
+ * the single refresh. The tokens are held by the {@link TokenManager}; when it refreshes them ahead, the missing or
+ * expired TT is obtained before the request is sent.
+ */
+class AuthenticatingRequestInterceptor implements RequestInterceptor {
+
+    static final String TOKEN_URL = "/gdc/account/token";
+    static final String TT_COOKIE_NAME = "GDCAuthTT";
+
+    private static final String WWW_AUTHENTICATE_HEADER = "WWW-Authenticate";
+    private static final String COOKIE_HEADER = "Cookie";
+    private static final String TT_CHALLENGE = "cookie=GDCAuthTT";
+    private static final String SST_CHALLENGE = "cookie=GDCAuthSST";
+
+    private final TokenManager tokens;
+
+    /**
+     * @param tokens manager of the user's tokens
+     */
+    AuthenticatingRequestInterceptor(final TokenManager tokens) {
+        this.tokens = notNull(tokens, "tokens");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final RequestBody body,
+                                        final Execution execution) throws IOException {
+        if (tokens.isTtExpired()) {
+            tokens.refresh(tokens.getTt(), false);
+        }
+        final String usedTt = tokens.getTt();
+        final ClientHttpResponse response = execution.execute(withCookie(request, TT_COOKIE_NAME, usedTt), body);
+        final List<String> challenges = response.getRawStatusCode() == 401
+                ? response.getHeaders().get(WWW_AUTHENTICATE_HEADER) : null;
+        if (!hasChallenge(challenges, TT_CHALLENGE) && !hasChallenge(challenges, SST_CHALLENGE)) {
+            return response;
+        }
+        response.close();
+        tokens.refresh(usedTt, hasChallenge(challenges, SST_CHALLENGE));
+        return execution.execute(withCookie(request, TT_COOKIE_NAME, tokens.getTt()), body);
+    }
+
+    private static boolean hasChallenge(final List<String> challenges, final String challenge) {
+        if (challenges != null) {
+            for (String value : challenges) {
+                if (value != null && value.contains(challenge)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get value of the cookie set by the response.
+     *
+     * @return cookie value or null if the response doesn't set it
+     */
+    static String getCookie(final HttpHeaders headers, final String name) {
+        final HttpCookie cookie = getHttpCookie(headers, name);
+        return cookie != null ? cookie.getValue() : null;
+    }
+
+    /**
+     * Get the cookie set by the response.
+     *
+     * @return cookie or null if the response doesn't set it
+     */
+    static HttpCookie getHttpCookie(final HttpHeaders headers, final String name) {
+        final List<String> setCookies = headers.get("Set-Cookie");
+        if (setCookies != null) {
+            for (String setCookie : setCookies) {
+                try {
+                    for (HttpCookie cookie : HttpCookie.parse(setCookie)) {
+                        if (name.equals(cookie.getName())) {
+                            return cookie;
+                        }
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // other malformed cookie
+                }
+            }
+        }
+        return null;
+    }
+
+    static HttpRequest withCookie(final HttpRequest request, final String name, final String value) {
+        if (value == null) {
+            return request;
+        }
+        final HttpHeaders headers = new HttpHeaders();
+        headers.putAll(request.getHeaders());
+        final String cookies = headers.getFirst(COOKIE_HEADER);
+        headers.set(COOKIE_HEADER, (cookies != null ? cookies + "; " : "") + name + "=" + value);
+        return new SimpleRequest(request.getMethod(), request.getURI(), headers);
+    }
+
+    static class SimpleRequest implements HttpRequest {
+        private final HttpMethod method;
+        private final URI uri;
+        private final HttpHeaders headers;
+
+        SimpleRequest(final HttpMethod method, final URI uri, final HttpHeaders headers) {
+            this.method = method;
+            this.uri = uri;
+            this.headers = headers;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.io.File;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Settings of the SST/TT authentication, see {@link GoodDataSettings#getAuthentication()}.
+ * <p>
+ * By default the temporary token (TT) is refreshed only after a request is refused by <code>401 Unauthorized</code>,
+ * so all the requests in progress at the moment the token expires are refused and sent again. When the refresh ahead
+ * is set, the TT is refreshed in background before it expires and the requests keep using the valid one.
+ * <p>
+ * The super-secure token (SST) obtained by the login can be stored in a directory, so instances of the same user
+ * (e.g. restarted workers) reuse it instead of logging in again. The directory must be accessible just to the user
+ * running the application, the SST authenticates the GoodData user.
+ * <p>
+ * When either is enabled, the authentication is done by the SDK itself instead of
+ * the {@link com.gooddata.http.client.GoodDataHttpClient}.
+ */
+public class AuthenticationSettings {
+
+    private long tokenRefreshAhead = 0;
+    private long tokenLifetime = 10 * 60 * 1000;
+    private File sstDirectory;
+
+    /**
+     * Set milliseconds before the TT expiration when the TT is refreshed in background.
+     *
+     * The default value is 0, the TT is refreshed after a request is refused.
+     *
+     * @param tokenRefreshAhead milliseconds before the expiration, 0 to disable the background refresh
+     */
+    public void setTokenRefreshAhead(long tokenRefreshAhead) {
+        isTrue(tokenRefreshAhead >= 0, "tokenRefreshAhead must be not negative");
+        this.tokenRefreshAhead = tokenRefreshAhead;
+    }
+
+    /**
+     * Milliseconds before the TT expiration when the TT is refreshed in background
+     * @return milliseconds before the expiration, 0 if the background refresh is disabled
+     */
+    public long getTokenRefreshAhead() {
+        return tokenRefreshAhead;
+    }
+
+    /**
+     * Set milliseconds the TT is valid for, used when the API doesn't tell the TT expiration.
+     *
+     * The default value is 10 minutes (600000 ms).
+     *
+     * @param tokenLifetime TT lifetime
+     */
+    public void setTokenLifetime(long tokenLifetime) {
+        isTrue(tokenLifetime > 0, "tokenLifetime must be greater than zero");
+        this.tokenLifetime = tokenLifetime;
+    }
+
+    /**
+     * Milliseconds the TT is valid for, unless the API tells the TT expiration
+     * @return TT lifetime
+     */
+    public long getTokenLifetime() {
+        return tokenLifetime;
+    }
+
+    /**
+     * Set directory to store the SST of each user in.
+     *
+     * The default value is null, the SST is not stored.
+     *
+     * @param sstDirectory existing directory or null to not store the SST
+     */
+    public void setSstDirectory(File sstDirectory) {
+        isTrue(sstDirectory == null || sstDirectory.isDirectory(), "sstDirectory must be an existing directory");
+        this.sstDirectory = sstDirectory;
+    }
+
+    /**
+     * Directory the SST of each user is stored in
+     * @return directory or null if the SST is not stored
+     */
+    public File getSstDirectory() {
+        return sstDirectory;
+    }
+
+    /**
+     * Whether the authentication is done by the SDK instead of the GoodData HTTP client
+     */
+    boolean isManaged() {
+        return tokenRefreshAhead > 0 || sstDirectory != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof AuthenticationSettings))
+            return false;
+
+        AuthenticationSettings that = (AuthenticationSettings) o;
+
+        if (tokenRefreshAhead != that.tokenRefreshAhead)
+            return false;
+        if (tokenLifetime != that.tokenLifetime)
+            return false;
+        return sstDirectory != null ? sstDirectory.equals(that.sstDirectory) : that.sstDirectory == null;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (tokenRefreshAhead ^ (tokenRefreshAhead >>> 32));
+        result = 31 * result + (int) (tokenLifetime ^ (tokenLifetime >>> 32));
+        result = 31 * result + (sstDirectory != null ? sstDirectory.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticationSettings{" +
+                "tokenRefreshAhead=" + tokenRefreshAhead +
+                ", tokenLifetime=" + tokenLifetime +
+                ", sstDirectory=" + sstDirectory +
+                '}';
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.io.File;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Settings of the HTTP cache of the API responses, see {@link GoodDataSettings#getCache()}.
+ * <p>
+ * The cache follows the HTTP caching rules: only responses allowing it by their <code>Cache-Control</code>
+ * or <code>Expires</code> headers are cached, stale responses are revalidated by conditional requests using their
+ * <code>ETag</code> or <code>Last-Modified</code> headers, so unchanged resources are answered by
+ * <code>304 Not Modified</code> without the body. The cache is private to the {@link GoodData} instance (user).
+ * <p>
+ * Cache entries are held in memory, the response bodies can be optionally spooled to a directory on disk.
+ * The cache isn't persistent either way, it starts empty with each instance. The cache is disabled by default.
+ */
+public class CacheSettings {
+
+    private boolean enabled = false;
+    private int maxEntries = 1000;
+    private long maxObjectSize = 1024 * 1024;
+    private File directory;
+
+    /**
+     * Set whether the API responses are cached.
+     *
+     * The default value is false.
+     *
+     * @param enabled true to enable the cache
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether the API responses are cached
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set maximum number of cached responses, the least recently used ones are evicted.
+     *
+     * The default value is 1000.
+     *
+     * @param maxEntries maximum number of cached responses
+     */
+    public void setMaxEntries(int maxEntries) {
+        isTrue(maxEntries > 0, "maxEntries must be greater than zero");
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Maximum number of cached responses
+     * @return maximum number of cached responses
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Set maximum size of the cached response body, larger responses are not cached.
+     *
+     * The default value is 1 MB.
+     *
+     * @param maxObjectSize maximum body bytes
+     */
+    public void setMaxObjectSize(long maxObjectSize) {
+        isTrue(maxObjectSize > 0, "maxObjectSize must be greater than zero");
+        this.maxObjectSize = maxObjectSize;
+    }
+
+    /**
+     * Maximum size of the cached response body
+     * @return maximum body bytes
+     */
+    public long getMaxObjectSize() {
+        return maxObjectSize;
+    }
+
+    /**
+     * Set directory to spool the cached response bodies to, instead of keeping them in memory. The files are
+     * deleted once their entries are evicted and when the instance logs out, they're never read by another instance.
+     *
+     * The default value is null, the bodies are kept in memory.
+     *
+     * @param directory existing directory or null to keep the bodies in memory
+     */
+    public void setDirectory(File directory) {
+        isTrue(directory == null || directory.isDirectory(), "directory must be an existing directory");
+        this.directory = directory;
+    }
+
+    /**
+     * Directory the cached response bodies are spooled to
+     * @return directory or null if the bodies are kept in memory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof CacheSettings))
+            return false;
+
+        CacheSettings that = (CacheSettings) o;
+
+        if (enabled != that.enabled)
+            return false;
+        if (maxEntries != that.maxEntries)
+            return false;
+        if (maxObjectSize != that.maxObjectSize)
+            return false;
+        return directory != null ? directory.equals(that.directory) : that.directory == null;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (enabled ? 1 : 0);
+        result = 31 * result + maxEntries;
+        result = 31 * result + (int) (maxObjectSize ^ (maxObjectSize >>> 32));
+        result = 31 * result + (directory != null ? directory.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheSettings{" +
+                "enabled=" + enabled +
+                ", maxEntries=" + maxEntries +
+                ", maxObjectSize=" + maxObjectSize +
+                ", directory=" + directory +
+                '}';
+    }
+}
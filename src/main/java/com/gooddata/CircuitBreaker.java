@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Fails the calls fast when the platform seems to be down, see {@link RetrySettings#setCircuitBreakerThreshold(int)}.
+ * <p>
+ * The breaker is closed until given number of consecutive calls fail. Then it's open, rejecting all the calls
+ * for the given time. After that single trial call is let through (the breaker is half-open); its success closes
+ * the breaker, its failure opens it again.
+ */
+class CircuitBreaker {
+
+    private final int threshold;
+    private final long openTime;
+
+    private int failures;
+    private long openedAt;
+    private boolean trialInProgress;
+
+    /**
+     * @param threshold number of consecutive failures opening the breaker
+     * @param openTime  milliseconds the breaker stays open
+     */
+    CircuitBreaker(final int threshold, final long openTime) {
+        isTrue(threshold > 0, "threshold must be greater than zero");
+        isTrue(openTime > 0, "openTime must be greater than zero");
+        this.threshold = threshold;
+        this.openTime = openTime;
+    }
+
+    /**
+     * Acquire permission to execute a call.
+     *
+     * @return true if the call is the trial of the half-open breaker
+     * @throws CircuitBreakerOpenException when the breaker is open
+     */
+    synchronized boolean acquire() {
+        if (failures < threshold) {
+            return false;
+        }
+        final long remaining = openedAt + openTime - System.currentTimeMillis();
+        if (remaining > 0 || trialInProgress) {
+            throw new CircuitBreakerOpenException(Math.max(remaining, 0));
+        }
+        trialInProgress = true;
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        failures = 0;
+        trialInProgress = false;
+    }
+
+    synchronized void onFailure() {
+        failures = Math.min(failures + 1, threshold);
+        if (failures == threshold) {
+            // (re)open, also failures of the calls started before opening postpone the trial
+            openedAt = System.currentTimeMillis();
+        }
+        trialInProgress = false;
+    }
+
+    /**
+     * Let another trial through, the trial call ended without telling whether the platform is up
+     * (e.g. it wasn't sent at all).
+     */
+    synchronized void release() {
+        trialInProgress = false;
+    }
+
+    synchronized boolean isOpen() {
+        return failures >= threshold;
+    }
+}
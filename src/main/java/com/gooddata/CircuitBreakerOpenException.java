@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Signals the API call was not executed, because the preceding calls failed and the platform seems to be down.
+ *
+ * @see RetrySettings#setCircuitBreakerThreshold(int)
+ */
+public class CircuitBreakerOpenException extends GoodDataException {
+
+    private final long retryAfterMillis;
+
+    /**
+     * Construct a CircuitBreakerOpenException.
+     *
+     * @param retryAfterMillis milliseconds after which the next call will be let through
+     */
+    public CircuitBreakerOpenException(final long retryAfterMillis) {
+        super("Circuit breaker is open, the API calls are failing, next call allowed in " + retryAfterMillis + " ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Milliseconds after which the next call will be let through
+     * @return milliseconds
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
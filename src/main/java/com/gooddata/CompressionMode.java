@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Content compression used for the communication with GoodData Platform, see
+ * {@link GoodDataSettings#setCompressionMode(CompressionMode)}.
+ */
+public enum CompressionMode {
+
+    /**
+     * Neither request nor response bodies are compressed.
+     */
+    NONE,
+
+    /**
+     * Responses are requested gzip or deflate encoded (by the <code>Accept-Encoding</code> header) and transparently
+     * decoded, request bodies are sent as they are. The request bodies are never compressed, neither the REST API
+     * nor the data store (which would store the encoded content as it is) decode them.
+     */
+    RESPONSES;
+
+    /**
+     * @return true if responses should be requested compressed
+     */
+    public boolean isResponseCompression() {
+        return this != NONE;
+    }
+}
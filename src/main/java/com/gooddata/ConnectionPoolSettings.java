@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Settings of a single HTTP connection pool, see {@link GoodDataSettings#getApiConnectionPool()} and
+ * {@link GoodDataSettings#getStagingConnectionPool()}.
+ */
+public class ConnectionPoolSettings {
+
+    private int maxTotal = 20;
+    private int maxPerRoute = 20;
+    private long maxKeepAlive = -1;
+    private long idleConnectionTimeout = 0;
+    private boolean staleConnectionCheck = true;
+
+    /**
+     * Set maximum number of connections in the pool.
+     *
+     * The default value is 20.
+     *
+     * @param maxTotal maximum number of connections
+     */
+    public void setMaxTotal(int maxTotal) {
+        isTrue(maxTotal > 0, "maxTotal must be greater than zero");
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Maximum number of connections in the pool
+     * @return maximum number of connections
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Set maximum number of connections to single host.
+     *
+     * The default value is 20.
+     *
+     * @param maxPerRoute maximum number of connections to single host
+     */
+    public void setMaxPerRoute(int maxPerRoute) {
+        isTrue(maxPerRoute > 0, "maxPerRoute must be greater than zero");
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    /**
+     * Maximum number of connections to single host
+     * @return maximum number of connections to single host
+     */
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Set maximum milliseconds an idle connection is kept alive for reuse. Shorter time requested by the server
+     * (by the <code>Keep-Alive</code> header) is always respected.
+     *
+     * The default value is -1, keeping connections alive as long as the server allows.
+     *
+     * @param maxKeepAlive maximum keep-alive milliseconds, or -1 for no limit
+     */
+    public void setMaxKeepAlive(long maxKeepAlive) {
+        isTrue(maxKeepAlive > 0 || maxKeepAlive == -1, "maxKeepAlive must be greater than zero or -1");
+        this.maxKeepAlive = maxKeepAlive;
+    }
+
+    /**
+     * Maximum milliseconds an idle connection is kept alive for reuse
+     * @return maximum keep-alive milliseconds, or -1 for no limit
+     */
+    public long getMaxKeepAlive() {
+        return maxKeepAlive;
+    }
+
+    /**
+     * Set milliseconds after which idle connections are closed by a background thread, so the connections dropped
+     * by the server (or a load balancer) in the meantime are not reused.
+     *
+     * The default value is 0, idle connections are not evicted.
+     *
+     * @param idleConnectionTimeout idle connection timeout milliseconds, 0 to disable eviction
+     */
+    public void setIdleConnectionTimeout(long idleConnectionTimeout) {
+        isTrue(idleConnectionTimeout >= 0, "idleConnectionTimeout must be not negative");
+        this.idleConnectionTimeout = idleConnectionTimeout;
+    }
+
+    /**
+     * Milliseconds after which idle connections are closed
+     * @return idle connection timeout milliseconds, 0 if idle connections are not evicted
+     */
+    public long getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    /**
+     * Set whether a pooled connection is checked to be still open before it's reused. The check costs up to
+     * a millisecond per request; it can be disabled when {@link #setIdleConnectionTimeout(long) idle eviction}
+     * is shorter than the server's keep-alive timeout.
+     *
+     * The default value is true.
+     *
+     * @param staleConnectionCheck true to check connections before reuse
+     */
+    public void setStaleConnectionCheck(boolean staleConnectionCheck) {
+        this.staleConnectionCheck = staleConnectionCheck;
+    }
+
+    /**
+     * Whether a pooled connection is checked to be still open before it's reused
+     * @return true if connections are checked before reuse
+     */
+    public boolean isStaleConnectionCheck() {
+        return staleConnectionCheck;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ConnectionPoolSettings))
+            return false;
+
+        ConnectionPoolSettings that = (ConnectionPoolSettings) o;
+
+        if (maxTotal != that.maxTotal)
+            return false;
+        if (maxPerRoute != that.maxPerRoute)
+            return false;
+        if (maxKeepAlive != that.maxKeepAlive)
+            return false;
+        if (idleConnectionTimeout != that.idleConnectionTimeout)
+            return false;
+        return staleConnectionCheck == that.staleConnectionCheck;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxTotal;
+        result = 31 * result + maxPerRoute;
+        result = 31 * result + (int) (maxKeepAlive ^ (maxKeepAlive >>> 32));
+        result = 31 * result + (int) (idleConnectionTimeout ^ (idleConnectionTimeout >>> 32));
+        result = 31 * result + (staleConnectionCheck ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolSettings{" +
+                "maxTotal=" + maxTotal +
+                ", maxPerRoute=" + maxPerRoute +
+                ", maxKeepAlive=" + maxKeepAlive +
+                ", idleConnectionTimeout=" + idleConnectionTimeout +
+                ", staleConnectionCheck=" + staleConnectionCheck +
+                '}';
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Opens the pooled connections in advance, see {@link GoodData#warmUp(int)}.
+ * <p>
+ * The first connection is opened alone, so its full TLS handshake establishes the session the other connections,
+ * opened concurrently, just resume.
+ */
+class ConnectionWarmer {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ConnectionPoolSettings pool;
+    private final int connectTimeout;
+
+    /**
+     * @param connectionManager manager pooling the connections
+     * @param pool              settings of the pool
+     * @param connectTimeout    connection timeout in milliseconds
+     */
+    ConnectionWarmer(final PoolingHttpClientConnectionManager connectionManager, final ConnectionPoolSettings pool,
+                     final int connectTimeout) {
+        this.connectionManager = notNull(connectionManager, "connectionManager");
+        this.pool = notNull(pool, "pool");
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Make the given number of connections to the host available in the pool, at most the maximum per route.
+     *
+     * @param host        target host
+     * @param connections number of connections
+     * @return number of the newly opened connections
+     * @throws IOException when the connection can't be opened
+     */
+    int warmUp(final HttpHost host, final int connections) throws IOException {
+        final HttpHost target = host.getPort() > 0 ? host
+                : new HttpHost(host.getHostName(), DefaultSchemePortResolver.INSTANCE.resolve(host), host.getSchemeName());
+        final HttpRoute route = new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+
+        final List<HttpClientConnection> leased = new ArrayList<>();
+        try {
+            // lease all at once, so the pool doesn't hand out the same connection again
+            for (int i = 0; i < Math.min(connections, pool.getMaxPerRoute()); i++) {
+                leased.add(lease(route));
+            }
+            final List<HttpClientConnection> closed = new ArrayList<>();
+            for (HttpClientConnection connection : leased) {
+                if (!connection.isOpen()) {
+                    closed.add(connection);
+                }
+            }
+            if (closed.isEmpty()) {
+                return 0;
+            }
+            connect(closed.get(0), route);
+            connectConcurrently(closed.subList(1, closed.size()), route);
+            return closed.size();
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                release(connection);
+            }
+        }
+    }
+
+    private HttpClientConnection lease(final HttpRoute route) throws IOException {
+        try {
+            return connectionManager.requestConnection(route, null).get(connectTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for connection");
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to lease connection to " + route, e.getCause());
+        }
+    }
+
+    private void connect(final HttpClientConnection connection, final HttpRoute route) throws IOException {
+        final HttpClientContext context = HttpClientContext.create();
+        connectionManager.connect(connection, route, connectTimeout, context);
+        connectionManager.routeComplete(connection, route, context);
+        // binds the socket streams, the stale check of a connection that has never been used fails otherwise
+        connection.flush();
+    }
+
+    private void connectConcurrently(final List<HttpClientConnection> connections, final HttpRoute route)
+            throws IOException {
+        if (connections.isEmpty()) {
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(connections.size());
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (final HttpClientConnection connection : connections) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        connect(connection, route);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while opening connections");
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                            : new IOException("Unable to open connection to " + route, e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Return the connection to the pool, the connection which failed to open is discarded.
+     */
+    private void release(final HttpClientConnection connection) {
+        final long keepAlive = pool.getMaxKeepAlive() > 0 ? pool.getMaxKeepAlive() : 0;
+        connectionManager.releaseConnection(connection, null, keepAlive, TimeUnit.MILLISECONDS);
+    }
+}
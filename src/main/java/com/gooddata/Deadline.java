@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.gooddata.util.Validate.notNull;
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Time budget of an operation composed of several API calls, e.g. the dataset load (uploads, ETL pull, polling
+ * and cleanup). The deadline applies to the calls made by the thread which started it until it's closed,
+ * including the polling of the {@link FutureResult}s created meanwhile.
+ * <p>
+ * Each request fails fast with the {@link DeadlineExceededException} when the budget is spent and its connect,
+ * connection pool lease and socket timeouts are limited to the remaining budget. The polled result fails with
+ * the {@link DeadlineExceededException} when the deadline passes, its polling stops and the resources held for
+ * the task are released as if it was cancelled. Nested deadline can't extend the outer one.
+ * <p>
+ * Usage example:
+ * <pre><code>
+ *     try (Deadline deadline = Deadline.start(5, TimeUnit.SECONDS)) {
+ *         datasetService.loadDataset(project, manifest, data).get();
+ *     }
+ * </code></pre>
+ */
+public final class Deadline implements AutoCloseable {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long timeoutMillis;
+    private final long expirationNanos;
+    private final Deadline previous;
+
+    private Deadline(final long timeoutMillis, final long expirationNanos, final Deadline previous) {
+        this.timeoutMillis = timeoutMillis;
+        this.expirationNanos = expirationNanos;
+        this.previous = previous;
+    }
+
+    /**
+     * Start the deadline of the calls made by the current thread.
+     *
+     * @param timeout budget of the operation
+     * @param unit    budget unit
+     * @return started deadline, to be closed when the operation is finished
+     */
+    public static Deadline start(final long timeout, final TimeUnit unit) {
+        isTrue(timeout > 0, "timeout must be greater than zero");
+        notNull(unit, "unit");
+        final Deadline outer = CURRENT.get();
+        final long expiration = System.nanoTime() + unit.toNanos(timeout);
+        final Deadline deadline = outer != null && outer.expirationNanos - expiration < 0
+                ? new Deadline(outer.timeoutMillis, outer.expirationNanos, outer)
+                : new Deadline(unit.toMillis(timeout), expiration, outer);
+        CURRENT.set(deadline);
+        return deadline;
+    }
+
+    /**
+     * Get the deadline of the current thread
+     *
+     * @return deadline or null if the calls of the current thread are not bounded
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Apply the given deadline to the calls made by the current thread, used by the polling threads.
+     *
+     * @param deadline deadline to apply, null to remove it
+     * @return the deadline applied before
+     */
+    static Deadline attach(final Deadline deadline) {
+        final Deadline previous = CURRENT.get();
+        if (deadline != null) {
+            CURRENT.set(deadline);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Milliseconds left before the deadline
+     *
+     * @return remaining budget rounded up, 0 when expired
+     */
+    public long getRemainingMillis() {
+        final long remaining = expirationNanos - System.nanoTime();
+        return remaining > 0 ? TimeUnit.NANOSECONDS.toMillis(remaining + TimeUnit.MILLISECONDS.toNanos(1) - 1) : 0;
+    }
+
+    /**
+     * Whether the deadline has passed
+     *
+     * @return true when the budget is spent
+     */
+    public boolean isExpired() {
+        return expirationNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Fail when the deadline has passed.
+     *
+     * @throws DeadlineExceededException when the budget is spent
+     */
+    public void check() {
+        if (isExpired()) {
+            throw exceeded();
+        }
+    }
+
+    DeadlineExceededException exceeded() {
+        return new DeadlineExceededException(timeoutMillis);
+    }
+
+    DeadlineExceededException exceeded(final Throwable cause) {
+        return new DeadlineExceededException(timeoutMillis, cause);
+    }
+
+    /**
+     * Stop applying the deadline to the calls made by the current thread, the outer deadline (if any) applies again.
+     * The results created meanwhile are still bounded by this deadline.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            attach(previous);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{" +
+                "timeoutMillis=" + timeoutMillis +
+                ", remainingMillis=" + getRemainingMillis() +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Signals the operation didn't finish before its {@link Deadline}.
+ */
+public class DeadlineExceededException extends GoodDataException {
+
+    /**
+     * Construct a DeadlineExceededException.
+     *
+     * @param timeoutMillis the budget of the operation
+     */
+    public DeadlineExceededException(final long timeoutMillis) {
+        super("Deadline of " + timeoutMillis + " ms exceeded");
+    }
+
+    /**
+     * Construct a DeadlineExceededException.
+     *
+     * @param timeoutMillis the budget of the operation
+     * @param cause         the failure caused by the deadline, e.g. the socket timeout
+     */
+    public DeadlineExceededException(final long timeoutMillis, final Throwable cause) {
+        super("Deadline of " + timeoutMillis + " ms exceeded", cause);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Limits the connect, connection pool lease and socket timeouts of the request to the remaining budget
+ * of the {@link Deadline} of the current thread, applies to both the API calls and the data store transfers.
+ */
+class DeadlineHttpInterceptor implements HttpRequestInterceptor {
+
+    @Override
+    public void process(final HttpRequest request, final HttpContext context) {
+        final Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return;
+        }
+        final long remaining = deadline.getRemainingMillis();
+        if (remaining <= 0) {
+            throw deadline.exceeded();
+        }
+        final int budget = (int) Math.min(Integer.MAX_VALUE, remaining);
+        final HttpClientContext clientContext = HttpClientContext.adapt(context);
+        final RequestConfig config = clientContext.getRequestConfig();
+        clientContext.setRequestConfig(RequestConfig.copy(config)
+                .setConnectTimeout(limit(config.getConnectTimeout(), budget))
+                .setConnectionRequestTimeout(limit(config.getConnectionRequestTimeout(), budget))
+                .setSocketTimeout(limit(config.getSocketTimeout(), budget))
+                .build());
+    }
+
+    /**
+     * @param timeout configured timeout, not positive if there is none
+     */
+    private static int limit(final int timeout, final int budget) {
+        return timeout > 0 && timeout < budget ? timeout : budget;
+    }
+}
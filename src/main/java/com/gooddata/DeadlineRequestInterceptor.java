@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Fails each attempt of the API call made after the {@link Deadline} of the current thread has passed. The I/O
+ * failure (e.g. the socket timeout limited by the {@link DeadlineHttpInterceptor}) after the deadline is reported
+ * as {@link DeadlineExceededException} and not retried.
+ */
+class DeadlineRequestInterceptor implements RequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final RequestBody body,
+                                        final Execution execution) throws IOException {
+        final Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return execution.execute(request, body);
+        }
+        deadline.check();
+        try {
+            return execution.execute(request, body);
+        } catch (IOException e) {
+            if (deadline.isExpired()) {
+                throw deadline.exceeded(e);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Snapshot of the metrics of the requests to single endpoint (HTTP method and URI template),
+ * see {@link GoodDataMetrics#getSnapshot()}.
+ * <p>
+ * Latencies are kept in a histogram with relative precision better than 7 %, the reported percentiles are the upper
+ * bounds of the histogram buckets.
+ */
+public final class EndpointMetrics {
+
+    private final String method;
+    private final String uriTemplate;
+    private final long[] statusClasses;
+    private final long count;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final long[] latencyCounts;
+    private final long latencySum;
+    private final long maxLatency;
+
+    EndpointMetrics(final String method, final String uriTemplate, final long[] statusClasses, final long bytesSent,
+                    final long bytesReceived, final long[] latencyCounts, final long latencySum,
+                    final long maxLatency) {
+        this.method = method;
+        this.uriTemplate = uriTemplate;
+        this.statusClasses = statusClasses;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.latencyCounts = latencyCounts;
+        this.latencySum = latencySum;
+        this.maxLatency = maxLatency;
+        long total = 0;
+        for (long latencyCount : latencyCounts) {
+            total += latencyCount;
+        }
+        this.count = total;
+    }
+
+    /**
+     * HTTP method of the endpoint
+     * @return HTTP method
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * URI template of the endpoint
+     * @return URI template
+     */
+    public String getUriTemplate() {
+        return uriTemplate;
+    }
+
+    /**
+     * Number of completed requests
+     * @return number of requests
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Number of requests answered by status of the given class
+     * @param series status class
+     * @return number of requests
+     */
+    public long getCount(final HttpStatus.Series series) {
+        return statusClasses[series.value()];
+    }
+
+    /**
+     * Number of requests failed without receiving the response (I/O errors)
+     * @return number of requests
+     */
+    public long getFailedCount() {
+        return statusClasses[0];
+    }
+
+    /**
+     * Total size of the request bodies
+     * @return number of bytes
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Total size of the response bodies
+     * @return number of bytes
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Latency of the requests at the given percentile
+     * @param percentile percentile (0 - 100]
+     * @param unit time unit of the result
+     * @return latency, 0 if there are no requests
+     */
+    public long getLatency(final double percentile, final TimeUnit unit) {
+        isTrue(percentile > 0 && percentile <= 100, "percentile must be in (0, 100] range");
+        return unit.convert(LatencyHistogram.percentile(latencyCounts, count, percentile), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Mean latency of the requests
+     * @param unit time unit of the result
+     * @return mean latency, 0 if there are no requests
+     */
+    public long getMeanLatency(final TimeUnit unit) {
+        return count == 0 ? 0 : unit.convert(latencySum / count, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Maximal latency of the requests
+     * @param unit time unit of the result
+     * @return maximal latency
+     */
+    public long getMaxLatency(final TimeUnit unit) {
+        return unit.convert(maxLatency, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Total time spent by the requests
+     * @param unit time unit of the result
+     * @return sum of the latencies
+     */
+    public long getTotalLatency(final TimeUnit unit) {
+        return unit.convert(latencySum, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointMetrics{" +
+                method + " " + uriTemplate +
+                ", count=" + count +
+                ", 2xx=" + statusClasses[2] +
+                ", 4xx=" + statusClasses[4] +
+                ", 5xx=" + statusClasses[5] +
+                ", failed=" + statusClasses[0] +
+                ", bytesSent=" + bytesSent +
+                ", bytesReceived=" + bytesReceived +
+                ", p50=" + getLatency(50, TimeUnit.MILLISECONDS) + "ms" +
+                ", p99=" + getLatency(99, TimeUnit.MILLISECONDS) + "ms" +
+                ", max=" + getMaxLatency(TimeUnit.MILLISECONDS) + "ms" +
+                '}';
+    }
+}
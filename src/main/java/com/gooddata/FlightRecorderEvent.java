@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.gooddata.util.Validate.notEmpty;
+
+/**
+ * Java Flight Recorder event emitted by the SDK (category <code>GoodData</code>), so the SDK latency can be correlated
+ * with the GC and thread activity in single recording. The events are recorded only when enabled by the running
+ * recording, otherwise emitting them costs just a check.
+ * <p>
+ * The JFR API is available since Java 11 (and Java 8u262), while the SDK runs on Java 7. So the event types are
+ * defined at runtime by the <code>jdk.jfr.EventFactory</code> and no events are emitted when the API is missing.
+ * <p>
+ * Used internally by the SDK services, usage example:
+ * <pre><code>
+ *     final FlightRecorderEvent event = FlightRecorderEvent.STAGING_TRANSFER.begin();
+ *     // do the transfer
+ *     event.commit("upload", uri.toString(), bytes);
+ * </code></pre>
+ */
+public final class FlightRecorderEvent {
+
+    // initialized before the event types
+    private static final FlightRecorderEvent NOT_RECORDED = new FlightRecorderEvent(null);
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * API call: method, URI template, status code (0 if no response was received), bytes sent and received
+     */
+    public static final Type HTTP_EXCHANGE = new Type("com.gooddata.HttpExchange", "HTTP Exchange",
+            "API call including reading of the response body",
+            new Field(String.class, "method", "Method", false),
+            new Field(String.class, "uriTemplate", "URI Template", false),
+            new Field(int.class, "statusCode", "Status Code", false),
+            new Field(long.class, "bytesSent", "Bytes Sent", true),
+            new Field(long.class, "bytesReceived", "Bytes Received", true));
+
+    /**
+     * Single poll of an asynchronous task: polling URI and whether the task is done
+     */
+    public static final Type POLL = new Type("com.gooddata.Poll", "Poll", "Single poll of an asynchronous task",
+            new Field(String.class, "uri", "URI", false),
+            new Field(boolean.class, "done", "Done", false));
+
+    /**
+     * Data store (user staging) transfer: operation, URI and bytes of the transferred content (-1 if unknown)
+     */
+    public static final Type STAGING_TRANSFER = new Type("com.gooddata.StagingTransfer", "Staging Transfer",
+            "Upload, download or delete at the data store (user staging)",
+            new Field(String.class, "operation", "Operation", false),
+            new Field(String.class, "uri", "URI", false),
+            new Field(long.class, "bytes", "Bytes", true));
+
+    /**
+     * JSON deserialization of a response body: target class
+     */
+    public static final Type JSON_DESERIALIZATION = new Type("com.gooddata.JsonDeserialization",
+            "JSON Deserialization", "Deserialization of the response body",
+            new Field(String.class, "targetClass", "Target Class", false));
+
+    private final Object event;
+
+    private FlightRecorderEvent(final Object event) {
+        this.event = event;
+    }
+
+    /**
+     * Whether the event is recorded
+     * @return false if the event type isn't enabled by any recording
+     */
+    public boolean isRecorded() {
+        return event != null;
+    }
+
+    /**
+     * Record the event with the given field values, its duration ends now.
+     *
+     * @param values values of the fields in the order of the event type definition
+     */
+    public void commit(final Object... values) {
+        if (event == null) {
+            return;
+        }
+        try {
+            for (int i = 0; i < values.length; i++) {
+                Jfr.set.invoke(event, i, values[i]);
+            }
+            Jfr.commit.invoke(event, NO_ARGS);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // the event is just lost, the recording must not fail the SDK
+        }
+    }
+
+    /**
+     * Type of the event
+     */
+    public static final class Type {
+
+        private final Object factory;
+        private final Object eventType;
+
+        private Type(final String name, final String label, final String description, final Field... fields) {
+            Object factory = null;
+            Object eventType = null;
+            if (Jfr.AVAILABLE) {
+                try {
+                    final List<Object> annotations = Arrays.asList(
+                            Jfr.annotation("jdk.jfr.Name", name),
+                            Jfr.annotation("jdk.jfr.Label", label),
+                            Jfr.annotation("jdk.jfr.Description", description),
+                            Jfr.annotation("jdk.jfr.Category", new String[]{"GoodData"}));
+                    final List<Object> values = new ArrayList<>();
+                    for (Field field : fields) {
+                        values.add(field.toValueDescriptor());
+                    }
+                    factory = Jfr.create.invoke(null, annotations, values);
+                    eventType = Jfr.getEventType.invoke(factory, NO_ARGS);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    factory = null;
+                    eventType = null;
+                }
+            }
+            this.factory = factory;
+            this.eventType = eventType;
+        }
+
+        /**
+         * Start the event, its duration starts now.
+         *
+         * @return started event, which does nothing when the event type isn't recorded
+         */
+        public FlightRecorderEvent begin() {
+            if (eventType == null) {
+                return NOT_RECORDED;
+            }
+            try {
+                if (!(Boolean) Jfr.isEnabled.invoke(eventType, NO_ARGS)) {
+                    return NOT_RECORDED;
+                }
+                final Object event = Jfr.newEvent.invoke(factory, NO_ARGS);
+                Jfr.begin.invoke(event, NO_ARGS);
+                return new FlightRecorderEvent(event);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return NOT_RECORDED;
+            }
+        }
+    }
+
+    private static final class Field {
+        private final Class<?> type;
+        private final String name;
+        private final String label;
+        private final boolean bytes;
+
+        private Field(final Class<?> type, final String name, final String label, final boolean bytes) {
+            this.type = type;
+            this.name = notEmpty(name, "name");
+            this.label = notEmpty(label, "label");
+            this.bytes = bytes;
+        }
+
+        private Object toValueDescriptor() throws ReflectiveOperationException {
+            final List<Object> annotations = new ArrayList<>();
+            annotations.add(Jfr.annotation("jdk.jfr.Label", label));
+            if (bytes) {
+                annotations.add(Jfr.annotation("jdk.jfr.DataAmount", "BYTES"));
+            }
+            return Jfr.valueDescriptor.newInstance(type, name, annotations);
+        }
+    }
+
+    /**
+     * Reflective access to the JFR API
+     */
+    private static final class Jfr {
+        private static final boolean AVAILABLE;
+        private static Constructor<?> annotationElement;
+        private static Constructor<?> valueDescriptor;
+        private static Method create;
+        private static Method getEventType;
+        private static Method newEvent;
+        private static Method isEnabled;
+        private static Method begin;
+        private static Method set;
+        private static Method commit;
+
+        static {
+            boolean available;
+            try {
+                final ClassLoader loader = FlightRecorderEvent.class.getClassLoader();
+                final Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory", false, loader);
+                final Class<?> event = Class.forName("jdk.jfr.Event", false, loader);
+                annotationElement = Class.forName("jdk.jfr.AnnotationElement", false, loader)
+                        .getConstructor(Class.class, Object.class);
+                valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor", false, loader)
+                        .getConstructor(Class.class, String.class, List.class);
+                create = eventFactory.getMethod("create", List.class, List.class);
+                getEventType = eventFactory.getMethod("getEventType");
+                newEvent = eventFactory.getMethod("newEvent");
+                isEnabled = Class.forName("jdk.jfr.EventType", false, loader).getMethod("isEnabled");
+                begin = event.getMethod("begin");
+                set = event.getMethod("set", int.class, Object.class);
+                commit = event.getMethod("commit");
+                available = true;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                available = false;
+            }
+            AVAILABLE = available;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Object annotation(final String type, final Object value) throws ReflectiveOperationException {
+            final Class<? extends Annotation> annotationType = (Class<? extends Annotation>)
+                    Class.forName(type, false, FlightRecorderEvent.class.getClassLoader());
+            return annotationElement.newInstance(annotationType, value);
+        }
+    }
+}
@@ -7,14 +7,19 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Represents the result retrieved by polling on the REST API.
+ * <p>
+ * The results returned by the SDK are also {@link ListenableFutureResult}s, see
+ * {@link FutureResults#listenable(FutureResult)}.
+ *
+ * @see FutureResults
  */
 public interface FutureResult<T> {
 
     /**
-     * Checks if the result is available
+     * Checks if the result is available. Doesn't wait for the result.
      *
      * @return true if so
-     * @throws GoodDataException when polling fails or the thread was interrupted
+     * @throws GoodDataException when polling fails
      */
     public boolean isDone();
 
@@ -27,7 +32,8 @@ public interface FutureResult<T> {
     public T get();
 
     /**
-     * Wait for the result to be available up to given time and return it's value
+     * Wait for the result to be available up to given time and return it's value.
+     * The polling continues when the timeout expires, so the result can be retrieved later.
      *
      * @param timeout timeout value
      * @param unit    timeout unit
@@ -0,0 +1,27 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Callback notified when the {@link FutureResult} is completed.
+ *
+ * @param <T> result type
+ * @see ListenableFutureResult#addCallback(FutureResultCallback)
+ */
+public interface FutureResultCallback<T> {
+
+    /**
+     * Called when the result is available.
+     *
+     * @param result result value
+     */
+    void onSuccess(T result);
+
+    /**
+     * Called when the result can't be retrieved (e.g. the polling or the task itself failed).
+     *
+     * @param cause the failure, usually {@link GoodDataException}
+     */
+    void onFailure(Throwable cause);
+}
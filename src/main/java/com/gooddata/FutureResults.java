@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.gooddata.util.Validate.noNullElements;
+import static com.gooddata.util.Validate.notNull;
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Combinators of {@link FutureResult}s.
+ */
+public abstract class FutureResults {
+
+    /**
+     * Combine given results into one, which is completed when all of them are completed.
+     *
+     * @param results results to combine
+     * @param <T>     type of the results
+     * @return result with the list of values of given results in the same order, which fails as soon as any
+     * of given results fails, cancelling it cancels all the given results
+     */
+    @SafeVarargs
+    public static <T> ListenableFutureResult<List<T>> allOf(final FutureResult<? extends T>... results) {
+        return allOf(Arrays.asList(results));
+    }
+
+    /**
+     * Combine given results into one, which is completed when all of them are completed.
+     *
+     * @param results results to combine
+     * @param <T>     type of the results
+     * @return result with the list of values of given results in the same order, which fails as soon as any
+     * of given results fails, cancelling it cancels all the given results
+     */
+    public static <T> ListenableFutureResult<List<T>> allOf(
+            final Collection<? extends FutureResult<? extends T>> results) {
+        noNullElements(results, "results");
+        final List<ListenableFutureResult<? extends T>> listenable = new ArrayList<>(results.size());
+        for (FutureResult<? extends T> result : results) {
+            listenable.add(listenable(result));
+        }
+        return new AllOfResult<>(listenable);
+    }
+
+    /**
+     * Get the view of the result returned by the SDK which notifies callbacks and can be cancelled.
+     *
+     * @param result result returned by the SDK
+     * @param <T>    type of the result
+     * @return the same result
+     * @throws IllegalArgumentException when the result wasn't created by the SDK
+     */
+    public static <T> ListenableFutureResult<T> listenable(final FutureResult<T> result) {
+        notNull(result, "result");
+        isTrue(result instanceof ListenableFutureResult, "result must be created by the SDK");
+        return (ListenableFutureResult<T>) result;
+    }
+
+    private static class AllOfResult<T> extends AbstractFutureResult<List<T>> {
+
+        private final List<ListenableFutureResult<? extends T>> results;
+        private final List<T> values;
+        private final AtomicInteger remaining;
+
+        private AllOfResult(final List<ListenableFutureResult<? extends T>> results) {
+            this.results = results;
+            values = new ArrayList<>(Collections.<T>nCopies(results.size(), null));
+            remaining = new AtomicInteger(results.size());
+            if (results.isEmpty()) {
+                complete(Collections.<T>emptyList());
+            }
+            for (int i = 0; i < results.size(); i++) {
+                final int index = i;
+                results.get(i).addCallback(new FutureResultCallback<T>() {
+                    @Override
+                    public void onSuccess(final T result) {
+                        synchronized (values) {
+                            values.set(index, result);
+                        }
+                        if (remaining.decrementAndGet() == 0) {
+                            synchronized (values) {
+                                complete(Collections.unmodifiableList(new ArrayList<>(values)));
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(final Throwable cause) {
+                        fail(cause);
+                    }
+                });
+            }
+        }
+
+        @Override
+        void cancelled() {
+            for (ListenableFutureResult<? extends T> result : results) {
+                result.cancel();
+            }
+        }
+    }
+}
@@ -19,28 +19,21 @@ import com.gooddata.project.ProjectService;
 import com.gooddata.report.ReportService;
 import org.apache.http.HttpHost;
 import org.apache.http.client.HttpClient;
-import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.VersionInfo;
 import org.springframework.http.MediaType;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.http.converter.ByteArrayHttpMessageConverter;
-import org.springframework.http.converter.FormHttpMessageConverter;
-import org.springframework.http.converter.HttpMessageConverter;
-import org.springframework.http.converter.ResourceHttpMessageConverter;
-import org.springframework.http.converter.StringHttpMessageConverter;
-import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.File;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.gooddata.util.Validate.notEmpty;
-import static java.util.Collections.singletonMap;
+import static com.gooddata.util.Validate.notNull;
 import static org.apache.http.util.VersionInfo.loadVersionInfo;
+import static org.springframework.util.Assert.isTrue;
 
 /**
  * Entry point for GoodData SDK usage.
@@ -66,7 +59,14 @@ public class GoodData {
 
     private static final int RESTAPI_VERSION = 1;
 
+    private final GoodDataClientFactory factory;
+    private final boolean factoryOwned;
+    private final HttpHost host;
+    private final TokenManager tokenManager;
+    private final SpoolingCacheStorage cacheStorage;
     private final RestTemplate restTemplate;
+    private final PollScheduler pollScheduler;
+    private final TaskJournal taskJournal;
     private final AccountService accountService;
     private final ProjectService projectService;
     private final MetadataService metadataService;
@@ -166,81 +166,95 @@ public class GoodData {
      * @param protocol GoodData Platform's API protocol (e.g. https)
      */
     protected GoodData(String hostname, String login, String password, int port, String protocol, GoodDataSettings settings) {
+        this(hostname, login, password, port, protocol, new GoodDataClientFactory(settings), true);
+    }
+
+    /**
+     * Create instance configured to communicate with GoodData Platform running on given host, port and protocol using
+     * given user's credentials and the transport resources of the given factory.
+     *
+     * @param hostname GoodData Platform's host name (e.g. secure.gooddata.com)
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     * @param port     GoodData Platform's API port (e.g. 443)
+     * @param protocol GoodData Platform's API protocol (e.g. https)
+     * @param factory  factory providing the shared transport resources
+     * @see GoodDataClientFactory
+     */
+    protected GoodData(String hostname, String login, String password, int port, String protocol,
+                       GoodDataClientFactory factory) {
+        this(hostname, login, password, port, protocol, factory, false);
+    }
+
+    private GoodData(String hostname, String login, String password, int port, String protocol,
+                     GoodDataClientFactory factory, boolean factoryOwned) {
         notEmpty(hostname, "hostname");
         notEmpty(login, "login");
         notEmpty(password, "password");
         notEmpty(protocol, "protocol");
-        final HttpClientBuilder httpClientBuilder = createHttpClientBuilder(settings);
-
-        restTemplate = createRestTemplate(login, password, hostname, httpClientBuilder, port, protocol);
+        this.factory = notNull(factory, "factory");
+        this.factoryOwned = factoryOwned;
+        host = new HttpHost(hostname, port, protocol);
+        final HttpClientBuilder stagingClientBuilder = factory.createStagingClientBuilder();
+
+        final HttpTransport transport = factory.getTransport();
+        cacheStorage = transport == null ? factory.createCacheStorage() : null;
+        final AuthenticationSettings authentication = factory.getSettings().getAuthentication();
+        if (transport != null || authentication.isManaged()) {
+            // the SDK authenticates the API calls itself, the HTTP client must not keep the cookies
+            final HttpTransport apiTransport = transport != null ? transport : new HttpComponentsTransport(
+                    factory.createApiClientBuilder(cacheStorage).disableCookieManagement().build());
+            final URI hostUri = URI.create(host.toURI());
+            tokenManager = new TokenManager(apiTransport,
+                    new TransportSSTRetrievalStrategy(apiTransport, hostUri, login, password), hostUri, login,
+                    authentication);
+            restTemplate = factory.createRestTemplate(apiTransport, new AuthenticatingRequestInterceptor(tokenManager),
+                    hostname, port, protocol);
+        } else {
+            tokenManager = null;
+            final HttpClient httpClient = createHttpClient(login, password, hostname, port, protocol,
+                    factory.createApiClientBuilder(cacheStorage));
+            restTemplate = factory.createRestTemplate(new HttpComponentsTransport(httpClient), null, hostname, port,
+                    protocol);
+        }
+        pollScheduler = factory.getPollScheduler();
 
         accountService = new AccountService(getRestTemplate());
-        projectService = new ProjectService(getRestTemplate(), accountService);
+        projectService = new ProjectService(getRestTemplate(), accountService, pollScheduler);
         metadataService = new MetadataService(getRestTemplate());
-        modelService = new ModelService(getRestTemplate());
+        modelService = new ModelService(getRestTemplate(), pollScheduler);
         gdcService = new GdcService(getRestTemplate());
-        dataStoreService = new DataStoreService(httpClientBuilder, gdcService, new HttpHost(hostname, port, protocol).toURI(), login, password);
-        datasetService = new DatasetService(getRestTemplate(), dataStoreService);
-        reportService = new ReportService(getRestTemplate());
-        processService = new ProcessService(getRestTemplate(), accountService, dataStoreService);
-        warehouseService = new WarehouseService(getRestTemplate(), hostname, port);
-        connectorService = new ConnectorService(getRestTemplate(), projectService);
-    }
-
-    private RestTemplate createRestTemplate(String login, String password, String hostname, HttpClientBuilder builder,
-                                            int port, String protocol) {
-        final HttpClient client = createHttpClient(login, password, hostname, port, protocol, builder);
-
-        final UriPrefixingClientHttpRequestFactory factory = new UriPrefixingClientHttpRequestFactory(
-                new HttpComponentsClientHttpRequestFactory(client), hostname, port, protocol);
-        final RestTemplate restTemplate = new RestTemplate(factory);
-        restTemplate.setInterceptors(Arrays.<ClientHttpRequestInterceptor>asList(
-                new HeaderSettingRequestInterceptor(singletonMap("Accept", getAcceptHeaderValue()))));
-
-        // avoid jackson2 auto-detection and ensure jackson1 converter is present
-        final List<HttpMessageConverter<?>> partConverters = new ArrayList<>();
-        partConverters.add(new ByteArrayHttpMessageConverter());
-        final StringHttpMessageConverter stringHttpMessageConverter = new StringHttpMessageConverter();
-        stringHttpMessageConverter.setWriteAcceptCharset(false);
-        partConverters.add(stringHttpMessageConverter);
-        partConverters.add(new ResourceHttpMessageConverter());
-        partConverters.add(new MappingJacksonHttpMessageConverter());
-        final FormHttpMessageConverter formHttpMessageConverter = new FormHttpMessageConverter();
-        formHttpMessageConverter.setPartConverters(partConverters);
-
-        final List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
-        messageConverters.add(new ByteArrayHttpMessageConverter());
-        messageConverters.add(new StringHttpMessageConverter());
-        messageConverters.add(new ResourceHttpMessageConverter());
-        messageConverters.add(formHttpMessageConverter);
-        messageConverters.add(new MappingJacksonHttpMessageConverter());
-        restTemplate.setMessageConverters(messageConverters);
-
-        restTemplate.setErrorHandler(new ResponseErrorHandler(messageConverters));
-
-        return restTemplate;
+        dataStoreService = new DataStoreService(stagingClientBuilder, gdcService, host.toURI(), login, password);
+        datasetService = new DatasetService(getRestTemplate(), dataStoreService, pollScheduler);
+        reportService = new ReportService(getRestTemplate(), pollScheduler);
+        processService = new ProcessService(getRestTemplate(), accountService, dataStoreService, pollScheduler);
+        warehouseService = new WarehouseService(getRestTemplate(), hostname, port, pollScheduler);
+        connectorService = new ConnectorService(getRestTemplate(), projectService, pollScheduler);
+
+        taskJournal = createTaskJournal(factory.getSettings().getTaskJournalDirectory(), login);
+        if (taskJournal != null) {
+            for (AbstractService service : new AbstractService[]{datasetService, reportService, processService}) {
+                service.setTaskJournal(taskJournal);
+            }
+        }
     }
 
-    private HttpClientBuilder createHttpClientBuilder(final GoodDataSettings settings) {
-        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
-        connectionManager.setDefaultMaxPerRoute(settings.getMaxConnections());
-        connectionManager.setMaxTotal(settings.getMaxConnections());
-
-        final RequestConfig.Builder requestConfig = RequestConfig.copy(RequestConfig.DEFAULT);
-        requestConfig.setConnectTimeout(settings.getConnectionTimeout());
-        requestConfig.setSocketTimeout(settings.getSocketTimeout());
-
-        return HttpClientBuilder.create()
-                .setUserAgent(getUserAgent())
-                .setConnectionManager(connectionManager)
-                .setDefaultRequestConfig(requestConfig.build());
+    private TaskJournal createTaskJournal(final File directory, final String login) {
+        if (directory == null) {
+            return null;
+        }
+        final File userDirectory = new File(directory, TokenManager.getUserKey(URI.create(host.toURI()), login));
+        if (!userDirectory.isDirectory() && !userDirectory.mkdir() && !userDirectory.isDirectory()) {
+            throw new GoodDataException("Unable to create task journal directory " + userDirectory);
+        }
+        return new TaskJournal(userDirectory);
     }
 
     /*
      * Set accept header (application/json by default) and append rest api versioning information which is mandatory
      * for some resources.
      */
-    private String getAcceptHeaderValue(){
+    static String getAcceptHeaderValue(){
         return MediaType.APPLICATION_JSON_VALUE + ";version=" + RESTAPI_VERSION;
     }
 
@@ -252,7 +266,7 @@ public class GoodData {
         return new GoodDataHttpClient(httpClient, strategy);
     }
 
-    private String getUserAgent() {
+    static String getUserAgent() {
         final Package pkg = Package.getPackage("com.gooddata");
         final String clientVersion = pkg != null && pkg.getImplementationVersion() != null
                 ? pkg.getImplementationVersion() : UNKNOWN_VERSION;
@@ -275,10 +289,124 @@ public class GoodData {
     }
 
     /**
-     * Logout from GoodData Platform
+     * Get the scheduler driving the polling of all {@link FutureResult}s returned by services of this instance.
+     * Register a {@link PollListener} here to observe the lifecycle of the polled tasks.
+     * @return poll scheduler
+     */
+    public final PollScheduler getPollScheduler() {
+        return pollScheduler;
+    }
+
+    /**
+     * Get the snapshot of the state of the connection pool used for the API calls (including polling).
+     *
+     * @return numbers of leased, available and pending connections
+     */
+    public PoolStats getApiConnectionPoolStats() {
+        return factory.getApiConnectionPoolStats();
+    }
+
+    /**
+     * Get the snapshot of the state of the connection pool used for the data store (user staging) transfers.
+     *
+     * @return numbers of leased, available and pending connections
+     */
+    public PoolStats getStagingConnectionPoolStats() {
+        return factory.getStagingConnectionPoolStats();
+    }
+
+    /**
+     * Log in and open the given number of connections to the API host and to the data store (user staging) host in
+     * advance, so the first calls don't pay for the TCP and TLS handshakes.
+     * <p>
+     * The first connection to each host is opened alone and the rest concurrently, so they resume the TLS session
+     * negotiated by the first one instead of running the full handshake. The connections stay in the pools shared
+     * by the instances of the same {@link GoodDataClientFactory}; no more than the
+     * {@link ConnectionPoolSettings#setMaxPerRoute(int) maximum per route} are opened. When the API calls are
+     * executed by a custom {@link HttpTransport}, only the data store connections are opened.
+     *
+     * @param connections number of connections to open to each host
+     */
+    public void warmUp(final int connections) {
+        isTrue(connections > 0, "connections must be greater than zero");
+        accountService.getCurrent();
+        final URI staging = dataStoreService.getUri("/");
+        factory.warmUp(factory.getTransport() == null ? host : null,
+                new HttpHost(staging.getHost(), staging.getPort(), staging.getScheme()), connections);
+    }
+
+    /**
+     * Get the journal of the tasks polled by the services of this instance, see
+     * {@link GoodDataSettings#setTaskJournalDirectory(File)}.
+     *
+     * @return task journal or null if the tasks are not journaled
+     */
+    public TaskJournal getTaskJournal() {
+        return taskJournal;
+    }
+
+    /**
+     * Resume polling of the dataset loads and process executions journaled by the previous instance of the same
+     * user (e.g. before the JVM restart). The report exports are left in the journal, as they need new target,
+     * resume them by {@link ReportService#resumeExport(JournaledTask, java.io.OutputStream)}. The tasks polled
+     * at the moment (e.g. resumed by a previous call or by another process) are skipped.
+     *
+     * @return results of the resumed tasks
+     * @throws IllegalStateException when the tasks are not journaled
+     */
+    public Map<JournaledTask, FutureResult<?>> resumeTasks() {
+        if (taskJournal == null) {
+            throw new IllegalStateException("Tasks are not journaled, set the task journal directory");
+        }
+        final Map<JournaledTask, FutureResult<?>> results = new LinkedHashMap<>();
+        for (JournaledTask task : taskJournal.getTasks()) {
+            try {
+                switch (task.getType()) {
+                    case DatasetService.LOAD_TASK:
+                        results.put(task, datasetService.resumeLoad(task));
+                        break;
+                    case ProcessService.EXECUTION_TASK:
+                        results.put(task, processService.resumeExecution(task));
+                        break;
+                    default:
+                        // resumed by the caller
+                }
+            } catch (TaskClaimedException ignored) {
+                // polled by another result or process already
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get the metrics of the HTTP requests executed by the services of this instance (including polling and data
+     * store transfers).
+     *
+     * @return request metrics
+     */
+    public GoodDataMetrics getMetrics() {
+        return factory.getMetrics();
+    }
+
+    /**
+     * Logout from GoodData Platform. The cached responses are discarded and the transport resources are released
+     * too, unless they're shared with other instances by the {@link GoodDataClientFactory} this instance was
+     * created by.
      */
     public void logout() {
-        getAccountService().logout();
+        try {
+            getAccountService().logout();
+        } finally {
+            if (tokenManager != null) {
+                tokenManager.close();
+            }
+            if (cacheStorage != null) {
+                cacheStorage.shutdown();
+            }
+            if (factoryOwned) {
+                factory.shutdown();
+            }
+        }
     }
 
     /**
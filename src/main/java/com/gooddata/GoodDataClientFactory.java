@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.CachingHttpClientBuilder;
+import org.apache.http.impl.client.cache.FileResourceFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.gooddata.util.Validate.notNull;
+import static java.util.Collections.singletonMap;
+
+/**
+ * Factory of {@link GoodData} instances sharing the transport resources: the API and data store connection pools
+ * (connections are pooled per host), the {@link PollScheduler}, the JSON codec, the {@link GoodDataMetrics},
+ * the rate limiter and the circuit breaker.
+ * <p>
+ * Each created instance holds just its own login session (and HTTP cache when enabled), so many users or domains
+ * can be served by one factory without the memory and socket count growing with them.
+ * <p>
+ * Usage example:
+ * <pre><code>
+ *     GoodDataClientFactory factory = new GoodDataClientFactory(settings);
+ *     GoodData gd = factory.create("customer.gooddata.com", "roman@gooddata.com", "Roman1");
+ *     // do something useful like: gd.getSomeService().doSomething()
+ *     gd.logout();
+ *     // once no instance is used anymore
+ *     factory.shutdown();
+ * </code></pre>
+ * Every {@link GoodData} instance constructed directly uses its own factory, which is shut down by
+ * {@link GoodData#logout()}.
+ */
+public class GoodDataClientFactory {
+
+    private final GoodDataSettings settings;
+    private final PoolingHttpClientConnectionManager apiConnectionManager;
+    private final PoolingHttpClientConnectionManager stagingConnectionManager;
+    private final PollScheduler pollScheduler;
+    private final GoodDataMetrics metrics = new GoodDataMetrics();
+    private final RateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final List<HttpMessageConverter<?>> messageConverters;
+    private final HttpTransport transport;
+
+    /**
+     * Create factory using default settings.
+     */
+    public GoodDataClientFactory() {
+        this(new GoodDataSettings());
+    }
+
+    /**
+     * Create factory using given settings.
+     *
+     * @param settings settings of all the created instances
+     */
+    public GoodDataClientFactory(final GoodDataSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * Create factory using given settings and executing the API calls by the given transport. The authentication
+     * is done by the SDK then, the data store transfers still use the Apache HttpClient.
+     *
+     * @param settings  settings of all the created instances
+     * @param transport transport executing the API calls of all the created instances or null to use the default one
+     *                  based on the Apache HttpClient
+     */
+    public GoodDataClientFactory(final GoodDataSettings settings, final HttpTransport transport) {
+        this.settings = notNull(settings, "settings");
+        this.transport = transport;
+        apiConnectionManager = createConnectionManager(settings.getApiConnectionPool());
+        stagingConnectionManager = createConnectionManager(settings.getStagingConnectionPool());
+        pollScheduler = new PollScheduler(settings.getPollingThreads(), settings.getPollingPolicy());
+        rateLimiter = settings.getRateLimit().isEnabled() ? new RateLimiter(settings.getRateLimit()) : null;
+        final RetrySettings retry = settings.getRetry();
+        circuitBreaker = retry.getCircuitBreakerThreshold() > 0
+                ? new CircuitBreaker(retry.getCircuitBreakerThreshold(), retry.getCircuitBreakerOpenTime())
+                : null;
+        messageConverters = createMessageConverters();
+    }
+
+    /**
+     * Create instance communicating with GoodData Platform under user with given credentials.
+     *
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     * @return GoodData instance
+     */
+    public GoodData create(final String login, final String password) {
+        return create(GoodData.HOSTNAME, login, password);
+    }
+
+    /**
+     * Create instance communicating with GoodData Platform running on given host under user with given credentials.
+     *
+     * @param hostname GoodData Platform's host name (e.g. secure.gooddata.com)
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     * @return GoodData instance
+     */
+    public GoodData create(final String hostname, final String login, final String password) {
+        return create(hostname, login, password, GoodData.PORT);
+    }
+
+    /**
+     * Create instance communicating with GoodData Platform running on given host and port under user with given
+     * credentials.
+     *
+     * @param hostname GoodData Platform's host name (e.g. secure.gooddata.com)
+     * @param login    GoodData user's login
+     * @param password GoodData user's password
+     * @param port     GoodData Platform's API port (e.g. 443)
+     * @return GoodData instance
+     */
+    public GoodData create(final String hostname, final String login, final String password, final int port) {
+        return new GoodData(hostname, login, password, port, GoodData.PROTOCOL, this);
+    }
+
+    /**
+     * Settings shared by all the created instances
+     * @return settings
+     */
+    public GoodDataSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Scheduler driving the polling of all the created instances
+     * @return poll scheduler
+     */
+    public PollScheduler getPollScheduler() {
+        return pollScheduler;
+    }
+
+    /**
+     * Metrics of the HTTP requests of all the created instances
+     * @return request metrics
+     */
+    public GoodDataMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the snapshot of the state of the connection pool used for the API calls of all the created instances.
+     *
+     * @return numbers of leased, available and pending connections
+     */
+    public PoolStats getApiConnectionPoolStats() {
+        return apiConnectionManager.getTotalStats();
+    }
+
+    /**
+     * Get the snapshot of the state of the connection pool used for the data store transfers of all the created
+     * instances.
+     *
+     * @return numbers of leased, available and pending connections
+     */
+    public PoolStats getStagingConnectionPoolStats() {
+        return stagingConnectionManager.getTotalStats();
+    }
+
+    /**
+     * Stop polling and close all the pooled connections. The created instances can't be used anymore.
+     */
+    public void shutdown() {
+        pollScheduler.shutdown();
+        apiConnectionManager.shutdown();
+        stagingConnectionManager.shutdown();
+    }
+
+    /**
+     * Rate limiter of the requests of all the created instances
+     * @return rate limiter or null if the rate is not limited
+     */
+    RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Custom transport of the API calls
+     * @return transport or null if each instance uses its own Apache HttpClient
+     */
+    HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Open the connections to the API and the data store hosts in advance.
+     *
+     * @param api         API host or null if the connections aren't pooled by this factory
+     * @param staging     data store host
+     * @param connections number of connections to each host
+     */
+    void warmUp(final HttpHost api, final HttpHost staging, final int connections) {
+        try {
+            if (api != null) {
+                new ConnectionWarmer(apiConnectionManager, settings.getApiConnectionPool(),
+                        settings.getConnectionTimeout()).warmUp(api, connections);
+            }
+            new ConnectionWarmer(stagingConnectionManager, settings.getStagingConnectionPool(),
+                    settings.getConnectionTimeout()).warmUp(staging, connections);
+        } catch (IOException e) {
+            throw new GoodDataException("Unable to open connections", e);
+        }
+    }
+
+    /**
+     * Create storage of the HTTP cache of single instance, spooling the response bodies to the cache directory.
+     *
+     * @return storage or null if the cache is disabled or keeps the bodies in memory
+     */
+    SpoolingCacheStorage createCacheStorage() {
+        final CacheSettings cache = settings.getCache();
+        return cache.isEnabled() && cache.getDirectory() != null
+                ? new SpoolingCacheStorage(createCacheConfig(cache)) : null;
+    }
+
+    /**
+     * Create builder of the HTTP client of the API calls of single instance.
+     *
+     * @param cacheStorage storage created by {@link #createCacheStorage()}
+     */
+    HttpClientBuilder createApiClientBuilder(final SpoolingCacheStorage cacheStorage) {
+        return createHttpClientBuilder(settings.getApiConnectionPool(), apiConnectionManager, settings.getCache(),
+                cacheStorage)
+                .addInterceptorLast(new DeadlineHttpInterceptor());
+    }
+
+    /**
+     * Create builder of the HTTP client of the data store transfers of single instance.
+     */
+    HttpClientBuilder createStagingClientBuilder() {
+        final HttpClientBuilder builder = createHttpClientBuilder(settings.getStagingConnectionPool(),
+                stagingConnectionManager, null, null);
+        final MetricsHttpInterceptor stagingMetrics = new MetricsHttpInterceptor(metrics);
+        builder.addInterceptorFirst((HttpRequestInterceptor) stagingMetrics);
+        builder.addInterceptorFirst((HttpResponseInterceptor) stagingMetrics);
+        if (rateLimiter != null) {
+            final RateLimitingHttpInterceptor stagingRateLimit = new RateLimitingHttpInterceptor(rateLimiter);
+            builder.addInterceptorLast((HttpRequestInterceptor) stagingRateLimit);
+            builder.addInterceptorLast((HttpResponseInterceptor) stagingRateLimit);
+        }
+        // after the rate limiting, which may spend the budget
+        builder.addInterceptorLast(new DeadlineHttpInterceptor());
+        return builder;
+    }
+
+    /**
+     * Create REST template of single instance.
+     *
+     * @param transport      transport executing the API calls of the instance
+     * @param authentication interceptor authenticating the API calls or null if the transport does it
+     */
+    RestTemplate createRestTemplate(final HttpTransport transport, final RequestInterceptor authentication,
+                                    final String hostname, final int port, final String protocol) {
+        final List<RequestInterceptor> interceptors = new ArrayList<>();
+        interceptors.add(new HeaderSettingRequestInterceptor(singletonMap("Accept", GoodData.getAcceptHeaderValue())));
+        if (settings.isSingleFlightGets()) {
+            // before metrics, so only the executed requests are recorded
+            interceptors.add(new SingleFlightRequestInterceptor());
+        }
+        interceptors.add(new MetricsRequestInterceptor(metrics));
+        if (settings.getRetry().getMaxRetries() > 0 || circuitBreaker != null) {
+            interceptors.add(new RetryingRequestInterceptor(settings.getRetry(), circuitBreaker));
+        }
+        if (rateLimiter != null) {
+            // after the retries, so each attempt takes its token and reports its status
+            interceptors.add(new RateLimitingRequestInterceptor(rateLimiter));
+        }
+        // each attempt fails fast when the deadline has passed
+        interceptors.add(new DeadlineRequestInterceptor());
+        if (authentication != null) {
+            interceptors.add(authentication);
+        }
+        // interceptors are part of the request factory, RestTemplate's own ones would buffer the request bodies
+        final UriPrefixingClientHttpRequestFactory factory = new UriPrefixingClientHttpRequestFactory(
+                new SpoolingClientHttpRequestFactory(transport, interceptors), hostname, port, protocol);
+        final RestTemplate restTemplate = new UriTemplateRestTemplate(factory);
+
+        // the converters are thread safe and shared, the list is per instance to allow customization
+        restTemplate.setMessageConverters(new ArrayList<>(messageConverters));
+        restTemplate.setErrorHandler(new ResponseErrorHandler(messageConverters));
+
+        return restTemplate;
+    }
+
+    private static List<HttpMessageConverter<?>> createMessageConverters() {
+        // avoid jackson2 auto-detection and ensure jackson1 converter is present
+        final MappingJacksonHttpMessageConverter jacksonConverter = new RecordingJacksonHttpMessageConverter();
+
+        final List<HttpMessageConverter<?>> partConverters = new ArrayList<>();
+        partConverters.add(new ByteArrayHttpMessageConverter());
+        final StringHttpMessageConverter stringHttpMessageConverter = new StringHttpMessageConverter();
+        stringHttpMessageConverter.setWriteAcceptCharset(false);
+        partConverters.add(stringHttpMessageConverter);
+        partConverters.add(new ResourceHttpMessageConverter());
+        partConverters.add(jacksonConverter);
+        final FormHttpMessageConverter formHttpMessageConverter = new FormHttpMessageConverter();
+        formHttpMessageConverter.setPartConverters(partConverters);
+
+        final List<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
+        messageConverters.add(new ByteArrayHttpMessageConverter());
+        messageConverters.add(new StringHttpMessageConverter());
+        messageConverters.add(new ResourceHttpMessageConverter());
+        messageConverters.add(formHttpMessageConverter);
+        messageConverters.add(jacksonConverter);
+        return Collections.unmodifiableList(messageConverters);
+    }
+
+    private static PoolingHttpClientConnectionManager createConnectionManager(final ConnectionPoolSettings pool) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(pool.getMaxPerRoute());
+        connectionManager.setMaxTotal(pool.getMaxTotal());
+        if (pool.getIdleConnectionTimeout() > 0) {
+            IdleConnectionEvictor.evict(connectionManager, pool.getIdleConnectionTimeout());
+        }
+        return connectionManager;
+    }
+
+    /**
+     * @param cache        cache settings or null if the responses are never cached
+     * @param cacheStorage storage spooling the cached bodies to files or null if they're kept in memory
+     */
+    private HttpClientBuilder createHttpClientBuilder(final ConnectionPoolSettings pool,
+                                                      final PoolingHttpClientConnectionManager connectionManager,
+                                                      final CacheSettings cache,
+                                                      final SpoolingCacheStorage cacheStorage) {
+        final RequestConfig.Builder requestConfig = RequestConfig.copy(RequestConfig.DEFAULT);
+        requestConfig.setConnectTimeout(settings.getConnectionTimeout());
+        requestConfig.setSocketTimeout(settings.getSocketTimeout());
+        requestConfig.setStaleConnectionCheckEnabled(pool.isStaleConnectionCheck());
+
+        final HttpClientBuilder builder = (cache != null && cache.isEnabled() ? createCachingBuilder(cache, cacheStorage)
+                : HttpClientBuilder.create())
+                .setUserAgent(GoodData.getUserAgent())
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig.build());
+        if (pool.getMaxKeepAlive() > 0) {
+            builder.setKeepAliveStrategy(new MaxKeepAliveStrategy(pool.getMaxKeepAlive()));
+        }
+        if (!settings.getCompressionMode().isResponseCompression()) {
+            builder.disableContentCompression();
+        }
+        return builder;
+    }
+
+    private static HttpClientBuilder createCachingBuilder(final CacheSettings cache,
+                                                          final SpoolingCacheStorage cacheStorage) {
+        final CachingHttpClientBuilder builder = CachingHttpClientBuilder.create()
+                .setCacheConfig(createCacheConfig(cache));
+        if (cacheStorage != null) {
+            builder.setResourceFactory(new FileResourceFactory(cache.getDirectory()))
+                    .setHttpCacheStorage(cacheStorage);
+        }
+        return builder;
+    }
+
+    private static CacheConfig createCacheConfig(final CacheSettings cache) {
+        return CacheConfig.custom()
+                .setMaxCacheEntries(cache.getMaxEntries())
+                .setMaxObjectSize(cache.getMaxObjectSize())
+                // responses are specific for the logged in user
+                .setSharedCache(false)
+                .build();
+    }
+}
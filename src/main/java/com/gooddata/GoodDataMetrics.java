@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Metrics of the HTTP requests executed by {@link GoodData} services, aggregated per HTTP method and URI template
+ * of the called endpoint (e.g. <code>GET /gdc/md/{projectId}/query/{type}</code>).
+ * <p>
+ * The URI template is the one the service used to construct the request (like {@link com.gooddata.md.Query#URI}).
+ * Requests to an already expanded URI (e.g. polling of a link returned by the API) are aggregated under the URI
+ * with path segments containing digits replaced by <code>{id}</code>. Data store (user staging) transfers are
+ * aggregated under {@link #STAGING_URI_TEMPLATE}.
+ * <p>
+ * The metrics can be either polled using {@link #getSnapshot()} or pushed to registered
+ * {@link GoodDataMetricsListener}s. Recording is lock-free and doesn't allocate for already known endpoints
+ * called using the URI template, the template derived from the expanded URI is built only when the URI contains
+ * some identifier.
+ */
+public class GoodDataMetrics {
+
+    /**
+     * URI template under which the data store (user staging) transfers are aggregated.
+     */
+    public static final String STAGING_URI_TEMPLATE = "{staging}";
+
+    private static final String ID_SEGMENT = "{id}";
+
+    /** endpoints by HTTP method and URI template, so the lookup doesn't need a composite key */
+    private final ConcurrentMap<String, ConcurrentMap<String, Endpoint>> endpoints = new ConcurrentHashMap<>();
+    private final List<GoodDataMetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Register listener notified about every completed request.
+     *
+     * @param listener listener to register
+     */
+    public void addListener(final GoodDataMetricsListener listener) {
+        listeners.add(notNull(listener, "listener"));
+    }
+
+    /**
+     * Unregister previously registered listener.
+     *
+     * @param listener listener to unregister
+     */
+    public void removeListener(final GoodDataMetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the current metrics of all called endpoints.
+     *
+     * @return metrics of the endpoints ordered by URI template and method
+     */
+    public List<EndpointMetrics> getSnapshot() {
+        final List<EndpointMetrics> snapshot = new ArrayList<>();
+        for (ConcurrentMap<String, Endpoint> methodEndpoints : endpoints.values()) {
+            for (Endpoint endpoint : methodEndpoints.values()) {
+                snapshot.add(endpoint.snapshot());
+            }
+        }
+        Collections.sort(snapshot, new Comparator<EndpointMetrics>() {
+            @Override
+            public int compare(final EndpointMetrics o1, final EndpointMetrics o2) {
+                final int result = o1.getUriTemplate().compareTo(o2.getUriTemplate());
+                return result != 0 ? result : o1.getMethod().compareTo(o2.getMethod());
+            }
+        });
+        return snapshot;
+    }
+
+    /**
+     * Discard all recorded metrics.
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * Record completed request and notify listeners.
+     *
+     * @param method        HTTP method
+     * @param uriTemplate   URI template of the called endpoint
+     * @param statusCode    HTTP status code, 0 if no response was received
+     * @param bytesSent     request body size, -1 if unknown
+     * @param bytesReceived response body size, -1 if unknown
+     * @param durationNanos request duration
+     */
+    void record(final String method, final String uriTemplate, final int statusCode, final long bytesSent,
+                final long bytesReceived, final long durationNanos) {
+        ConcurrentMap<String, Endpoint> methodEndpoints = endpoints.get(method);
+        if (methodEndpoints == null) {
+            final ConcurrentMap<String, Endpoint> created = new ConcurrentHashMap<>();
+            methodEndpoints = endpoints.putIfAbsent(method, created);
+            if (methodEndpoints == null) {
+                methodEndpoints = created;
+            }
+        }
+        Endpoint endpoint = methodEndpoints.get(uriTemplate);
+        if (endpoint == null) {
+            final Endpoint created = new Endpoint(method, uriTemplate);
+            endpoint = methodEndpoints.putIfAbsent(uriTemplate, created);
+            if (endpoint == null) {
+                endpoint = created;
+            }
+        }
+        endpoint.record(statusCode, bytesSent, bytesReceived, durationNanos);
+
+        for (GoodDataMetricsListener listener : listeners) {
+            listener.requestCompleted(method, uriTemplate, statusCode, bytesSent, bytesReceived, durationNanos);
+        }
+    }
+
+    /**
+     * Derive the URI template from the already expanded URI path by replacing the segments containing digits
+     * (project, object or task identifiers) by <code>{id}</code>.
+     *
+     * @param path expanded URI path
+     * @return URI template, the given path itself when it contains no identifier
+     */
+    static String toUriTemplate(final String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        StringBuilder template = null;
+        int segmentStart = 0;
+        boolean id = false;
+        for (int i = 0; i <= path.length(); i++) {
+            final char c = i < path.length() ? path.charAt(i) : '/';
+            if (c == '/') {
+                if (id) {
+                    if (template == null) {
+                        template = new StringBuilder(path.length()).append(path, 0, segmentStart);
+                    }
+                    template.append(ID_SEGMENT);
+                } else if (template != null) {
+                    template.append(path, segmentStart, i);
+                }
+                if (template != null && i < path.length()) {
+                    template.append('/');
+                }
+                segmentStart = i + 1;
+                id = false;
+            } else if (c >= '0' && c <= '9') {
+                id = true;
+            }
+        }
+        return template != null ? template.toString() : path;
+    }
+
+    private static class Endpoint {
+        private final String method;
+        private final String uriTemplate;
+        private final AtomicLong bytesSent = new AtomicLong();
+        private final AtomicLong bytesReceived = new AtomicLong();
+        /** index 0 for requests without response, 1 - 5 for status classes */
+        private final AtomicLongArray statusClasses = new AtomicLongArray(6);
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Endpoint(final String method, final String uriTemplate) {
+            this.method = method;
+            this.uriTemplate = uriTemplate;
+        }
+
+        private void record(final int statusCode, final long bytesSent, final long bytesReceived,
+                            final long durationNanos) {
+            final int statusClass = statusCode / 100;
+            statusClasses.incrementAndGet(statusClass >= 1 && statusClass <= 5 ? statusClass : 0);
+            if (bytesSent > 0) {
+                this.bytesSent.addAndGet(bytesSent);
+            }
+            if (bytesReceived > 0) {
+                this.bytesReceived.addAndGet(bytesReceived);
+            }
+            latency.record(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+        }
+
+        private EndpointMetrics snapshot() {
+            final long[] counts = new long[LatencyHistogram.BUCKETS];
+            latency.copyCounts(counts);
+            final long[] classes = new long[statusClasses.length()];
+            for (int i = 0; i < classes.length; i++) {
+                classes[i] = statusClasses.get(i);
+            }
+            return new EndpointMetrics(method, uriTemplate, classes, bytesSent.get(), bytesReceived.get(),
+                    counts, latency.getSum(), latency.getMax());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Listener notified about every completed HTTP request, see {@link GoodDataMetrics#addListener}.
+ * <p>
+ * The listener is called by the thread which executed the request, so it should return quickly.
+ */
+public interface GoodDataMetricsListener {
+
+    /**
+     * Called when the request is completed (the response was read or the request failed).
+     *
+     * @param method        HTTP method
+     * @param uriTemplate   URI template of the called endpoint (e.g. <code>/gdc/md/{projectId}/query/{type}</code>)
+     * @param statusCode    HTTP status code of the response, 0 if no response was received
+     * @param bytesSent     number of bytes of the request body, -1 if unknown
+     * @param bytesReceived number of bytes of the response body, -1 if unknown
+     * @param durationNanos nanoseconds from sending the request to reading the response
+     */
+    void requestCompleted(String method, String uriTemplate, int statusCode, long bytesSent, long bytesReceived,
+                          long durationNanos);
+}
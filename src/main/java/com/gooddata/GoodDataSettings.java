@@ -1,5 +1,6 @@
 package com.gooddata;
 
+import static com.gooddata.util.Validate.notNull;
 import static org.springframework.util.Assert.isTrue;
 
 import org.apache.http.client.config.RequestConfig;
@@ -7,6 +8,8 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.util.Assert;
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -15,30 +18,80 @@ import java.util.concurrent.TimeUnit;
  */
 public class GoodDataSettings {
 
-    private int maxConnections = 20;
+    private ConnectionPoolSettings apiConnectionPool = new ConnectionPoolSettings();
+    private ConnectionPoolSettings stagingConnectionPool = new ConnectionPoolSettings();
     private int connectionTimeout = secondsToMillis(10);
     private int socketTimeout = secondsToMillis(60);
+    private int pollingThreads = 4;
+    private PollingPolicy pollingPolicy = new AdaptivePollingPolicy();
+    private CompressionMode compressionMode = CompressionMode.RESPONSES;
+    private RetrySettings retry = new RetrySettings();
+    private RateLimitSettings rateLimit = new RateLimitSettings();
+    private boolean singleFlightGets = false;
+    private CacheSettings cache = new CacheSettings();
+    private AuthenticationSettings authentication = new AuthenticationSettings();
+    private File taskJournalDirectory;
 
 
     /**
-     * Set maximum number of connections used. This applies same for connections per host as for total connections.
-     * (As we assume GoodData connects to single host).
+     * Set maximum number of connections used. This applies same for connections per host as for total connections
+     * (as we assume GoodData connects to single host) of both the API and the data store (user staging) pools.
      *
      * The default value is 20.
      *
      * @param maxConnections maximum number of connections used.
+     * @see #getApiConnectionPool()
+     * @see #getStagingConnectionPool()
      */
     public void setMaxConnections(int maxConnections) {
-        isTrue(connectionTimeout > 0, "connectionTimeout must be greater than zero");
-        this.maxConnections = maxConnections;
+        isTrue(maxConnections > 0, "maxConnections must be greater than zero");
+        for (ConnectionPoolSettings pool : Arrays.asList(apiConnectionPool, stagingConnectionPool)) {
+            pool.setMaxTotal(maxConnections);
+            pool.setMaxPerRoute(maxConnections);
+        }
     }
 
     /**
-     * Maximum number of connection used
+     * Maximum number of connection used to call the API
      * @return maximum number of connection used
      */
     public int getMaxConnections() {
-        return maxConnections;
+        return apiConnectionPool.getMaxTotal();
+    }
+
+    /**
+     * Set connection pool used for the API calls (including polling).
+     *
+     * @param apiConnectionPool API connection pool settings
+     */
+    public void setApiConnectionPool(ConnectionPoolSettings apiConnectionPool) {
+        this.apiConnectionPool = notNull(apiConnectionPool, "apiConnectionPool");
+    }
+
+    /**
+     * Connection pool used for the API calls (including polling), can be tuned directly
+     * @return API connection pool settings
+     */
+    public ConnectionPoolSettings getApiConnectionPool() {
+        return apiConnectionPool;
+    }
+
+    /**
+     * Set connection pool used for the data store (user staging, WebDAV) transfers. The pool is separated from the API
+     * one, so long uploads don't block the API calls.
+     *
+     * @param stagingConnectionPool data store connection pool settings
+     */
+    public void setStagingConnectionPool(ConnectionPoolSettings stagingConnectionPool) {
+        this.stagingConnectionPool = notNull(stagingConnectionPool, "stagingConnectionPool");
+    }
+
+    /**
+     * Connection pool used for the data store (user staging, WebDAV) transfers, can be tuned directly
+     * @return data store connection pool settings
+     */
+    public ConnectionPoolSettings getStagingConnectionPool() {
+        return stagingConnectionPool;
     }
 
     /**
@@ -103,6 +156,187 @@ public class GoodDataSettings {
         return socketTimeout;
     }
 
+    /**
+     * Set number of threads used to poll the results of asynchronous tasks (see {@link FutureResult}).
+     * Polls of all the tasks are multiplexed onto these threads, so the number doesn't depend on the number
+     * of tasks being tracked.
+     *
+     * The default value is 4.
+     *
+     * @param pollingThreads number of threads used for polling
+     */
+    public void setPollingThreads(int pollingThreads) {
+        isTrue(pollingThreads > 0, "pollingThreads must be greater than zero");
+        this.pollingThreads = pollingThreads;
+    }
+
+    /**
+     * Number of threads used to poll the results of asynchronous tasks
+     * @return number of threads used for polling
+     */
+    public int getPollingThreads() {
+        return pollingThreads;
+    }
+
+    /**
+     * Set policy deciding delays between polls of the results of asynchronous tasks (see {@link FutureResult}).
+     *
+     * The default is {@link AdaptivePollingPolicy} with default settings.
+     *
+     * @param pollingPolicy polling policy
+     */
+    public void setPollingPolicy(PollingPolicy pollingPolicy) {
+        this.pollingPolicy = notNull(pollingPolicy, "pollingPolicy");
+    }
+
+    /**
+     * Policy deciding delays between polls of the results of asynchronous tasks
+     * @return polling policy
+     */
+    public PollingPolicy getPollingPolicy() {
+        return pollingPolicy;
+    }
+
+    /**
+     * Set content compression of response bodies. Compressed JSON of large listings (metadata queries,
+     * users, projects, validation results) is typically several times smaller.
+     *
+     * The default is {@link CompressionMode#RESPONSES}.
+     *
+     * @param compressionMode compression mode
+     */
+    public void setCompressionMode(CompressionMode compressionMode) {
+        this.compressionMode = notNull(compressionMode, "compressionMode");
+    }
+
+    /**
+     * Content compression of response bodies
+     * @return compression mode
+     */
+    public CompressionMode getCompressionMode() {
+        return compressionMode;
+    }
+
+    /**
+     * Set retrying of the failed API calls and the circuit breaker.
+     *
+     * By default the calls are not retried and the circuit breaker is disabled.
+     *
+     * @param retry retry settings
+     */
+    public void setRetry(RetrySettings retry) {
+        this.retry = notNull(retry, "retry");
+    }
+
+    /**
+     * Retrying of the failed API calls and the circuit breaker, can be tuned directly
+     * @return retry settings
+     */
+    public RetrySettings getRetry() {
+        return retry;
+    }
+
+    /**
+     * Set client-side rate limiting of the requests.
+     *
+     * By default the rate is not limited.
+     *
+     * @param rateLimit rate limit settings
+     */
+    public void setRateLimit(RateLimitSettings rateLimit) {
+        this.rateLimit = notNull(rateLimit, "rateLimit");
+    }
+
+    /**
+     * Client-side rate limiting of the requests, can be tuned directly
+     * @return rate limit settings
+     */
+    public RateLimitSettings getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Set whether concurrent identical GET requests (same URI and Accept header) share single HTTP request.
+     * Each caller gets its own copy of the response, deserialized independently. Responses of such requests are
+     * buffered in memory.
+     *
+     * The default value is false.
+     *
+     * @param singleFlightGets true to share concurrent identical GET requests
+     */
+    public void setSingleFlightGets(boolean singleFlightGets) {
+        this.singleFlightGets = singleFlightGets;
+    }
+
+    /**
+     * Whether concurrent identical GET requests share single HTTP request
+     * @return true if concurrent identical GET requests are shared
+     */
+    public boolean isSingleFlightGets() {
+        return singleFlightGets;
+    }
+
+    /**
+     * Set HTTP cache of the API responses.
+     *
+     * By default the responses are not cached.
+     *
+     * @param cache cache settings
+     */
+    public void setCache(CacheSettings cache) {
+        this.cache = notNull(cache, "cache");
+    }
+
+    /**
+     * HTTP cache of the API responses, can be tuned directly
+     * @return cache settings
+     */
+    public CacheSettings getCache() {
+        return cache;
+    }
+
+    /**
+     * Set refreshing and storing of the authentication tokens.
+     *
+     * By default the tokens are refreshed after a request is refused and they are not stored.
+     *
+     * @param authentication authentication settings
+     */
+    public void setAuthentication(AuthenticationSettings authentication) {
+        this.authentication = notNull(authentication, "authentication");
+    }
+
+    /**
+     * Refreshing and storing of the authentication tokens, can be tuned directly
+     * @return authentication settings
+     */
+    public AuthenticationSettings getAuthentication() {
+        return authentication;
+    }
+
+    /**
+     * Set directory to journal the polled tasks in, so the polling of the long running tasks (dataset loads, process
+     * executions, report exports) can be resumed after the JVM restart, see {@link GoodData#resumeTasks()}.
+     * Each user gets own subdirectory.
+     *
+     * The default value is null, the tasks are not journaled.
+     *
+     * @param taskJournalDirectory existing directory or null to not journal the tasks
+     */
+    public void setTaskJournalDirectory(File taskJournalDirectory) {
+        isTrue(taskJournalDirectory == null || taskJournalDirectory.isDirectory(),
+                "taskJournalDirectory must be an existing directory");
+        this.taskJournalDirectory = taskJournalDirectory;
+    }
+
+    /**
+     * Directory the polled tasks are journaled in
+     * @return directory or null if the tasks are not journaled
+     */
+    public File getTaskJournalDirectory() {
+        return taskJournalDirectory;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -112,28 +346,69 @@ public class GoodDataSettings {
 
         GoodDataSettings that = (GoodDataSettings) o;
 
-        if (maxConnections != that.maxConnections)
+        if (!apiConnectionPool.equals(that.apiConnectionPool))
+            return false;
+        if (!stagingConnectionPool.equals(that.stagingConnectionPool))
             return false;
         if (connectionTimeout != that.connectionTimeout)
             return false;
-        return socketTimeout == that.socketTimeout;
+        if (socketTimeout != that.socketTimeout)
+            return false;
+        if (pollingThreads != that.pollingThreads)
+            return false;
+        if (compressionMode != that.compressionMode)
+            return false;
+        if (!retry.equals(that.retry))
+            return false;
+        if (!rateLimit.equals(that.rateLimit))
+            return false;
+        if (singleFlightGets != that.singleFlightGets)
+            return false;
+        if (!cache.equals(that.cache))
+            return false;
+        if (!authentication.equals(that.authentication))
+            return false;
+        if (taskJournalDirectory != null ? !taskJournalDirectory.equals(that.taskJournalDirectory)
+                : that.taskJournalDirectory != null)
+            return false;
+        return pollingPolicy.equals(that.pollingPolicy);
 
     }
 
     @Override
     public int hashCode() {
-        int result = maxConnections;
+        int result = apiConnectionPool.hashCode();
+        result = 31 * result + stagingConnectionPool.hashCode();
         result = 31 * result + connectionTimeout;
         result = 31 * result + socketTimeout;
+        result = 31 * result + pollingThreads;
+        result = 31 * result + pollingPolicy.hashCode();
+        result = 31 * result + compressionMode.hashCode();
+        result = 31 * result + retry.hashCode();
+        result = 31 * result + rateLimit.hashCode();
+        result = 31 * result + (singleFlightGets ? 1 : 0);
+        result = 31 * result + cache.hashCode();
+        result = 31 * result + authentication.hashCode();
+        result = 31 * result + (taskJournalDirectory != null ? taskJournalDirectory.hashCode() : 0);
         return result;
     }
 
     @Override
     public String toString() {
         return "GoodDataSettings{" +
-                "maxConnections=" + maxConnections +
+                "apiConnectionPool=" + apiConnectionPool +
+                ", stagingConnectionPool=" + stagingConnectionPool +
                 ", connectionTimeout=" + connectionTimeout +
                 ", socketTimeout=" + socketTimeout +
+                ", pollingThreads=" + pollingThreads +
+                ", pollingPolicy=" + pollingPolicy +
+                ", compressionMode=" + compressionMode +
+                ", retry=" + retry +
+                ", rateLimit=" + rateLimit +
+                ", singleFlightGets=" + singleFlightGets +
+                ", cache=" + cache +
+                ", authentication=" + authentication +
+                ", taskJournalDirectory=" + taskJournalDirectory +
                 '}';
     }
 
@@ -4,8 +4,6 @@
 package com.gooddata;
 
 import org.springframework.http.HttpRequest;
-import org.springframework.http.client.ClientHttpRequestExecution;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.client.support.HttpRequestWrapper;
 
@@ -16,10 +14,10 @@ import static com.gooddata.util.Validate.notNull;
 
 /**
  * Intercepts client-side HTTP requests and sets HTTP headers passed to constructor of this class.
- * Implementations of this interface can be registered with the RestTemplate, as to modify the outgoing
- * ClientHttpRequest and/or the incoming ClientHttpResponse.
+ * Registered with the {@link SpoolingClientHttpRequestFactory}, so setting the headers doesn't buffer
+ * the request body.
  */
-class HeaderSettingRequestInterceptor implements ClientHttpRequestInterceptor {
+class HeaderSettingRequestInterceptor implements RequestInterceptor {
 
     private final Map<String, String> headers;
 
@@ -34,7 +32,7 @@ class HeaderSettingRequestInterceptor implements ClientHttpRequestInterceptor {
 
     /**
      * Intercept the given request, set headers passed to constructor, and return a response.
-     * The given {@link org.springframework.http.client.ClientHttpRequestExecution} allows the interceptor
+     * The given {@link Execution} allows the interceptor
      * to pass on the request and response to the next entity in the chain.
      *
      * @param request   the request, containing method, URI, and headers
@@ -44,8 +42,8 @@ class HeaderSettingRequestInterceptor implements ClientHttpRequestInterceptor {
      * @throws IOException in case of I/O errors
      */
     @Override
-    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
-                                        ClientHttpRequestExecution execution) throws IOException {
+    public ClientHttpResponse intercept(HttpRequest request, RequestBody body,
+                                        Execution execution) throws IOException {
         final HttpRequestWrapper requestWrapper = new HttpRequestWrapper(request);
         for (final Map.Entry<String, String> header : headers.entrySet()) {
             requestWrapper.getHeaders().set(header.getKey(), header.getValue());
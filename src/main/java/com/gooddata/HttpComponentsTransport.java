@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpOptions;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpTrace;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.util.EntityUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Default {@link HttpTransport} executing the requests by the Apache {@link HttpClient}. The body is sent from
+ * the {@link RequestBody} without copying.
+ */
+class HttpComponentsTransport implements HttpTransport {
+
+    private final HttpClient httpClient;
+
+    HttpComponentsTransport(final HttpClient httpClient) {
+        this.httpClient = notNull(httpClient, "httpClient");
+    }
+
+    @Override
+    public ClientHttpResponse execute(final HttpRequest request, final RequestBody body) throws IOException {
+        final HttpUriRequest httpRequest = createHttpUriRequest(request.getMethod(), request.getURI());
+        for (final Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+            final String name = header.getKey();
+            // computed from the entity
+            if (HTTP.CONTENT_LEN.equalsIgnoreCase(name) || HTTP.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (final String value : header.getValue()) {
+                httpRequest.addHeader(name, value);
+            }
+        }
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            ((HttpEntityEnclosingRequest) httpRequest).setEntity(body.toEntity());
+        }
+        return new HttpComponentsResponse(httpClient.execute(httpRequest));
+    }
+
+    private static HttpUriRequest createHttpUriRequest(final HttpMethod method, final URI uri) {
+        switch (method) {
+            case GET:
+                return new HttpGet(uri);
+            case DELETE:
+                return new HttpDelete(uri);
+            case HEAD:
+                return new HttpHead(uri);
+            case OPTIONS:
+                return new HttpOptions(uri);
+            case POST:
+                return new HttpPost(uri);
+            case PUT:
+                return new HttpPut(uri);
+            case TRACE:
+                return new HttpTrace(uri);
+            case PATCH:
+                return new HttpPatch(uri);
+            default:
+                throw new IllegalArgumentException("Invalid HTTP method: " + method);
+        }
+    }
+
+    private static class HttpComponentsResponse extends AbstractClientHttpResponse {
+        private final HttpResponse response;
+        private HttpHeaders headers;
+
+        private HttpComponentsResponse(final HttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return response.getStatusLine().getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            return response.getStatusLine().getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (headers == null) {
+                headers = new HttpHeaders();
+                for (final Header header : response.getAllHeaders()) {
+                    headers.add(header.getName(), header.getValue());
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            final HttpEntity entity = response.getEntity();
+            return entity != null ? entity.getContent() : null;
+        }
+
+        @Override
+        public void close() {
+            try {
+                try {
+                    EntityUtils.consume(response.getEntity());
+                } finally {
+                    if (response instanceof Closeable) {
+                        ((Closeable) response).close();
+                    }
+                }
+            } catch (IOException ignored) {
+                // nothing to do, the connection is released anyway
+            }
+        }
+    }
+}
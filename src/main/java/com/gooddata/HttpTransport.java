@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Executes the HTTP requests of the API calls, see {@link GoodDataClientFactory#GoodDataClientFactory(GoodDataSettings,
+ * HttpTransport)}.
+ * <p>
+ * The transport is placed beneath the SDK's request handling, it gets the requests with the absolute URI and
+ * the complete headers including the authentication cookies, it's expected just to send them and return the responses.
+ * The SST/TT authentication, retries, rate limiting and metrics are handled by the SDK. Single transport is shared by
+ * all the instances created by the factory, so it must be thread safe and may multiplex the concurrent requests
+ * (e.g. over HTTP/2 connections).
+ * <p>
+ * The default transport is based on the Apache HttpClient configured by the {@link GoodDataSettings}.
+ */
+public interface HttpTransport {
+
+    /**
+     * Execute the request.
+     *
+     * @param request the request, containing method, absolute URI, and headers
+     * @param body    the body of the request, empty if the request has none; the content length header isn't set,
+     *                use {@link RequestBody#getSize()}
+     * @return the response, the SDK closes it once it's read
+     * @throws IOException in case of I/O errors
+     */
+    ClientHttpResponse execute(HttpRequest request, RequestBody body) throws IOException;
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.gooddata.util.Validate.notNull;
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Periodically closes expired and idle connections of the connection pools.
+ * <p>
+ * All pools are handled by single daemon thread, which is started on demand and released when there is nothing
+ * to evict. The pools are referenced weakly, eviction stops when the pool is garbage collected.
+ */
+abstract class IdleConnectionEvictor {
+
+    private static final long MIN_PERIOD_MILLIS = 100;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "gooddata-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        EXECUTOR.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        EXECUTOR.allowCoreThreadTimeOut(true);
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Start evicting connections of the given pool.
+     *
+     * @param connectionManager pool to evict connections from
+     * @param idleTimeout       milliseconds after which idle connection is closed
+     */
+    static void evict(final HttpClientConnectionManager connectionManager, final long idleTimeout) {
+        notNull(connectionManager, "connectionManager");
+        isTrue(idleTimeout > 0, "idleTimeout must be greater than zero");
+        final WeakReference<HttpClientConnectionManager> reference = new WeakReference<>(connectionManager);
+        final long period = Math.max(MIN_PERIOD_MILLIS, idleTimeout / 2);
+        EXECUTOR.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                final HttpClientConnectionManager manager = reference.get();
+                if (manager == null) {
+                    // failing task is not scheduled again
+                    throw new CancellationException("connection pool released");
+                }
+                manager.closeExpiredConnections();
+                manager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+}
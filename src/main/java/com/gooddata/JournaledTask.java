@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.codehaus.jackson.annotate.JsonCreator;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonProperty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.gooddata.util.Validate.notEmpty;
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Polled task recorded in the {@link TaskJournal}: type of the task, its polling URI and the context needed
+ * by the service to finish the task when it's resumed (e.g. the data store directory of the dataset load).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class JournaledTask {
+
+    private final String id;
+    private final String type;
+    private final String pollingUri;
+    private final Map<String, String> context;
+    private final boolean recorded;
+
+    /**
+     * Creates a new task. For internal use by services employing polling.
+     *
+     * @param type       type of the task, tells the service which resumes it
+     * @param pollingUri URI the task is polled on
+     * @param context    values needed to finish the task
+     */
+    public JournaledTask(final String type, final String pollingUri, final Map<String, String> context) {
+        this(UUID.randomUUID().toString(), type, pollingUri, context, false);
+    }
+
+    @JsonCreator
+    JournaledTask(@JsonProperty("id") final String id, @JsonProperty("type") final String type,
+                  @JsonProperty("pollingUri") final String pollingUri,
+                  @JsonProperty("context") final Map<String, String> context) {
+        this(id, type, pollingUri, context, true);
+    }
+
+    private JournaledTask(final String id, final String type, final String pollingUri,
+                          final Map<String, String> context, final boolean recorded) {
+        this.id = notEmpty(id, "id");
+        this.type = notEmpty(type, "type");
+        this.pollingUri = notEmpty(pollingUri, "pollingUri");
+        this.context = context == null ? Collections.<String, String>emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(context));
+        this.recorded = recorded;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPollingUri() {
+        return pollingUri;
+    }
+
+    public Map<String, String> getContext() {
+        return context;
+    }
+
+    /**
+     * Get the context value needed to finish the task
+     *
+     * @param key key of the value
+     * @return value
+     * @throws IllegalArgumentException when the value is missing
+     */
+    public String getContext(final String key) {
+        return notNull(context.get(key), key);
+    }
+
+    /**
+     * Whether the task was read from the journal, i.e. it's being resumed
+     */
+    boolean isRecorded() {
+        return recorded;
+    }
+
+    JournaledTask withPollingUri(final String pollingUri) {
+        return new JournaledTask(id, type, pollingUri, context, recorded);
+    }
+
+    @Override
+    public String toString() {
+        return "JournaledTask{" +
+                "id='" + id + '\'' +
+                ", type='" + type + '\'' +
+                ", pollingUri='" + pollingUri + '\'' +
+                ", context=" + context +
+                '}';
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of latencies in microseconds.
+ * <p>
+ * Each power of two range is split into {@value #SUB_BUCKETS} linear buckets, so the recorded values are
+ * kept with relative precision better than 7 % while the histogram has a fixed small size. Recording doesn't
+ * allocate.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** values up to 2^36 us (about 19 hours), larger are counted in the last bucket */
+    private static final int MAX_EXPONENT = 35;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    void record(final long micros) {
+        final long value = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(value));
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry
+        }
+    }
+
+    /**
+     * Copy current counts into the given array.
+     *
+     * @param target array of {@link #BUCKETS} length
+     */
+    void copyCounts(final long[] target) {
+        for (int i = 0; i < BUCKETS; i++) {
+            target[i] = counts.get(i);
+        }
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    long getSum() {
+        return sum.get();
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        final int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa - SUB_BUCKETS;
+    }
+
+    /**
+     * Highest value counted in the bucket of given index.
+     */
+    static long highestValueOf(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Compute percentile from the copied counts.
+     *
+     * @param counts     copied counts
+     * @param total      sum of the counts
+     * @param percentile percentile (0 - 100]
+     * @return highest value of the bucket containing the percentile, 0 if there are no values
+     */
+    static long percentile(final long[] counts, final long total, final double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(counts.length - 1);
+    }
+}
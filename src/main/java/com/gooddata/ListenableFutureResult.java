@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.concurrent.Executor;
+
+/**
+ * {@link FutureResult} which notifies callbacks when it's completed and which can be cancelled.
+ * <p>
+ * All the results returned by the SDK implement it. The services keep returning {@link FutureResult}, use
+ * {@link FutureResults#listenable(FutureResult)} to get this view of the returned result.
+ *
+ * @param <T> result type
+ */
+public interface ListenableFutureResult<T> extends FutureResult<T> {
+
+    /**
+     * Register callback notified when the result is available or can't be retrieved. The callback is executed
+     * by the thread completing the result (or immediately by the calling thread when the result is already completed),
+     * so it should return quickly, use {@link #addCallback(FutureResultCallback, Executor)} otherwise.
+     *
+     * @param callback callback to notify
+     */
+    public void addCallback(final FutureResultCallback<? super T> callback);
+
+    /**
+     * Register callback notified using given executor when the result is available or can't be retrieved.
+     *
+     * @param callback callback to notify
+     * @param executor executor used to execute the callback
+     */
+    public void addCallback(final FutureResultCallback<? super T> callback, final Executor executor);
+
+    /**
+     * Cancel the result: stop polling it and release the resources held for it (e.g. the uploaded data of a load).
+     * The threads waiting for the result and the callbacks get the {@link ResultCancelledException}.
+     * Has no effect when the result is already completed.
+     * <p>
+     * The task on the platform is aborted only where the API allows it, otherwise it keeps running. E.g. the ETL pull
+     * of a cancelled dataset load continues and its uploaded data are deleted once it finishes.
+     *
+     * @return true if this call cancelled the result, false if it was already completed
+     */
+    public boolean cancel();
+
+    /**
+     * Checks if the result was cancelled. Doesn't wait for the result.
+     *
+     * @return true if so
+     */
+    public boolean isCancelled();
+}
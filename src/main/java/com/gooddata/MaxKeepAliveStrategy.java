@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.protocol.HttpContext;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Keep-alive strategy respecting the <code>Keep-Alive</code> header of the response, but never keeping
+ * the connection longer than the given maximum.
+ */
+class MaxKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+    private final long maxKeepAlive;
+
+    /**
+     * @param maxKeepAlive maximum keep-alive milliseconds
+     */
+    MaxKeepAliveStrategy(final long maxKeepAlive) {
+        isTrue(maxKeepAlive > 0, "maxKeepAlive must be greater than zero");
+        this.maxKeepAlive = maxKeepAlive;
+    }
+
+    @Override
+    public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+        final long requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+        return requested > 0 ? Math.min(requested, maxKeepAlive) : maxKeepAlive;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Records the requests of the data store (user staging) client to the {@link GoodDataMetrics}
+ * under {@link GoodDataMetrics#STAGING_URI_TEMPLATE}.
+ * The request is recorded when the response head is received, the latency doesn't include reading of the body.
+ */
+class MetricsHttpInterceptor implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+    private static final String START_ATTRIBUTE = MetricsHttpInterceptor.class.getName() + ".start";
+
+    private final GoodDataMetrics metrics;
+
+    MetricsHttpInterceptor(final GoodDataMetrics metrics) {
+        this.metrics = notNull(metrics, "metrics");
+    }
+
+    @Override
+    public void process(final HttpRequest request, final HttpContext context) {
+        context.setAttribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    @Override
+    public void process(final HttpResponse response, final HttpContext context) {
+        final Object start = context.getAttribute(START_ATTRIBUTE);
+        final Object request = context.getAttribute(HttpCoreContext.HTTP_REQUEST);
+        if (!(start instanceof Long) || !(request instanceof HttpRequest)) {
+            return;
+        }
+        final long duration = System.nanoTime() - (Long) start;
+        final HttpRequest httpRequest = (HttpRequest) request;
+        final long bytesSent = httpRequest instanceof HttpEntityEnclosingRequest
+                ? contentLength(((HttpEntityEnclosingRequest) httpRequest).getEntity()) : 0;
+        metrics.record(httpRequest.getRequestLine().getMethod(), GoodDataMetrics.STAGING_URI_TEMPLATE,
+                response.getStatusLine().getStatusCode(), bytesSent, contentLength(response.getEntity()), duration);
+    }
+
+    private static long contentLength(final HttpEntity entity) {
+        return entity != null ? entity.getContentLength() : 0;
+    }
+}
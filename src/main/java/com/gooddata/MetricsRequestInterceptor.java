@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Records the requests executed by the {@link UriTemplateRestTemplate} to the {@link GoodDataMetrics} and as
+ * the {@link FlightRecorderEvent#HTTP_EXCHANGE} events.
+ * The request is recorded when its response is closed, so the latency includes reading of the response body.
+ */
+class MetricsRequestInterceptor implements RequestInterceptor {
+
+    private final GoodDataMetrics metrics;
+
+    MetricsRequestInterceptor(final GoodDataMetrics metrics) {
+        this.metrics = notNull(metrics, "metrics");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final RequestBody body,
+                                        final Execution execution) throws IOException {
+        final String template = UriTemplateRestTemplate.currentUriTemplate();
+        final String uriTemplate = template != null
+                ? template : GoodDataMetrics.toUriTemplate(request.getURI().getRawPath());
+        final String method = request.getMethod().name();
+        final FlightRecorderEvent event = FlightRecorderEvent.HTTP_EXCHANGE.begin();
+        final long start = System.nanoTime();
+        final ClientHttpResponse response;
+        final int statusCode;
+        try {
+            response = execution.execute(request, body);
+            statusCode = response.getRawStatusCode();
+        } catch (IOException | RuntimeException e) {
+            metrics.record(method, uriTemplate, 0, body.getSize(), -1, System.nanoTime() - start);
+            event.commit(method, uriTemplate, 0, body.getSize(), -1L);
+            throw e;
+        }
+        return new MeteredResponse(response, method, uriTemplate, statusCode, body.getSize(), start, event);
+    }
+
+    private class MeteredResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final String method;
+        private final String uriTemplate;
+        private final int statusCode;
+        private final long bytesSent;
+        private final long start;
+        private final FlightRecorderEvent event;
+        private CountingInputStream body;
+        private boolean closed;
+
+        private MeteredResponse(final ClientHttpResponse response, final String method, final String uriTemplate,
+                                final int statusCode, final long bytesSent, final long start,
+                                final FlightRecorderEvent event) {
+            this.response = response;
+            this.method = method;
+            this.uriTemplate = uriTemplate;
+            this.statusCode = statusCode;
+            this.bytesSent = bytesSent;
+            this.start = start;
+            this.event = event;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return statusCode;
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingInputStream(response.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (!closed) {
+                    closed = true;
+                    final long bytesReceived = body != null ? body.count : response.getHeaders().getContentLength();
+                    metrics.record(method, uriTemplate, statusCode, bytesSent, bytesReceived,
+                            System.nanoTime() - start);
+                    event.commit(method, uriTemplate, statusCode, bytesSent, bytesReceived);
+                }
+            }
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = super.read();
+            if (result != -1) {
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long result = super.skip(n);
+            count += result;
+            return result;
+        }
+    }
+}
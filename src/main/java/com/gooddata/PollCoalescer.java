@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Shares the poll responses among the {@link PollResult}s observing the same task, so they produce single stream
+ * of poll requests instead of one per result.
+ * <p>
+ * The last response of each polling URI is kept and reused by the observer which hasn't seen it yet, i.e. whose own
+ * previous response was received before it. Otherwise the observer polls, unless another one is polling the same URI
+ * at the moment; then it skips the poll and reuses the response by its next one. No thread waits for the poll
+ * of another. The responses are shared only among the services using the same
+ * {@link org.springframework.web.client.RestTemplate} (i.e. the same user) and the same poll class.
+ */
+class PollCoalescer {
+
+    private static final long STALE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConcurrentMap<Key, Stream> streams = new ConcurrentHashMap<>();
+
+    private volatile long lastSweep = System.nanoTime();
+
+    /**
+     * Get the poll stream of the given task
+     *
+     * @param client    client executing the polls
+     * @param uri       polling URI
+     * @param pollClass class the responses are read as
+     * @return stream
+     */
+    Stream getStream(final Object client, final String uri, final Class<?> pollClass) {
+        sweep();
+        final Key key = new Key(client, uri, pollClass);
+        final Stream stream = streams.get(key);
+        if (stream != null) {
+            return stream;
+        }
+        final Stream created = new Stream();
+        final Stream existing = streams.putIfAbsent(key, created);
+        return existing != null ? existing : created;
+    }
+
+    int size() {
+        return streams.size();
+    }
+
+    /**
+     * Forget the streams whose last response is too old to be reused by any observer still polling,
+     * except for those being polled right now
+     */
+    private void sweep() {
+        final long now = System.nanoTime();
+        if (now - lastSweep < SWEEP_INTERVAL_NANOS) {
+            return;
+        }
+        lastSweep = now;
+        for (Iterator<Stream> it = streams.values().iterator(); it.hasNext(); ) {
+            if (it.next().isStale(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Poll requests of single task
+     */
+    static class Stream {
+
+        private volatile PollResponse response;
+
+        private final AtomicBoolean polling = new AtomicBoolean();
+
+        /**
+         * Get the last response unless the observer has already seen it
+         *
+         * @param seenNanos {@link System#nanoTime()} when the observer's previous response was received
+         * @return response received after the given time or null
+         */
+        PollResponse getResponse(final long seenNanos) {
+            final PollResponse last = response;
+            return last != null && last.getReceivedNanos() - seenNanos > 0 ? last : null;
+        }
+
+        void setResponse(final PollResponse response) {
+            this.response = notNull(response, "response");
+        }
+
+        /**
+         * Mark the poll request of the task in flight
+         *
+         * @return true if the caller should poll, false if another observer is polling at the moment
+         */
+        boolean startPoll() {
+            return polling.compareAndSet(false, true);
+        }
+
+        /**
+         * Mark the poll request started by {@link #startPoll()} finished (even if it failed)
+         */
+        void endPoll() {
+            polling.set(false);
+        }
+
+        private boolean isStale(final long now) {
+            if (polling.get()) {
+                return false;
+            }
+            final PollResponse last = response;
+            return last == null || now - last.getReceivedNanos() > STALE_NANOS;
+        }
+    }
+
+    private static class Key {
+        private final Object client;
+        private final String uri;
+        private final Class<?> pollClass;
+
+        private Key(final Object client, final String uri, final Class<?> pollClass) {
+            this.client = notNull(client, "client");
+            this.uri = notNull(uri, "uri");
+            this.pollClass = notNull(pollClass, "pollClass");
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            final Key key = (Key) o;
+            return client == key.client && uri.equals(key.uri) && pollClass.equals(key.pollClass);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(client);
+            result = 31 * result + uri.hashCode();
+            result = 31 * result + pollClass.hashCode();
+            return result;
+        }
+    }
+}
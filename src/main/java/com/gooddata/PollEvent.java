@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Lifecycle event of a task polled by {@link PollResult}, see {@link PollListener}.
+ * <p>
+ * The time elapsed since the submission consists of the time spent by the poll requests
+ * ({@link #getPollingMillis()}) and the time waiting between polls, so per task type (given by
+ * {@link #getPollClass()}) one can compare how long the tasks wait and run on the platform with how much
+ * of it the polling itself takes.
+ */
+public final class PollEvent {
+
+    /**
+     * Type of the event
+     */
+    public enum Type {
+        /** the task has been submitted and its polling scheduled */
+        SUBMITTED,
+        /** the task has been polled by a request, but it's not finished yet */
+        POLLED,
+        /**
+         * the poll reused the response of another result observing the same task, or was skipped while that one
+         * was polling, no request was sent and the task is not finished yet
+         */
+        COALESCED,
+        /** the task finished and the result is available */
+        FINISHED,
+        /** the polling failed (task failed or the poll request failed) */
+        FAILED,
+        /** a thread waiting for the result gave up, the polling continues */
+        TIMED_OUT,
+        /** the result was cancelled, the polling stopped */
+        CANCELLED
+    }
+
+    private final Type type;
+    private final Class<?> handlerType;
+    private final Class<?> pollClass;
+    private final String pollingUri;
+    private final String requestId;
+    private final int statusCode;
+    private final long latencyMillis;
+    private final int attempts;
+    private final long elapsedMillis;
+    private final long pollingMillis;
+    private final Throwable failure;
+
+    PollEvent(final Type type, final PollHandler<?, ?> handler, final PollProgress progress, final Throwable failure) {
+        this.type = type;
+        this.handlerType = handler.getClass();
+        this.pollClass = handler.getPollClass();
+        this.pollingUri = handler.getPollingUri();
+        this.requestId = progress.getRequestId();
+        this.statusCode = progress.getStatusCode();
+        this.latencyMillis = progress.getLatencyMillis();
+        this.attempts = progress.getAttempts();
+        this.elapsedMillis = progress.getElapsedMillis();
+        this.pollingMillis = progress.getPollingMillis();
+        this.failure = failure;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Class of the poll handler
+     * @return handler class
+     */
+    public Class<?> getHandlerType() {
+        return handlerType;
+    }
+
+    /**
+     * Class of the polled resource identifying the task type (e.g. <code>PullTaskStatus</code> for ETL pulls)
+     * @return poll class
+     */
+    public Class<?> getPollClass() {
+        return pollClass;
+    }
+
+    /**
+     * URI being polled
+     * @return polling URI
+     */
+    public String getPollingUri() {
+        return pollingUri;
+    }
+
+    /**
+     * Value of the X-GDC-REQUEST header of the last poll response
+     * @return request id, null if not known
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * HTTP status of the last poll response
+     * @return status code, 0 before the first poll
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Duration of the last poll request
+     * @return milliseconds
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * Number of polls made so far
+     * @return number of polls
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Time elapsed since the task was submitted
+     * @return milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Total duration of the poll requests made so far
+     * @return milliseconds
+     */
+    public long getPollingMillis() {
+        return pollingMillis;
+    }
+
+    /**
+     * Cause of the failure of {@link Type#FAILED} event
+     * @return failure or null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return "PollEvent{" +
+                "type=" + type +
+                ", pollClass=" + (pollClass != null ? pollClass.getSimpleName() : null) +
+                ", pollingUri='" + pollingUri + '\'' +
+                ", requestId='" + requestId + '\'' +
+                ", statusCode=" + statusCode +
+                ", attempts=" + attempts +
+                ", elapsedMillis=" + elapsedMillis +
+                ", pollingMillis=" + pollingMillis +
+                '}';
+    }
+}
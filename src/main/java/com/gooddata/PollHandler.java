@@ -53,6 +53,14 @@ public interface PollHandler<P,R> {
 
     /**
      * Check single polling response if whole polling process should finish.
+     * <p>
+     * Successful response body has been already parsed into the {@link #getPollClass() poll class} and the connection
+     * released, use {@link AbstractService#extractData} with the poll class to get the parsed object without reading
+     * the body again. The same object is then passed to {@link #handlePollResult(Object)}.
+     * <p>
+     * The handler derived from {@link AbstractPollHandlerBase} can read the body by
+     * {@link ClientHttpResponse#getBody()} or parse it into another class only when it overrides
+     * {@link AbstractPollHandlerBase#isRawBodyNeeded()}, the body of other handlers is always buffered for them.
      *
      * @param response client side HTTP response
      * @return true if polling should finish, false otherwise
@@ -0,0 +1,20 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Listener notified about the lifecycle of the polled tasks, see {@link PollScheduler#addListener(PollListener)}.
+ * <p>
+ * The listener is called by the polling threads (or by the thread waiting for the result in case of
+ * {@link PollEvent.Type#TIMED_OUT}), so it should return quickly. Exceptions thrown by the listener are ignored.
+ */
+public interface PollListener {
+
+    /**
+     * Called when the polled task is submitted, polled, finished, failed or when the wait for it timed out.
+     *
+     * @param event the event
+     */
+    void onPollEvent(PollEvent event);
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Progress of polling of a single {@link PollResult}. For internal use by the polling.
+ * <p>
+ * Written by the polling threads only, but read also by threads waiting for the result.
+ */
+final class PollProgress {
+
+    private final long start = System.currentTimeMillis();
+
+    private volatile int attempts;
+
+    private volatile long retryAfterMillis = -1;
+
+    private volatile int statusCode;
+
+    private volatile String requestId;
+
+    private volatile long latencyMillis;
+
+    private volatile long pollingMillis;
+
+    private volatile int retries;
+
+    private volatile long seenNanos = System.nanoTime();
+
+    private volatile boolean requested;
+
+    /**
+     * Record a poll response.
+     *
+     * @param statusCode       HTTP status of the response
+     * @param requestId        value of the X-GDC-REQUEST header of the response, may be null
+     * @param latencyMillis    duration of the poll request
+     * @param retryAfterMillis delay requested by the server, negative when not requested
+     */
+    void polled(final int statusCode, final String requestId, final long latencyMillis, final long retryAfterMillis) {
+        this.attempts++;
+        this.statusCode = statusCode;
+        this.requestId = requestId;
+        this.latencyMillis = latencyMillis;
+        this.pollingMillis += latencyMillis;
+        this.retryAfterMillis = retryAfterMillis;
+        this.retries = 0;
+    }
+
+    /**
+     * Record a poll failed by a transient error or postponed, the next poll retries it.
+     *
+     * @param retryAfterMillis delay before the retry
+     * @param failed           true if the poll failed, false if it was postponed without being executed
+     */
+    void retryAfter(final long retryAfterMillis, final boolean failed) {
+        if (failed) {
+            this.attempts++;
+            this.retries++;
+        }
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return number of consecutive polls failed by a transient error
+     */
+    int getRetries() {
+        return retries;
+    }
+
+    /**
+     * Record whether the current poll sends the request, see {@link #isRequested()}.
+     *
+     * @param requested true if the request is sent
+     */
+    void setRequested(final boolean requested) {
+        this.requested = requested;
+    }
+
+    /**
+     * @return true if the last poll sent the request, false if it reused the response of another observer
+     * of the same task or skipped the poll while that one was in flight, see {@link PollCoalescer}
+     */
+    boolean isRequested() {
+        return requested;
+    }
+
+    /**
+     * Record that the response received at the given time was handled, see {@link PollCoalescer}.
+     *
+     * @param receivedNanos {@link System#nanoTime()} when the response was received
+     */
+    void seen(final long receivedNanos) {
+        this.seenNanos = receivedNanos;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the last handled response was received (or the polling started)
+     */
+    long getSeenNanos() {
+        return seenNanos;
+    }
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    long getElapsedMillis() {
+        return System.currentTimeMillis() - start;
+    }
+
+    long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * @return HTTP status of the last poll response, 0 before the first poll
+     */
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return X-GDC-REQUEST header of the last poll response
+     */
+    String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * @return duration of the last poll request
+     */
+    long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * @return total duration of all poll requests
+     */
+    long getPollingMillis() {
+        return pollingMillis;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Response of a single poll detached from the HTTP connection.
+ * <p>
+ * Successful response body is parsed just once, directly from the connection stream into the poll class,
+ * so it is neither copied into an intermediate array nor parsed again by the handler. The connection is released
+ * before the response is passed to the {@link PollHandler}, so the handler is free to execute another requests.
+ * <p>
+ * The body of the handler reading the raw body (see {@link AbstractPollHandlerBase#isRawBodyNeeded()}) is buffered
+ * instead, so it can be read by {@link #getBody()} or parsed into another class than the poll class.
+ */
+final class PollResponse implements ClientHttpResponse {
+
+    private final HttpStatus statusCode;
+    private final int rawStatusCode;
+    private final String statusText;
+    private final HttpHeaders headers;
+    private final Class<?> pollClass;
+    private final List<HttpMessageConverter<?>> messageConverters;
+    private final byte[] body;
+    private final Object data;
+    private final Exception failure;
+    private final long receivedNanos;
+    private final boolean streamed;
+
+    /**
+     * Read the response of single poll.
+     *
+     * @param response          HTTP response to read
+     * @param pollClass         class of the polling object (or {@link Void})
+     * @param messageConverters converters used to parse the body
+     * @throws IOException in case of I/O errors when reading the status line
+     */
+    PollResponse(final ClientHttpResponse response, final Class<?> pollClass,
+                 final List<HttpMessageConverter<?>> messageConverters) throws IOException {
+        this(response, pollClass, messageConverters, false);
+    }
+
+    /**
+     * Read the response of single poll.
+     *
+     * @param response          HTTP response to read
+     * @param pollClass         class of the polling object (or {@link Void})
+     * @param messageConverters converters used to parse the body
+     * @param streamed          true if the body has been already consumed by the handler
+     * @throws IOException in case of I/O errors when reading the status line
+     */
+    PollResponse(final ClientHttpResponse response, final Class<?> pollClass,
+                 final List<HttpMessageConverter<?>> messageConverters, final boolean streamed) throws IOException {
+        this(response, pollClass, messageConverters, streamed, false);
+    }
+
+    /**
+     * Read the response of single poll.
+     *
+     * @param response          HTTP response to read
+     * @param pollClass         class of the polling object (or {@link Void})
+     * @param messageConverters converters used to parse the body
+     * @param streamed          true if the body has been already consumed by the handler
+     * @param rawBody           true to buffer the body for the handler reading it on its own
+     * @throws IOException in case of I/O errors when reading the status line or the buffered body
+     */
+    PollResponse(final ClientHttpResponse response, final Class<?> pollClass,
+                 final List<HttpMessageConverter<?>> messageConverters, final boolean streamed,
+                 final boolean rawBody) throws IOException {
+        notNull(response, "response");
+        this.streamed = streamed;
+        this.pollClass = notNull(pollClass, "pollClass");
+        this.messageConverters = notNull(messageConverters, "messageConverters");
+        statusCode = response.getStatusCode();
+        rawStatusCode = response.getRawStatusCode();
+        statusText = response.getStatusText();
+        headers = response.getHeaders();
+        body = rawBody && !streamed ? FileCopyUtils.copyToByteArray(response.getBody()) : null;
+
+        Object data = null;
+        Exception failure = null;
+        if (hasPollBody()) {
+            try {
+                data = new HttpMessageConverterExtractor<>(pollClass, messageConverters)
+                        .extractData(body != null ? this : response);
+            } catch (IOException | RuntimeException e) {
+                // the body may not represent the poll object until the task is finished, fail only when asked for
+                failure = e;
+            }
+        }
+        this.data = data;
+        this.failure = failure;
+        this.receivedNanos = System.nanoTime();
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the response was read
+     */
+    long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    /**
+     * @return true if the body has been consumed by the handler, such response can't be shared
+     */
+    boolean isStreamed() {
+        return streamed;
+    }
+
+    private boolean hasPollBody() {
+        return !streamed && !Void.class.equals(pollClass) && HttpStatus.Series.SUCCESSFUL.equals(statusCode.series())
+                && !HttpStatus.NO_CONTENT.equals(statusCode);
+    }
+
+    /**
+     * Get the body parsed into the poll class.
+     *
+     * @param cls requested class, the poll class or its supertype, or any class when the body is buffered
+     * @param <T> requested type
+     * @return parsed body or null if there was no body
+     * @throws IOException in case of I/O errors when the body was read
+     */
+    @SuppressWarnings("unchecked")
+    <T> T getData(final Class<T> cls) throws IOException {
+        notNull(cls, "cls");
+        if (!cls.isAssignableFrom(pollClass)) {
+            if (body != null) {
+                return new HttpMessageConverterExtractor<>(cls, messageConverters).extractData(this);
+            }
+            throw new GoodDataException("Poll response has been read as " + pollClass.getName()
+                    + ", unable to read it as " + cls.getName() + " unless the handler needs the raw body");
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+        return (T) data;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public int getRawStatusCode() {
+        return rawStatusCode;
+    }
+
+    @Override
+    public String getStatusText() {
+        return statusText;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * The buffered body, available only when the handler needs the raw body. Otherwise the body has been already
+     * read when polling, use {@link AbstractService#extractData} with the poll class instead.
+     */
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body != null) {
+            return new ByteArrayInputStream(body);
+        }
+        if (streamed) {
+            throw new IOException("Poll response body has been already streamed by the handler");
+        }
+        throw new IOException("Poll response body has been already read as " + pollClass.getName());
+    }
+
+    /**
+     * @return true if the raw body is buffered
+     */
+    boolean hasRawBody() {
+        return body != null;
+    }
+
+    @Override
+    public void close() {
+        // connection already released
+    }
+}
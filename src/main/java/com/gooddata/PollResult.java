@@ -3,19 +3,92 @@
  */
 package com.gooddata;
 
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.gooddata.util.Validate.notNull;
 
 /**
  * Represents the result retrieved by polling on the REST API.
+ * <p>
+ * Polling starts as soon as the result is created and is driven by the {@link PollScheduler} of the service
+ * using its {@link PollingPolicy}, threads waiting for the result are just blocked until the polling completes.
+ * Cancelling the result unschedules the next poll and lets the handler release the resources held for the task.
+ * <p>
+ * The result created for a {@link JournaledTask} is recorded in the {@link TaskJournal} of the service (if any)
+ * until it's completed, so the polling can be resumed after the JVM restart. The task is claimed in the journal
+ * while it's polled, so it can't be resumed twice.
+ * <p>
+ * The result created under a {@link Deadline} fails with the {@link DeadlineExceededException} when the deadline
+ * passes, the polling stops and the handler releases the resources held for the task as if it was cancelled.
  */
-public final class PollResult<T> implements FutureResult<T> {
+public final class PollResult<T> extends AbstractFutureResult<T> {
 
     private final AbstractService service;
 
     private final PollHandler<?,T> handler;
 
+    private final PollProgress progress = new PollProgress();
+
+    private volatile ScheduledFuture<?> scheduledPoll;
+
+    private final TaskJournal journal;
+
+    private volatile JournaledTask task;
+
+    private final Deadline deadline = Deadline.current();
+
+    private volatile ScheduledFuture<?> scheduledExpiration;
+
+    private final Runnable poll = new Runnable() {
+        @Override
+        public void run() {
+            if (isCompleted()) {
+                return;
+            }
+            final Deadline previous = Deadline.attach(deadline);
+            try {
+                if (service.pollOnce(handler, progress)) {
+                    getPollingPolicy().onFinish(handler, progress.getAttempts(), progress.getElapsedMillis());
+                    fire(PollEvent.Type.FINISHED, null);
+                    forget();
+                    complete(handler.getResult());
+                } else {
+                    fire(progress.isRequested() ? PollEvent.Type.POLLED : PollEvent.Type.COALESCED, null);
+                    recordPollingUri();
+                    schedulePoll();
+                }
+            } catch (RuntimeException | Error e) {
+                fire(PollEvent.Type.FAILED, e);
+                if (!service.getPollScheduler().isShutdown()) {
+                    forget();
+                } else if (journal != null) {
+                    // the polling interrupted by the shutdown stays journaled to be resumed
+                    journal.release(task);
+                }
+                fail(e);
+                if (e instanceof DeadlineExceededException) {
+                    release();
+                }
+            } finally {
+                Deadline.attach(previous);
+            }
+        }
+    };
+
+    private final Runnable expiration = new Runnable() {
+        @Override
+        public void run() {
+            final DeadlineExceededException exceeded = deadline.exceeded();
+            if (fail(exceeded)) {
+                cancelNextPoll();
+                fire(PollEvent.Type.FAILED, exceeded);
+                forget();
+                release();
+            }
+        }
+    };
+
     /**
      * Creates a new instance of the result to be eventually retrieved by polling on the REST API.<p>
      * For internal use by services employing polling.
@@ -24,26 +97,128 @@ public final class PollResult<T> implements FutureResult<T> {
      * @param handler poll handler
      */
     public PollResult(final AbstractService service, final PollHandler<?, T> handler) {
+        this(service, handler, null);
+    }
+
+    /**
+     * Creates a new instance of the result to be eventually retrieved by polling on the REST API, which is recorded
+     * as the given task in the {@link TaskJournal} of the service.<p>
+     * For internal use by services employing polling.
+     *
+     * @param service this service
+     * @param handler poll handler
+     * @param task    task to record (the same task when it's resumed) or null to not journal the result
+     * @throws TaskClaimedException when the resumed task is polled by another result or finished already
+     */
+    public PollResult(final AbstractService service, final PollHandler<?, T> handler, final JournaledTask task) {
         this.service = notNull(service, "service");
         this.handler = notNull(handler, "handler");
+        this.journal = task != null ? service.getTaskJournal() : null;
+        this.task = task;
+        if (journal != null) {
+            if (!journal.claim(task, service.getPollScheduler())) {
+                throw new TaskClaimedException(task);
+            }
+            journal.record(task);
+        }
+        fire(PollEvent.Type.SUBMITTED, null);
+        schedulePoll();
+        if (deadline != null) {
+            scheduleExpiration();
+        }
     }
 
-    @Override
-    public boolean isDone() {
-        return handler.isDone() || service.pollOnce(handler);
+    private void scheduleExpiration() {
+        scheduledExpiration = service.getPollScheduler().schedule(expiration, deadline.getRemainingMillis(),
+                TimeUnit.MILLISECONDS);
+        addCallback(new FutureResultCallback<T>() {
+            @Override
+            public void onSuccess(final T result) {
+                scheduledExpiration.cancel(false);
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                scheduledExpiration.cancel(false);
+            }
+        });
+    }
+
+    private void schedulePoll() {
+        if (isCompleted()) {
+            return;
+        }
+        final long delay = getPollingPolicy().getDelay(handler, progress.getAttempts(), progress.getElapsedMillis(),
+                progress.getRetryAfterMillis());
+        final PollScheduler scheduler = service.getPollScheduler();
+        scheduledPoll = isStreaming() ? scheduler.scheduleTransfer(poll, delay, TimeUnit.MILLISECONDS)
+                : scheduler.schedule(poll, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isStreaming() {
+        return handler instanceof AbstractPollHandlerBase && ((AbstractPollHandlerBase<?, ?>) handler).isStreaming();
+    }
+
+    private void recordPollingUri() {
+        final JournaledTask recorded = task;
+        if (journal != null && !recorded.getPollingUri().equals(handler.getPollingUri())) {
+            task = recorded.withPollingUri(handler.getPollingUri());
+            journal.record(task);
+        }
+    }
+
+    private void forget() {
+        if (journal != null) {
+            journal.remove(task);
+        }
+    }
+
+    private void fire(final PollEvent.Type type, final Throwable failure) {
+        final PollScheduler scheduler = service.getPollScheduler();
+        if (scheduler.hasListeners()) {
+            scheduler.fire(new PollEvent(type, handler, progress, failure));
+        }
     }
 
     @Override
-    public T get() {
-        return get(0, null);
+    void timedOut() {
+        fire(PollEvent.Type.TIMED_OUT, null);
     }
 
     @Override
-    public T get(final long timeout, final TimeUnit unit) {
-        if (handler.isDone()) {
-            return handler.getResult();
+    void cancelled() {
+        cancelNextPoll();
+        fire(PollEvent.Type.CANCELLED, null);
+        forget();
+        release();
+    }
+
+    private void cancelNextPoll() {
+        final ScheduledFuture<?> next = scheduledPoll;
+        if (next != null) {
+            next.cancel(false);
         }
-        return service.poll(handler, timeout, unit);
+    }
+
+    /**
+     * Let the handler release the resources held for the abandoned task
+     */
+    private void release() {
+        if (handler instanceof AbstractPollHandlerBase) {
+            // the cleanup isn't bounded by the spent deadline
+            final Deadline previous = Deadline.attach(null);
+            try {
+                ((AbstractPollHandlerBase<?, ?>) handler).onCancel();
+            } catch (RuntimeException ignored) {
+                // the result is completed anyway, the task is left to the platform
+            } finally {
+                Deadline.attach(previous);
+            }
+        }
+    }
+
+    private PollingPolicy getPollingPolicy() {
+        return service.getPollScheduler().getPollingPolicy();
     }
 
     /**
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Signals the poll request failed by a transient error (see {@link RetryingRequestInterceptor}) or was postponed
+ * by the rate limit (see {@link RateLimiter}) and should be retried by the next poll after the given delay
+ * instead of blocking the polling thread.
+ */
+final class PollRetryException extends GoodDataException {
+
+    private final long delayMillis;
+    private final boolean failed;
+
+    /**
+     * Poll postponed without being executed
+     *
+     * @param delayMillis milliseconds to wait before the retry
+     */
+    PollRetryException(final long delayMillis) {
+        super("Poll postponed by " + delayMillis + " ms");
+        this.delayMillis = delayMillis;
+        this.failed = false;
+    }
+
+    /**
+     * Poll failed by the transient error
+     *
+     * @param delayMillis milliseconds to wait before the retry
+     * @param cause       the I/O error failing the poll or null when the poll was answered by the failure status
+     */
+    PollRetryException(final long delayMillis, final Throwable cause) {
+        super("Poll failed, retry in " + delayMillis + " ms", cause);
+        this.delayMillis = delayMillis;
+        this.failed = true;
+    }
+
+    /**
+     * @return true if the poll failed, false if it was just postponed
+     */
+    boolean isFailed() {
+        return failed;
+    }
+
+    long getDelayMillis() {
+        return delayMillis;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.gooddata.util.Validate.notNull;
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Timer driving the polling of all {@link PollResult}s created by services of one {@link GoodData} instance.
+ * <p>
+ * All in-flight polls are multiplexed onto a small fixed pool of daemon threads, so the number of threads doesn't
+ * grow with the number of tracked tasks. Threads are started on demand and released when there is nothing to poll.
+ * The results observing the same task share the poll responses, so they don't multiply the poll requests.
+ * The polls which may transfer the payload of the finished task (e.g. the exported report) are executed by separate
+ * threads, so the long transfers don't hold up the polling of the other tasks.
+ */
+public class PollScheduler {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final ThreadPoolExecutor transferExecutor;
+
+    private final PollingPolicy pollingPolicy;
+
+    private final List<PollListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final PollCoalescer coalescer = new PollCoalescer();
+
+    /**
+     * Create scheduler polling using up to given number of threads and the {@link AdaptivePollingPolicy}.
+     *
+     * @param threads maximum number of threads used for polling
+     */
+    public PollScheduler(final int threads) {
+        this(threads, new AdaptivePollingPolicy());
+    }
+
+    /**
+     * Create scheduler polling using up to given number of threads and the given policy.
+     *
+     * @param threads       maximum number of threads used for polling
+     * @param pollingPolicy policy deciding delays between polls
+     */
+    public PollScheduler(final int threads, final PollingPolicy pollingPolicy) {
+        isTrue(threads > 0, "threads must be greater than zero");
+        this.pollingPolicy = notNull(pollingPolicy, "pollingPolicy");
+        executor = new ScheduledThreadPoolExecutor(threads, new PollThreadFactory("gooddata-poll-"));
+        executor.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        // one thread per concurrent transfer, the transfers are limited by the connection pool anyway
+        transferExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new PollThreadFactory("gooddata-transfer-"));
+    }
+
+    /**
+     * Schedule single poll to be executed after the given delay.
+     *
+     * @param poll  poll to execute
+     * @param delay delay value
+     * @param unit  delay unit
+     * @return scheduled poll
+     * @throws GoodDataException when this scheduler has been already shut down
+     */
+    ScheduledFuture<?> schedule(final Runnable poll, final long delay, final TimeUnit unit) {
+        try {
+            return executor.schedule(poll, delay, unit);
+        } catch (RejectedExecutionException e) {
+            throw new GoodDataException("Poll scheduler has been shut down", e);
+        }
+    }
+
+    /**
+     * Schedule single poll, which may transfer the payload of the finished task, to be executed after the given
+     * delay by the transfer thread.
+     *
+     * @param poll  poll to execute
+     * @param delay delay value
+     * @param unit  delay unit
+     * @return scheduled poll, cancelling it after the delay doesn't stop the poll handed to the transfer thread
+     * @throws GoodDataException when this scheduler has been already shut down
+     */
+    ScheduledFuture<?> scheduleTransfer(final Runnable poll, final long delay, final TimeUnit unit) {
+        return schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    transferExecutor.execute(poll);
+                } catch (RejectedExecutionException ignored) {
+                    // shut down meanwhile, the result is never completed as the other polled ones
+                }
+            }
+        }, delay, unit);
+    }
+
+    /**
+     * Get the policy deciding delays between polls
+     *
+     * @return polling policy
+     */
+    public PollingPolicy getPollingPolicy() {
+        return pollingPolicy;
+    }
+
+    /**
+     * Register listener notified about the lifecycle of all tasks polled by this scheduler.
+     *
+     * @param listener listener to register
+     */
+    public void addListener(final PollListener listener) {
+        listeners.add(notNull(listener, "listener"));
+    }
+
+    /**
+     * Unregister previously registered listener.
+     *
+     * @param listener listener to unregister
+     */
+    public void removeListener(final PollListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the responses shared by the results polling the same task
+     *
+     * @return poll coalescer
+     */
+    PollCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    void fire(final PollEvent event) {
+        for (PollListener listener : listeners) {
+            try {
+                listener.onPollEvent(event);
+            } catch (RuntimeException ignored) {
+                // failing listener must not break the polling
+            }
+        }
+    }
+
+    /**
+     * Stop polling. Results which are not finished yet will never be completed, the journaled ones stay
+     * in the {@link TaskJournal} to be resumed.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        transferExecutor.shutdownNow();
+    }
+
+    boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * Scheduler shared by services constructed without an explicit scheduler.
+     *
+     * @return shared scheduler
+     */
+    static PollScheduler getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    private static class DefaultHolder {
+        private static final GoodDataSettings SETTINGS = new GoodDataSettings();
+        private static final PollScheduler INSTANCE =
+                new PollScheduler(SETTINGS.getPollingThreads(), SETTINGS.getPollingPolicy());
+    }
+
+    private static class PollThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+        private final String prefix;
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        private PollThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, prefix + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
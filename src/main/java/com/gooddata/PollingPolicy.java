@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Decides how long to wait between consecutive polls of a {@link PollHandler}.
+ * Implementations are shared by all polls of one {@link GoodData} instance, so they must be thread safe.
+ *
+ * @see GoodDataSettings#setPollingPolicy(PollingPolicy)
+ */
+public interface PollingPolicy {
+
+    /**
+     * Get delay before the next poll of the given handler.
+     *
+     * @param handler          handler being polled
+     * @param attempts         number of polls already made (0 before the first poll)
+     * @param elapsedMillis    milliseconds elapsed since the polling started
+     * @param retryAfterMillis delay requested by the server using the Retry-After header of the last poll response,
+     *                         or negative value when not requested
+     * @return milliseconds to wait before the next poll
+     */
+    long getDelay(PollHandler<?, ?> handler, int attempts, long elapsedMillis, long retryAfterMillis);
+
+    /**
+     * Notify the policy the polling of the given handler successfully finished.
+     *
+     * @param handler       handler which was polled
+     * @param attempts      number of polls made
+     * @param elapsedMillis milliseconds elapsed since the polling started
+     */
+    void onFinish(PollHandler<?, ?> handler, int attempts, long elapsedMillis);
+}
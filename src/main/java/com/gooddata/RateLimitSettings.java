@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.gooddata.util.Validate.notNull;
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Settings of the client-side rate limiting, see {@link GoodDataSettings#getRateLimit()}.
+ * <p>
+ * Requests of each {@link RequestCategory} with a rate set are smoothed to the given rate by a token bucket, allowing
+ * bursts of up to one second worth of requests. When the platform throttles the requests by
+ * <code>429 Too Many Requests</code>, the rate of the category is halved (down to 1/20 of the set rate) and all its
+ * requests wait for the time given by the <code>Retry-After</code> header. Successful requests then restore the rate
+ * gradually.
+ * <p>
+ * Rate limiting is disabled by default.
+ */
+public class RateLimitSettings {
+
+    private final Map<RequestCategory, Double> rates = new EnumMap<>(RequestCategory.class);
+
+    /**
+     * Set maximum rate of the requests of the given category.
+     *
+     * @param category          request category
+     * @param requestsPerSecond maximum number of requests per second, 0 for no limit
+     */
+    public void setRate(RequestCategory category, double requestsPerSecond) {
+        notNull(category, "category");
+        isTrue(requestsPerSecond >= 0, "requestsPerSecond must be not negative");
+        if (requestsPerSecond == 0) {
+            rates.remove(category);
+        } else {
+            rates.put(category, requestsPerSecond);
+        }
+    }
+
+    /**
+     * Maximum rate of the requests of the given category
+     * @param category request category
+     * @return maximum number of requests per second, 0 if not limited
+     */
+    public double getRate(RequestCategory category) {
+        final Double rate = rates.get(notNull(category, "category"));
+        return rate != null ? rate : 0;
+    }
+
+    /**
+     * Whether rate of any category is limited
+     * @return true if rate limiting is enabled
+     */
+    public boolean isEnabled() {
+        return !rates.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof RateLimitSettings))
+            return false;
+
+        RateLimitSettings that = (RateLimitSettings) o;
+
+        return rates.equals(that.rates);
+    }
+
+    @Override
+    public int hashCode() {
+        return rates.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitSettings{" +
+                "rates=" + rates +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Limits the rate of the requests per {@link RequestCategory}, see {@link RateLimitSettings}.
+ */
+class RateLimiter {
+
+    static final int TOO_MANY_REQUESTS = 429;
+
+    private final Map<RequestCategory, TokenBucket> buckets = new EnumMap<>(RequestCategory.class);
+
+    RateLimiter(final RateLimitSettings settings) {
+        notNull(settings, "settings");
+        for (RequestCategory category : RequestCategory.values()) {
+            buckets.put(category, new TokenBucket(settings.getRate(category)));
+        }
+    }
+
+    /**
+     * Wait until the request of the given category can be executed. The wait is bounded by the {@link Deadline},
+     * the polling threads don't wait at all, the poll is retried by the next poll instead.
+     *
+     * @param category request category
+     * @throws InterruptedIOException    when interrupted while waiting
+     * @throws DeadlineExceededException when the deadline would pass while waiting
+     * @throws PollRetryException        when the poll request would have to wait
+     */
+    void acquire(final RequestCategory category) throws InterruptedIOException {
+        final Deadline deadline = Deadline.current();
+        final boolean polling = AbstractService.isPolling();
+        final long maxWait = polling ? 0
+                : deadline != null ? TimeUnit.MILLISECONDS.toNanos(deadline.getRemainingMillis()) : Long.MAX_VALUE;
+        final long wait = buckets.get(category).reserve(maxWait);
+        if (wait > maxWait) {
+            if (polling) {
+                throw new PollRetryException(TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+            }
+            throw deadline.exceeded();
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for rate limit");
+            }
+        }
+    }
+
+    /**
+     * Adapt the rate of the given category to the response.
+     *
+     * @param category         request category
+     * @param statusCode       HTTP status of the response
+     * @param retryAfterMillis delay requested by the server, negative when not requested
+     */
+    void onResponse(final RequestCategory category, final int statusCode, final long retryAfterMillis) {
+        if (statusCode == TOO_MANY_REQUESTS) {
+            buckets.get(category).throttled(retryAfterMillis);
+        } else {
+            buckets.get(category).succeeded();
+        }
+    }
+
+    double getRate(final RequestCategory category) {
+        return buckets.get(category).getRate();
+    }
+}
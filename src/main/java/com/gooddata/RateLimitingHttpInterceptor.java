@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.InterruptedIOException;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Limits the rate of the data store (user staging) transfers as {@link RequestCategory#STAGING}
+ * using the {@link RateLimiter}.
+ */
+class RateLimitingHttpInterceptor implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    RateLimitingHttpInterceptor(final RateLimiter rateLimiter) {
+        this.rateLimiter = notNull(rateLimiter, "rateLimiter");
+    }
+
+    @Override
+    public void process(final HttpRequest request, final HttpContext context) throws InterruptedIOException {
+        rateLimiter.acquire(RequestCategory.STAGING);
+    }
+
+    @Override
+    public void process(final HttpResponse response, final HttpContext context) {
+        final Header retryAfter = response.getFirstHeader(RetryAfter.HEADER);
+        rateLimiter.onResponse(RequestCategory.STAGING, response.getStatusLine().getStatusCode(),
+                RetryAfter.parseMillis(retryAfter != null ? retryAfter.getValue() : null));
+    }
+}
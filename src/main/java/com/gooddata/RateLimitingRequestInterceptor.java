@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Limits the rate of the API calls executed by the {@link org.springframework.web.client.RestTemplate}
+ * using the {@link RateLimiter}.
+ */
+class RateLimitingRequestInterceptor implements RequestInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    RateLimitingRequestInterceptor(final RateLimiter rateLimiter) {
+        this.rateLimiter = notNull(rateLimiter, "rateLimiter");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final RequestBody body,
+                                        final Execution execution) throws IOException {
+        final RequestCategory category = RequestCategory.of(request.getMethod().name());
+        rateLimiter.acquire(category);
+        final ClientHttpResponse response = execution.execute(request, body);
+        rateLimiter.onResponse(category, response.getRawStatusCode(), RetryAfter.getMillis(response.getHeaders()));
+        return response;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter recording the deserialization of the response bodies as
+ * the {@link FlightRecorderEvent#JSON_DESERIALIZATION} events.
+ */
+class RecordingJacksonHttpMessageConverter extends MappingJacksonHttpMessageConverter {
+
+    @Override
+    protected Object readInternal(final Class<?> clazz, final HttpInputMessage inputMessage) throws IOException {
+        final FlightRecorderEvent event = FlightRecorderEvent.JSON_DESERIALIZATION.begin();
+        try {
+            return super.readInternal(clazz, inputMessage);
+        } finally {
+            event.commit(clazz.getName());
+        }
+    }
+
+    @Override
+    public Object read(final Type type, final Class<?> contextClass, final HttpInputMessage inputMessage)
+            throws IOException {
+        final FlightRecorderEvent event = FlightRecorderEvent.JSON_DESERIALIZATION.begin();
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            event.commit(type.toString());
+        }
+    }
+}
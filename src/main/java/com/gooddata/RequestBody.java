@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.FileEntity;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Body of the request executed by the {@link SpoolingClientHttpRequestFactory}. Small bodies are kept in memory,
+ * the body is spooled to a temporary file once it exceeds the {@link #MEMORY_THRESHOLD}, so the large uploads
+ * (e.g. process archives or exported reports definitions) don't occupy the heap.
+ * <p>
+ * Unlike a stream piped directly to the connection, the spooled body is repeatable, so the request can be sent again
+ * when the authentication token expires or when it's retried.
+ * <p>
+ * The body is written by the SDK, {@link HttpTransport} implementations just read it.
+ */
+public final class RequestBody extends OutputStream {
+
+    static final int MEMORY_THRESHOLD = 64 * 1024;
+
+    private final MemoryBuffer memory = new MemoryBuffer();
+    private File file;
+    private OutputStream fileOutput;
+    private long size;
+
+    RequestBody() {
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        prepare(1).write(b);
+        size++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        prepare(len).write(b, off, len);
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileOutput != null) {
+            fileOutput.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileOutput != null) {
+            fileOutput.close();
+        }
+    }
+
+    /**
+     * Number of bytes written so far
+     * @return body size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Whether the body was spooled to a temporary file
+     * @return true if the body is on disk
+     */
+    boolean isSpooled() {
+        return file != null;
+    }
+
+    /**
+     * Finish writing and create repeatable entity of the written body.
+     *
+     * @return entity sending the body
+     * @throws IOException when the spooled body can't be written
+     */
+    HttpEntity toEntity() throws IOException {
+        close();
+        return file != null ? new FileEntity(file) : new ByteArrayEntity(memory.array(), 0, memory.size());
+    }
+
+    /**
+     * Finish writing and open the stream reading the written body. Can be called repeatedly, each stream reads
+     * the whole body.
+     *
+     * @return stream of the body
+     * @throws IOException when the spooled body can't be read
+     */
+    public InputStream getInputStream() throws IOException {
+        close();
+        return file != null ? new FileInputStream(file) : new ByteArrayInputStream(memory.array(), 0, memory.size());
+    }
+
+    /**
+     * Delete the spooled body, the body can't be sent anymore.
+     */
+    void release() {
+        try {
+            close();
+        } catch (IOException ignored) {
+            // the file is deleted anyway
+        }
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    private OutputStream prepare(final int len) throws IOException {
+        if (fileOutput != null) {
+            return fileOutput;
+        }
+        if (size + len <= MEMORY_THRESHOLD) {
+            return memory;
+        }
+        // the file is deleted by release(), the JVM doesn't track it until exit
+        final File spool = File.createTempFile("gooddata-request", ".tmp");
+        try {
+            fileOutput = new BufferedOutputStream(new FileOutputStream(spool));
+        } catch (IOException | RuntimeException e) {
+            spool.delete();
+            throw e;
+        }
+        file = spool;
+        memory.writeTo(fileOutput);
+        memory.reset();
+        return fileOutput;
+    }
+
+    /**
+     * Exposes the buffer, so the entity doesn't need its copy
+     */
+    private static class MemoryBuffer extends ByteArrayOutputStream {
+        private byte[] array() {
+            return buf;
+        }
+    }
+}
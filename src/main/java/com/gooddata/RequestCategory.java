@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Category of the HTTP requests sharing single rate limit, see {@link RateLimitSettings}.
+ */
+public enum RequestCategory {
+
+    /** reading API calls (GET, HEAD, OPTIONS) like metadata queries, except polls */
+    READ,
+
+    /** modifying API calls (POST, PUT, DELETE) like ETL, export or model update submissions */
+    WRITE,
+
+    /** polls of the asynchronous tasks */
+    POLL,
+
+    /** data store (user staging, WebDAV) transfers like uploads of the data to load */
+    STAGING;
+
+    static RequestCategory of(final String method) {
+        if (AbstractService.isPolling()) {
+            return POLL;
+        }
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) ? READ : WRITE;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Intercepts the requests executed by the {@link SpoolingClientHttpRequestFactory}. Unlike the Spring's
+ * {@link org.springframework.http.client.ClientHttpRequestInterceptor}, it gets the {@link RequestBody}
+ * instead of the body buffered in byte array.
+ */
+interface RequestInterceptor {
+
+    /**
+     * Intercept the given request and return the response, usually obtained from the given execution.
+     *
+     * @param request   the request, containing method, URI, and headers
+     * @param body      the body of the request
+     * @param execution the rest of the interceptor chain
+     * @return the response
+     * @throws IOException in case of I/O errors
+     */
+    ClientHttpResponse intercept(HttpRequest request, RequestBody body, Execution execution) throws IOException;
+
+    /**
+     * The rest of the interceptor chain, can be executed repeatedly.
+     */
+    interface Execution {
+
+        /**
+         * Pass the request to the next interceptor or execute it when there is none.
+         *
+         * @param request the request, containing method, URI, and headers
+         * @param body    the body of the request
+         * @return the response
+         * @throws IOException in case of I/O errors
+         */
+        ClientHttpResponse execute(HttpRequest request, RequestBody body) throws IOException;
+    }
+}
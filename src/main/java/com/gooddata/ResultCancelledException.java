@@ -0,0 +1,19 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Signals the result is not available, because it was cancelled.
+ *
+ * @see ListenableFutureResult#cancel()
+ */
+public class ResultCancelledException extends GoodDataException {
+
+    /**
+     * Construct a ResultCancelledException.
+     */
+    public ResultCancelledException() {
+        super("Result was cancelled");
+    }
+}
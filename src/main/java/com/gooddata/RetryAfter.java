@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.client.utils.DateUtils;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the Retry-After header used by the polling, retrying and rate limiting.
+ */
+abstract class RetryAfter {
+
+    static final String HEADER = "Retry-After";
+
+    /**
+     * Parse the Retry-After header of the response
+     *
+     * @param headers response headers
+     * @return milliseconds to wait or -1 when the header is missing or invalid
+     */
+    static long getMillis(final HttpHeaders headers) {
+        return parseMillis(headers.getFirst(HEADER));
+    }
+
+    /**
+     * Parse the Retry-After header given either as delay seconds or HTTP date
+     *
+     * @param retryAfter header value, may be null
+     * @return milliseconds to wait or -1 when the header is missing or invalid
+     */
+    static long parseMillis(final String retryAfter) {
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            final Date date = DateUtils.parseDate(retryAfter);
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : -1;
+        }
+    }
+}
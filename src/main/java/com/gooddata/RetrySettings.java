@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Settings of retrying of the failed API calls and of the circuit breaker, see {@link GoodDataSettings#getRetry()}.
+ * <p>
+ * Only idempotent requests (GET including polls, PUT, DELETE, HEAD and OPTIONS) failed by an I/O error or by
+ * the <code>502 Bad Gateway</code>, <code>503 Service Unavailable</code>, <code>504 Gateway Timeout</code> or
+ * <code>429 Too Many Requests</code> response are retried. The delay before the retry grows exponentially, but it's
+ * never shorter than the one requested by the <code>Retry-After</code> header; the request is not retried when
+ * the requested delay is longer than the {@link #setMaxBackoff(long) maximum}.
+ * <p>
+ * The circuit breaker counts consecutive failures of all the API calls. When the threshold is reached, the calls fail
+ * fast by {@link CircuitBreakerOpenException} for the given time, then a single call is let through to test whether
+ * the platform is available again.
+ * <p>
+ * Both retrying and the circuit breaker are disabled by default.
+ */
+public class RetrySettings {
+
+    private int maxRetries = 0;
+    private long initialBackoff = 500;
+    private long maxBackoff = 10000;
+    private double backoffMultiplier = 2;
+    private int circuitBreakerThreshold = 0;
+    private long circuitBreakerOpenTime = 30000;
+
+    /**
+     * Set maximum number of retries of single call.
+     *
+     * The default value is 0, calls are not retried.
+     *
+     * @param maxRetries maximum number of retries
+     */
+    public void setMaxRetries(int maxRetries) {
+        isTrue(maxRetries >= 0, "maxRetries must be not negative");
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Maximum number of retries of single call
+     * @return maximum number of retries
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Set milliseconds to wait before the first retry.
+     *
+     * The default value is 500 ms.
+     *
+     * @param initialBackoff delay before the first retry
+     */
+    public void setInitialBackoff(long initialBackoff) {
+        isTrue(initialBackoff >= 0, "initialBackoff must be not negative");
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * Milliseconds to wait before the first retry
+     * @return delay before the first retry
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Set maximum milliseconds to wait before a retry.
+     *
+     * The default value is 10 seconds (10000 ms).
+     *
+     * @param maxBackoff maximum delay before a retry
+     */
+    public void setMaxBackoff(long maxBackoff) {
+        isTrue(maxBackoff >= 0, "maxBackoff must be not negative");
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Maximum milliseconds to wait before a retry
+     * @return maximum delay before a retry
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Set multiplier of the delay for each subsequent retry.
+     *
+     * The default value is 2.
+     *
+     * @param backoffMultiplier delay multiplier
+     */
+    public void setBackoffMultiplier(double backoffMultiplier) {
+        isTrue(backoffMultiplier >= 1, "backoffMultiplier must be at least 1");
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    /**
+     * Multiplier of the delay for each subsequent retry
+     * @return delay multiplier
+     */
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    /**
+     * Set number of consecutive failed calls which opens the circuit breaker.
+     *
+     * The default value is 0, the circuit breaker is disabled.
+     *
+     * @param circuitBreakerThreshold number of failures, 0 to disable the circuit breaker
+     */
+    public void setCircuitBreakerThreshold(int circuitBreakerThreshold) {
+        isTrue(circuitBreakerThreshold >= 0, "circuitBreakerThreshold must be not negative");
+        this.circuitBreakerThreshold = circuitBreakerThreshold;
+    }
+
+    /**
+     * Number of consecutive failed calls which opens the circuit breaker
+     * @return number of failures, 0 if the circuit breaker is disabled
+     */
+    public int getCircuitBreakerThreshold() {
+        return circuitBreakerThreshold;
+    }
+
+    /**
+     * Set milliseconds the open circuit breaker fails the calls before testing the platform again.
+     *
+     * The default value is 30 seconds (30000 ms).
+     *
+     * @param circuitBreakerOpenTime milliseconds the circuit breaker stays open
+     */
+    public void setCircuitBreakerOpenTime(long circuitBreakerOpenTime) {
+        isTrue(circuitBreakerOpenTime > 0, "circuitBreakerOpenTime must be greater than zero");
+        this.circuitBreakerOpenTime = circuitBreakerOpenTime;
+    }
+
+    /**
+     * Milliseconds the open circuit breaker fails the calls
+     * @return milliseconds the circuit breaker stays open
+     */
+    public long getCircuitBreakerOpenTime() {
+        return circuitBreakerOpenTime;
+    }
+
+    /**
+     * Delay before the given retry.
+     *
+     * @param retry number of the retry (1 for the first one)
+     * @return milliseconds to wait
+     */
+    long getBackoff(final int retry) {
+        final double backoff = initialBackoff * Math.pow(backoffMultiplier, retry - 1);
+        return (long) Math.min(backoff, maxBackoff);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof RetrySettings))
+            return false;
+
+        RetrySettings that = (RetrySettings) o;
+
+        if (maxRetries != that.maxRetries)
+            return false;
+        if (initialBackoff != that.initialBackoff)
+            return false;
+        if (maxBackoff != that.maxBackoff)
+            return false;
+        if (Double.compare(that.backoffMultiplier, backoffMultiplier) != 0)
+            return false;
+        if (circuitBreakerThreshold != that.circuitBreakerThreshold)
+            return false;
+        return circuitBreakerOpenTime == that.circuitBreakerOpenTime;
+
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxRetries;
+        result = 31 * result + (int) (initialBackoff ^ (initialBackoff >>> 32));
+        result = 31 * result + (int) (maxBackoff ^ (maxBackoff >>> 32));
+        final long temp = Double.doubleToLongBits(backoffMultiplier);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + circuitBreakerThreshold;
+        result = 31 * result + (int) (circuitBreakerOpenTime ^ (circuitBreakerOpenTime >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RetrySettings{" +
+                "maxRetries=" + maxRetries +
+                ", initialBackoff=" + initialBackoff +
+                ", maxBackoff=" + maxBackoff +
+                ", backoffMultiplier=" + backoffMultiplier +
+                ", circuitBreakerThreshold=" + circuitBreakerThreshold +
+                ", circuitBreakerOpenTime=" + circuitBreakerOpenTime +
+                '}';
+    }
+}
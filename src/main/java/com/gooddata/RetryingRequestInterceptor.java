@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Retries idempotent requests failed by an I/O error, by a gateway error or by the throttling response and guards
+ * all the requests by the {@link CircuitBreaker}, see {@link RetrySettings}.
+ * <p>
+ * The repeated execution passes the rest of the interceptor chain again, the request body is sent again
+ * from the {@link RequestBody}.
+ */
+class RetryingRequestInterceptor implements RequestInterceptor {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS =
+            EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+
+    private final RetrySettings settings;
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * @param settings       retry settings
+     * @param circuitBreaker circuit breaker or null if disabled
+     */
+    RetryingRequestInterceptor(final RetrySettings settings, final CircuitBreaker circuitBreaker) {
+        this.settings = notNull(settings, "settings");
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final RequestBody body,
+                                        final Execution execution) throws IOException {
+        final int maxRetries = IDEMPOTENT_METHODS.contains(request.getMethod()) ? settings.getMaxRetries() : 0;
+        // the poll is retried by the next poll, so its retries are counted across the polls
+        final PollProgress poll = AbstractService.getPollProgress();
+        for (int retry = (poll != null ? poll.getRetries() : 0) + 1; ; retry++) {
+            final boolean trial = circuitBreaker != null && circuitBreaker.acquire();
+            final ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException e) {
+                onFailure();
+                if (retry > maxRetries) {
+                    throw e;
+                }
+                backoff(retry, -1, e);
+                continue;
+            } catch (RuntimeException | Error e) {
+                // the request wasn't sent or answered (e.g. the deadline passed), which tells nothing about the platform
+                if (trial) {
+                    circuitBreaker.release();
+                }
+                throw e;
+            }
+            final int statusCode = response.getRawStatusCode();
+            if (isServerFailure(statusCode)) {
+                onFailure();
+            } else {
+                onSuccess();
+                if (statusCode != RateLimiter.TOO_MANY_REQUESTS) {
+                    return response;
+                }
+            }
+            final long retryAfter = RetryAfter.getMillis(response.getHeaders());
+            if (retry > maxRetries || retryAfter > settings.getMaxBackoff()) {
+                return response;
+            }
+            response.close();
+            backoff(retry, retryAfter, null);
+        }
+    }
+
+    /**
+     * Whether the response signals the platform is failing (counted by the circuit breaker)
+     */
+    static boolean isServerFailure(final int statusCode) {
+        return statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    private void onSuccess() {
+        if (circuitBreaker != null) {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private void onFailure() {
+        if (circuitBreaker != null) {
+            circuitBreaker.onFailure();
+        }
+    }
+
+    /**
+     * Wait before the retry, the delay is randomized to spread the retries of concurrent requests, but it's never
+     * shorter than the delay requested by the server. Fails when the {@link Deadline} would pass meanwhile.
+     * The polling threads don't wait, the poll fails with {@link PollRetryException} to be rescheduled after the delay.
+     */
+    private void backoff(final int retry, final long retryAfter, final IOException cause)
+            throws InterruptedIOException {
+        final long backoff = settings.getBackoff(retry);
+        final long delay = Math.max(retryAfter, backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+        final Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.getRemainingMillis() <= delay) {
+            // the retry wouldn't be made before the deadline anyway
+            throw deadline.exceeded(cause);
+        }
+        if (AbstractService.isPolling()) {
+            throw new PollRetryException(Math.max(delay, 0), cause);
+        }
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting to retry");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * {@link FutureResult} completed explicitly by its producer, e.g. from a callback of another asynchronous operation.
+ * <p>
+ * Only the first call of {@link #set(Object)} or {@link #setException(Throwable)} has an effect.
+ *
+ * @param <T> result type
+ */
+public final class SettableFutureResult<T> extends AbstractFutureResult<T> {
+
+    private final List<Runnable> cancellations = new CopyOnWriteArrayList<>();
+
+    /**
+     * Complete with the given value.
+     *
+     * @param result result value
+     * @return true if this call completed the result, false if it was already completed
+     */
+    public boolean set(final T result) {
+        return complete(result);
+    }
+
+    /**
+     * Complete with the given failure, it is rethrown to the threads waiting for the result.
+     *
+     * @param failure the failure
+     * @return true if this call completed the result, false if it was already completed
+     */
+    public boolean setException(final Throwable failure) {
+        return fail(failure);
+    }
+
+    /**
+     * Cancel the given operation, which this result is produced from, when this result is cancelled.
+     *
+     * @param source operation this result depends on
+     */
+    public void cancelWith(final ListenableFutureResult<?> source) {
+        notNull(source, "source");
+        onCancel(new Runnable() {
+            @Override
+            public void run() {
+                source.cancel();
+            }
+        });
+    }
+
+    /**
+     * Run the given action when this result is cancelled, right away when it has already been cancelled.
+     */
+    void onCancel(final Runnable action) {
+        cancellations.add(notNull(action, "action"));
+        if (isCancelled() && cancellations.remove(action)) {
+            action.run();
+        }
+    }
+
+    @Override
+    void cancelled() {
+        for (Runnable action : cancellations) {
+            if (cancellations.remove(action)) {
+                action.run();
+            }
+        }
+    }
+}
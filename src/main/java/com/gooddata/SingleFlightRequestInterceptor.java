@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Shares single in-flight GET request among the concurrent identical (same URI and Accept header) requests,
+ * see {@link GoodDataSettings#setSingleFlightGets(boolean)}.
+ * <p>
+ * The first request is executed, its JSON response is buffered and each of the requests waiting for it gets its own
+ * copy of the response to deserialize. When the response isn't JSON (e.g. a file download) or the request fails,
+ * the waiting requests are executed on their own.
+ */
+class SingleFlightRequestInterceptor implements RequestInterceptor {
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request, final RequestBody body,
+                                        final Execution execution) throws IOException {
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return execution.execute(request, body);
+        }
+        final String key = request.getURI() + " " + request.getHeaders().getFirst("Accept");
+        final Flight flight = new Flight();
+        final Flight inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            final SharedResponse shared = inFlight.await();
+            return shared != null ? shared.copy() : execution.execute(request, body);
+        }
+
+        SharedResponse shared = null;
+        try {
+            final ClientHttpResponse response = execution.execute(request, body);
+            if (!isJson(response)) {
+                return response;
+            }
+            shared = new SharedResponse(response);
+            return shared.copy();
+        } finally {
+            // requests arriving from now on must not get the already received response
+            flights.remove(key, flight);
+            flight.complete(shared);
+        }
+    }
+
+    private static boolean isJson(final ClientHttpResponse response) {
+        final MediaType contentType = response.getHeaders().getContentType();
+        return contentType != null && MediaType.APPLICATION_JSON.includes(contentType);
+    }
+
+    private static class Flight {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile SharedResponse response;
+
+        private void complete(final SharedResponse response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        /**
+         * @return shared response or null if it's not available
+         */
+        private SharedResponse await() throws InterruptedIOException {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for identical request");
+            }
+            return response;
+        }
+    }
+
+    private static class SharedResponse {
+        private final int statusCode;
+        private final String statusText;
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        private SharedResponse(final ClientHttpResponse response) throws IOException {
+            try {
+                statusCode = response.getRawStatusCode();
+                statusText = response.getStatusText();
+                headers = response.getHeaders();
+                final InputStream content = response.getBody();
+                body = content != null ? FileCopyUtils.copyToByteArray(content) : new byte[0];
+            } finally {
+                response.close();
+            }
+        }
+
+        private ClientHttpResponse copy() {
+            final HttpHeaders copiedHeaders = new HttpHeaders();
+            copiedHeaders.putAll(headers);
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatus getStatusCode() {
+                    return HttpStatus.valueOf(statusCode);
+                }
+
+                @Override
+                public int getRawStatusCode() {
+                    return statusCode;
+                }
+
+                @Override
+                public String getStatusText() {
+                    return statusText;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return copiedHeaders;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(body);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
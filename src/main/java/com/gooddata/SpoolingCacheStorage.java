@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.ManagedHttpCacheStorage;
+
+import java.io.IOException;
+
+/**
+ * HTTP cache storage of single {@link GoodData} instance whose response bodies are spooled to files
+ * (see {@link CacheSettings#setDirectory}). The cache isn't persistent: the files of the evicted entries are deleted
+ * by the next store and all the files are deleted by {@link #shutdown()}.
+ */
+class SpoolingCacheStorage extends ManagedHttpCacheStorage {
+
+    SpoolingCacheStorage(final CacheConfig config) {
+        super(config);
+    }
+
+    @Override
+    public void putEntry(final String url, final HttpCacheEntry entry) throws IOException {
+        cleanResources();
+        super.putEntry(url, entry);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * {@link ClientHttpRequestFactory} executing the requests by the {@link HttpTransport} through the chain of
+ * {@link RequestInterceptor}s.
+ * <p>
+ * Replaces the Spring's <code>HttpComponentsClientHttpRequestFactory</code> and the interceptors of
+ * the {@link org.springframework.web.client.RestTemplate}, which both buffer the whole request body in memory,
+ * some bodies even several times. The body written by the message converter is kept in the {@link RequestBody}
+ * instead, which spools the large bodies to a temporary file and sends them from there.
+ */
+class SpoolingClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpTransport transport;
+    private final List<RequestInterceptor> interceptors;
+
+    SpoolingClientHttpRequestFactory(final HttpTransport transport, final List<RequestInterceptor> interceptors) {
+        this.transport = notNull(transport, "transport");
+        this.interceptors = new ArrayList<>(notNull(interceptors, "interceptors"));
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(final URI uri, final HttpMethod httpMethod) throws IOException {
+        return new SpoolingClientHttpRequest(uri, httpMethod);
+    }
+
+    private class SpoolingClientHttpRequest extends AbstractClientHttpRequest {
+        private final URI uri;
+        private final HttpMethod method;
+        private final RequestBody body = new RequestBody();
+
+        private SpoolingClientHttpRequest(final URI uri, final HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(final HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(final HttpHeaders headers) throws IOException {
+            try {
+                return new ChainExecution(0).execute(this, body);
+            } finally {
+                // the response doesn't need the request body anymore
+                body.release();
+            }
+        }
+    }
+
+    /**
+     * Position in the interceptor chain, immutable so the rest of the chain can be executed repeatedly
+     */
+    private class ChainExecution implements RequestInterceptor.Execution {
+        private final int index;
+
+        private ChainExecution(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public ClientHttpResponse execute(final HttpRequest request, final RequestBody body) throws IOException {
+            if (index < interceptors.size()) {
+                return interceptors.get(index).intercept(request, body, new ChainExecution(index + 1));
+            }
+            return transport.execute(request, body);
+        }
+    }
+}
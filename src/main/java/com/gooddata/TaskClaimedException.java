@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+/**
+ * Signals the journaled task can't be resumed, because it's being polled by another result (of this or another
+ * process sharing the journal) or it has already been finished.
+ *
+ * @see TaskJournal
+ */
+public class TaskClaimedException extends GoodDataException {
+
+    private final JournaledTask task;
+
+    /**
+     * Construct a TaskClaimedException.
+     *
+     * @param task the task which can't be resumed
+     */
+    public TaskClaimedException(final JournaledTask task) {
+        super("Task " + task.getId() + " is polled by another result or finished already");
+        this.task = task;
+    }
+
+    /**
+     * The task which can't be resumed
+     * @return task
+     */
+    public JournaledTask getTask() {
+        return task;
+    }
+}
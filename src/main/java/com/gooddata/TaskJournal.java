@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.gooddata.util.Validate.notNull;
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Journal of the tasks polled by the services of single user, see {@link GoodDataSettings#setTaskJournalDirectory}.
+ * <p>
+ * Each task is stored in its own file, which is written when the polling starts (and its URI changes) and deleted
+ * when the result is completed, failed or cancelled. The tasks whose polling was interrupted (e.g. by restart
+ * of the JVM) stay in the journal and can be resumed by {@link GoodData#resumeTasks()}.
+ * <p>
+ * The task being polled is claimed by the lock of its own lock file, held until the polling ends, so it isn't
+ * resumed twice by this or another process sharing the directory. The lock of the crashed process is released
+ * by the operating system.
+ */
+public class TaskJournal {
+
+    private static final String SUFFIX = ".task";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    /**
+     * Claims of all the journals in this JVM by their lock files, as the file can be locked just once per JVM
+     */
+    private static final Map<File, Claim> CLAIMS = new HashMap<>();
+
+    private final File directory;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * @param directory existing directory the tasks are stored in
+     */
+    public TaskJournal(final File directory) {
+        notNull(directory, "directory");
+        isTrue(directory.isDirectory(), "directory must be an existing directory");
+        this.directory = directory;
+    }
+
+    /**
+     * Directory the tasks are stored in
+     * @return directory
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the journaled tasks, the oldest first, including those being polled at the moment. Files which can't be
+     * read are skipped.
+     *
+     * @return journaled tasks
+     */
+    public List<JournaledTask> getTasks() {
+        final File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(final File file) {
+                return file.isFile() && file.getName().endsWith(SUFFIX);
+            }
+        });
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(final File f1, final File f2) {
+                return Long.compare(f1.lastModified(), f2.lastModified());
+            }
+        });
+        final List<JournaledTask> tasks = new ArrayList<>(files.length);
+        for (File file : files) {
+            try {
+                tasks.add(mapper.readValue(file, JournaledTask.class));
+            } catch (IOException | RuntimeException ignored) {
+                // not a task written by this journal or a partially written one
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Claim the task for polling by the caller. The resumed task can't be claimed when it's claimed already
+     * or when it has been finished meanwhile (it's no more journaled). The claim of the result whose scheduler
+     * has been shut down is taken over, as that result never finishes the task. The task which can't be locked
+     * (e.g. due to the missing permissions) is claimed without the lock.
+     *
+     * @param task      task to claim
+     * @param scheduler scheduler polling the task
+     * @return true if the task has been claimed, false if it mustn't be polled
+     */
+    boolean claim(final JournaledTask task, final PollScheduler scheduler) {
+        notNull(task, "task");
+        notNull(scheduler, "scheduler");
+        final File lockFile = getLockFile(task);
+        synchronized (CLAIMS) {
+            final Claim existing = CLAIMS.get(lockFile);
+            if (existing != null) {
+                if (!existing.scheduler.isShutdown()) {
+                    return false;
+                }
+                CLAIMS.remove(lockFile);
+                close(existing.lock);
+            }
+            final FileLock lock;
+            try {
+                lock = lock(lockFile);
+            } catch (IOException ignored) {
+                // the task is just not guarded against the polling by another process
+                return true;
+            }
+            if (lock == null) {
+                return false;
+            }
+            final File file = getFile(task);
+            if (task.isRecorded() && !(file.isFile() && file.length() > 0)) {
+                // finished by the previous claimant, the lock file created again is not needed
+                lockFile.delete();
+                close(lock);
+                return false;
+            }
+            CLAIMS.put(lockFile, new Claim(lock, scheduler));
+            return true;
+        }
+    }
+
+    /**
+     * Release the claim of the task whose polling was interrupted, it stays journaled.
+     *
+     * @param task claimed task
+     */
+    void release(final JournaledTask task) {
+        notNull(task, "task");
+        synchronized (CLAIMS) {
+            final Claim claim = CLAIMS.remove(getLockFile(task));
+            if (claim != null) {
+                close(claim.lock);
+            }
+        }
+    }
+
+    /**
+     * @return lock or null if the file is locked by another process
+     */
+    private static FileLock lock(final File file) throws IOException {
+        final FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            final FileLock lock = channel.tryLock();
+            if (lock == null) {
+                channel.close();
+            }
+            return lock;
+        } catch (OverlappingFileLockException e) {
+            // locked by the journal of another directory path in this JVM
+            channel.close();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void close(final FileLock lock) {
+        try {
+            lock.channel().close();
+        } catch (IOException ignored) {
+            // the lock is released anyway
+        }
+    }
+
+    /**
+     * Store the task, replacing the previously stored one with the same id. The task which can't be stored is just
+     * not resumed.
+     *
+     * @param task task to store
+     */
+    void record(final JournaledTask task) {
+        notNull(task, "task");
+        try {
+            final File tmp = File.createTempFile("gooddata-task", ".tmp", directory);
+            try {
+                mapper.writeValue(tmp, task);
+                final File file = getFile(task);
+                if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+                    tmp.delete();
+                }
+            } catch (IOException | RuntimeException e) {
+                tmp.delete();
+            }
+        } catch (IOException ignored) {
+            // the polling continues, the task is just not resumable
+        }
+    }
+
+    /**
+     * Remove the task from the journal and release its claim. The file which can't be deleted is emptied, so it's
+     * skipped by {@link #getTasks()}.
+     *
+     * @param task task to remove
+     */
+    void remove(final JournaledTask task) {
+        notNull(task, "task");
+        final File file = getFile(task);
+        if (file.isFile() && !file.delete()) {
+            truncate(file);
+        }
+        final File lockFile = getLockFile(task);
+        synchronized (CLAIMS) {
+            final Claim claim = CLAIMS.remove(lockFile);
+            if (claim != null) {
+                // deleted while locked, whoever locks it afterwards finds the task finished
+                lockFile.delete();
+                close(claim.lock);
+            }
+        }
+    }
+
+    private static void truncate(final File file) {
+        try {
+            new FileOutputStream(file).close();
+        } catch (IOException ignored) {
+            // nothing else to do
+        }
+    }
+
+    private File getFile(final JournaledTask task) {
+        return new File(directory, task.getId() + SUFFIX);
+    }
+
+    private File getLockFile(final JournaledTask task) {
+        return new File(directory, task.getId() + LOCK_SUFFIX).getAbsoluteFile();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskJournal{" +
+                "directory=" + directory +
+                '}';
+    }
+
+    private static class Claim {
+        private final FileLock lock;
+        private final PollScheduler scheduler;
+
+        private Claim(final FileLock lock, final PollScheduler scheduler) {
+            this.lock = lock;
+            this.scheduler = scheduler;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.Assert.isTrue;
+
+/**
+ * Token bucket smoothing the requests to the rate which adapts to the throttling by the server.
+ * <p>
+ * Tokens are reserved ahead, so the waiting threads are released one by one in the pace of the rate. The rate is
+ * decreased multiplicatively when the request is throttled and increased additively by the successful requests.
+ */
+class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double MIN_RATE_FACTOR = 0.05;
+    private static final double INCREASE_FACTOR = 0.02;
+    private static final long MAX_PAUSE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final double maxRate;
+
+    private double rate;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = refilledAt;
+
+    /**
+     * @param maxRate maximum number of requests per second, 0 for no limit (only the Retry-After is respected)
+     */
+    TokenBucket(final double maxRate) {
+        isTrue(maxRate >= 0, "maxRate must be not negative");
+        this.maxRate = maxRate;
+        this.rate = maxRate;
+        this.tokens = capacity();
+    }
+
+    /**
+     * Reserve the token for the request, unless the request would have to wait longer than acceptable.
+     *
+     * @param maxWaitNanos longest acceptable wait
+     * @return nanoseconds the request has to wait, the token is not reserved when it's more than acceptable
+     */
+    synchronized long reserve(final long maxWaitNanos) {
+        final long now = System.nanoTime();
+        long tokenWait = 0;
+        if (maxRate > 0) {
+            tokens = Math.min(capacity(), tokens + (now - refilledAt) * rate / NANOS_PER_SECOND);
+            refilledAt = now;
+            if (tokens < 1) {
+                tokenWait = (long) ((1 - tokens) * NANOS_PER_SECOND / rate);
+            }
+        }
+        final long wait = Math.max(tokenWait, pausedUntil - now);
+        if (wait <= maxWaitNanos && maxRate > 0) {
+            tokens -= 1;
+        }
+        return wait;
+    }
+
+    /**
+     * Slow down after the request was throttled. The requests are paused for the delay requested by the server,
+     * but at most for a minute.
+     *
+     * @param retryAfterMillis delay requested by the server, negative when not requested
+     */
+    synchronized void throttled(final long retryAfterMillis) {
+        rate = Math.max(maxRate * MIN_RATE_FACTOR, rate * DECREASE_FACTOR);
+        if (retryAfterMillis > 0) {
+            final long pause = Math.min(retryAfterMillis, MAX_PAUSE_MILLIS);
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pause));
+        }
+    }
+
+    /**
+     * Speed up after the request was not throttled.
+     */
+    synchronized void succeeded() {
+        if (rate < maxRate) {
+            rate = Math.min(maxRate, rate + maxRate * INCREASE_FACTOR);
+        }
+    }
+
+    synchronized double getRate() {
+        return rate;
+    }
+
+    private double capacity() {
+        return Math.max(1, rate);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.http.client.GoodDataAuthException;
+import com.gooddata.http.client.SSTRetrievalStrategy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.ref.WeakReference;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.gooddata.AuthenticatingRequestInterceptor.TOKEN_URL;
+import static com.gooddata.AuthenticatingRequestInterceptor.TT_COOKIE_NAME;
+import static com.gooddata.http.client.CookieUtils.SST_COOKIE_NAME;
+import static com.gooddata.util.Validate.notEmpty;
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Holds the SST and TT of single user, see {@link AuthenticationSettings}.
+ * <p>
+ * Concurrent refreshes are coalesced into single one. When the refresh ahead is set, the TT is refreshed before
+ * it expires by single daemon thread shared by all the managers, which is started on demand and released when there
+ * is nothing to refresh. The managers are referenced weakly, the refresh stops when the manager is garbage collected.
+ */
+class TokenManager {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "gooddata-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        EXECUTOR.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        EXECUTOR.allowCoreThreadTimeOut(true);
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    private final HttpTransport transport;
+    private final SSTRetrievalStrategy sstStrategy;
+    private final URI tokenUri;
+    private final long refreshAhead;
+    private final long tokenLifetime;
+    private final File sstFile;
+
+    private final Object refreshLock = new Object();
+    private volatile String tt;
+    private volatile long ttExpiration;
+    private String sst;
+    private ScheduledFuture<?> scheduledRefresh;
+    private boolean closed;
+
+    /**
+     * @param transport   transport used to refresh TT
+     * @param sstStrategy strategy used to obtain SST
+     * @param host        GoodData Platform's API URI (just the scheme, host and port are used)
+     * @param login       GoodData user's login, distinguishes the stored SST
+     * @param settings    authentication settings
+     */
+    TokenManager(final HttpTransport transport, final SSTRetrievalStrategy sstStrategy, final URI host,
+                 final String login, final AuthenticationSettings settings) {
+        this.transport = notNull(transport, "transport");
+        this.sstStrategy = notNull(sstStrategy, "sstStrategy");
+        this.tokenUri = notNull(host, "host").resolve(TOKEN_URL);
+        notEmpty(login, "login");
+        notNull(settings, "settings");
+        this.refreshAhead = settings.getTokenRefreshAhead();
+        this.tokenLifetime = settings.getTokenLifetime();
+        this.sstFile = settings.getSstDirectory() != null
+                ? new File(settings.getSstDirectory(), getUserKey(host, login) + ".sst")
+                : null;
+        this.sst = readSst(sstFile);
+    }
+
+    /**
+     * Current TT
+     * @return TT or null if it wasn't obtained yet
+     */
+    String getTt() {
+        return tt;
+    }
+
+    /**
+     * Whether the TT should be refreshed before sending a request, instead of waiting for the request being refused.
+     * @return true if the TT is refreshed ahead and it's missing or expired
+     */
+    boolean isTtExpired() {
+        return refreshAhead > 0 && (tt == null || System.currentTimeMillis() >= ttExpiration);
+    }
+
+    /**
+     * Refresh TT unless it was already refreshed since the given TT was used.
+     *
+     * @param usedTt     TT the refused request was sent with
+     * @param sstExpired true if the API refused the SST as well
+     * @throws IOException when the tokens can't be obtained
+     */
+    void refresh(final String usedTt, final boolean sstExpired) throws IOException {
+        synchronized (refreshLock) {
+            if (tt != null && !tt.equals(usedTt)) {
+                return;
+            }
+            if (!sstExpired && sst != null && refreshTt()) {
+                return;
+            }
+            sst = sstStrategy.obtainSst();
+            writeSst(sstFile, sst);
+            if (!refreshTt()) {
+                throw new GoodDataAuthException("Unable to obtain TT after successfully obtained SST");
+            }
+        }
+    }
+
+    /**
+     * Stop refreshing the tokens and remove the stored SST, called when the user logs out.
+     */
+    void close() {
+        synchronized (refreshLock) {
+            closed = true;
+            if (scheduledRefresh != null) {
+                scheduledRefresh.cancel(false);
+            }
+            if (sstFile != null && sstFile.isFile() && !sstFile.delete()) {
+                // at least don't leave the SST behind, the empty file isn't read
+                try {
+                    new FileOutputStream(sstFile).close();
+                } catch (IOException ignored) {
+                    // the SST expires eventually
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if TT was obtained, false if the SST was refused
+     */
+    private boolean refreshTt() throws IOException {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set("Accept", "application/json");
+        final HttpRequest tokenRequest = AuthenticatingRequestInterceptor.withCookie(
+                new AuthenticatingRequestInterceptor.SimpleRequest(HttpMethod.GET, tokenUri, headers),
+                SST_COOKIE_NAME, sst);
+        final ClientHttpResponse response = transport.execute(tokenRequest, new RequestBody());
+        try {
+            final int statusCode = response.getRawStatusCode();
+            if (statusCode == 401) {
+                return false;
+            }
+            final HttpCookie token = statusCode == 200
+                    ? AuthenticatingRequestInterceptor.getHttpCookie(response.getHeaders(), TT_COOKIE_NAME) : null;
+            if (token == null) {
+                throw new GoodDataAuthException("Unable to obtain TT: " + statusCode);
+            }
+            final long lifetime = token.getMaxAge() > 0 ? TimeUnit.SECONDS.toMillis(token.getMaxAge()) : tokenLifetime;
+            ttExpiration = System.currentTimeMillis() + lifetime;
+            tt = token.getValue();
+            scheduleRefresh(lifetime);
+            return true;
+        } finally {
+            response.close();
+        }
+    }
+
+    private void scheduleRefresh(final long lifetime) {
+        if (refreshAhead <= 0 || closed) {
+            return;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        // token living shorter than the refresh ahead is refreshed in the middle of its lifetime
+        final long delay = lifetime > refreshAhead ? lifetime - refreshAhead : lifetime / 2;
+        final WeakReference<TokenManager> reference = new WeakReference<>(this);
+        final String refreshedTt = tt;
+        scheduledRefresh = EXECUTOR.schedule(new Runnable() {
+            @Override
+            public void run() {
+                final TokenManager manager = reference.get();
+                if (manager == null) {
+                    return;
+                }
+                try {
+                    manager.refresh(refreshedTt, false);
+                } catch (IOException | RuntimeException ignored) {
+                    // the requests refused when the TT expires refresh it again
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Key of the user's files, which doesn't reveal the login
+     *
+     * @param host  GoodData Platform's API URI (just the scheme, host and port are used)
+     * @param login GoodData user's login
+     * @return hex digest of the host and login
+     */
+    static String getUserKey(final URI host, final String login) {
+        final String key = host.getScheme() + "://" + host.getHost() + ":" + host.getPort() + " " + login;
+        return DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return stored SST or null if there is none or it can't be read
+     */
+    private static String readSst(final File file) {
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        try {
+            final String sst = FileCopyUtils.copyToString(
+                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)).trim();
+            return sst.isEmpty() ? null : sst;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Store the SST readable just by the owner. The SST which can't be stored is just not reused.
+     */
+    private static void writeSst(final File file, final String sst) {
+        if (file == null) {
+            return;
+        }
+        try {
+            final File tmp = File.createTempFile("gooddata-sst", ".tmp", file.getParentFile());
+            tmp.setReadable(false, false);
+            tmp.setReadable(true, true);
+            tmp.setWritable(false, false);
+            tmp.setWritable(true, true);
+            try {
+                FileCopyUtils.copy(sst, new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                tmp.delete();
+                throw e;
+            }
+            if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+                tmp.delete();
+            }
+        } catch (IOException ignored) {
+            // the user logs in again next time
+        }
+    }
+}
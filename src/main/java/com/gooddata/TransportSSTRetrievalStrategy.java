@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.http.client.GoodDataAuthException;
+import com.gooddata.http.client.SSTRetrievalStrategy;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.gooddata.http.client.CookieUtils.SST_COOKIE_NAME;
+import static com.gooddata.util.Validate.notEmpty;
+import static com.gooddata.util.Validate.notNull;
+import static java.util.Collections.singletonMap;
+
+/**
+ * Obtains SST by the login using credentials, the same way as the
+ * {@link com.gooddata.http.client.LoginSSTRetrievalStrategy}, but the login request is sent by the
+ * {@link HttpTransport}.
+ */
+class TransportSSTRetrievalStrategy implements SSTRetrievalStrategy {
+
+    static final String LOGIN_URL = "/gdc/account/login";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpTransport transport;
+    private final URI loginUri;
+    private final String login;
+    private final String password;
+
+    /**
+     * @param transport transport sending the login request
+     * @param host      GoodData Platform's API URI (just the scheme, host and port are used)
+     * @param login     GoodData user's login
+     * @param password  GoodData user's password
+     */
+    TransportSSTRetrievalStrategy(final HttpTransport transport, final URI host, final String login,
+                                  final String password) {
+        this.transport = notNull(transport, "transport");
+        this.loginUri = notNull(host, "host").resolve(LOGIN_URL);
+        this.login = notEmpty(login, "login");
+        this.password = notEmpty(password, "password");
+    }
+
+    @Override
+    public String obtainSst() throws IOException {
+        final Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("login", login);
+        credentials.put("password", password);
+        credentials.put("remember", 0);
+        final RequestBody body = new RequestBody();
+        try {
+            MAPPER.writeValue(body, singletonMap("postUserLogin", credentials));
+            final HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("Accept", "application/json");
+            final ClientHttpResponse response = transport.execute(
+                    new AuthenticatingRequestInterceptor.SimpleRequest(HttpMethod.POST, loginUri, headers), body);
+            try {
+                final int statusCode = response.getRawStatusCode();
+                if (statusCode != 200) {
+                    throw new GoodDataAuthException("Unable to login: " + statusCode);
+                }
+                final String sst = AuthenticatingRequestInterceptor.getCookie(response.getHeaders(), SST_COOKIE_NAME);
+                if (sst == null) {
+                    throw new GoodDataAuthException("Unable to login. Missing SST Set-Cookie header.");
+                }
+                return sst;
+            } finally {
+                response.close();
+            }
+        } finally {
+            body.release();
+        }
+    }
+}
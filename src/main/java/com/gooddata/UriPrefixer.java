@@ -18,6 +18,11 @@ import static org.springframework.util.StringUtils.trimTrailingCharacter;
 public class UriPrefixer {
 
     private final URI uriPrefix;
+    /**
+     * Merged form of the prefix ready to be concatenated with the path or null when the prefix contains parts
+     * which the fast path doesn't handle
+     */
+    private final String prefix;
 
     /**
      * Construct URI prefixer using given URI prefix (just hostname and port is used)
@@ -26,6 +31,8 @@ public class UriPrefixer {
      */
     public UriPrefixer(URI uriPrefix) {
         this.uriPrefix = notNull(uriPrefix, "uriPrefix");
+        this.prefix = uriPrefix.getRawQuery() == null && uriPrefix.getRawFragment() == null
+                ? build(uriPrefix, "", null, null).toString() : null;
     }
 
     /**
@@ -54,12 +61,35 @@ public class UriPrefixer {
      */
     public URI mergeUris(URI uri) {
         notNull(uri, "uri");
-        final String path = trimTrailingCharacter(trimLeadingCharacter(uri.getRawPath(), '/'), '/');
-        return UriComponentsBuilder.fromUri(uriPrefix)
-                .pathSegment(path)
-                .query(uri.getRawQuery())
-                .fragment(uri.getRawFragment())
-                .build().toUri();
+        final String rawPath = uri.getRawPath();
+        final String query = uri.getRawQuery();
+        final String fragment = uri.getRawFragment();
+        if (prefix == null || rawPath == null || !isPlain(rawPath) || !isPlain(query) || !isPlain(fragment)) {
+            final String path = trimTrailingCharacter(trimLeadingCharacter(rawPath, '/'), '/');
+            return build(uriPrefix, path, query, fragment);
+        }
+        // fast path concatenating the parts already valid, gives the same result as the builder
+        int start = 0;
+        int end = rawPath.length();
+        while (start < end && rawPath.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && rawPath.charAt(end - 1) == '/') {
+            end--;
+        }
+        final StringBuilder merged = new StringBuilder(prefix.length() + rawPath.length()
+                + (query != null ? query.length() + 1 : 0) + (fragment != null ? fragment.length() + 1 : 0) + 1);
+        merged.append(prefix);
+        if (start < end) {
+            merged.append('/').append(rawPath, start, end);
+        }
+        if (query != null) {
+            merged.append('?').append(query);
+        }
+        if (fragment != null) {
+            merged.append('#').append(fragment);
+        }
+        return URI.create(merged.toString());
     }
 
     /**
@@ -72,4 +102,20 @@ public class UriPrefixer {
         notEmpty(uri, "uri");
         return mergeUris(URI.create(uri));
     }
+
+    private static URI build(final URI uriPrefix, final String path, final String query, final String fragment) {
+        return UriComponentsBuilder.fromUri(uriPrefix)
+                .pathSegment(path)
+                .query(query)
+                .fragment(fragment)
+                .build().toUri();
+    }
+
+    /**
+     * Whether the URI part is passed by the builder unchanged - the builder quotes the escaped octets again
+     * and may drop the empty parts.
+     */
+    private static boolean isPlain(final String part) {
+        return part == null || (!part.isEmpty() && part.indexOf('%') < 0);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link RestTemplate} remembering the URI template of the currently executed request, so it's available to
+ * the {@link MetricsRequestInterceptor} which gets the already expanded URI only.
+ * <p>
+ * The parsed URI templates are cached, unlike the {@link RestTemplate} which parses the template on every call.
+ * Only the templates expanded with some variables are cached, as those are the constants like
+ * {@link com.gooddata.md.Obj#OBJ_URI}, the already expanded URIs would just fill the cache.
+ */
+class UriTemplateRestTemplate extends RestTemplate {
+
+    private static final ThreadLocal<String> URI_TEMPLATE = new ThreadLocal<>();
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
+    private final ConcurrentMap<String, UriTemplate> templates = new ConcurrentHashMap<>();
+
+    UriTemplateRestTemplate(final ClientHttpRequestFactory requestFactory) {
+        super(requestFactory);
+    }
+
+    /**
+     * URI template of the request executed by the current thread.
+     *
+     * @return URI template or null if the request was executed with already expanded URI
+     */
+    static String currentUriTemplate() {
+        return URI_TEMPLATE.get();
+    }
+
+    @Override
+    public <T> T execute(final String url, final HttpMethod method, final RequestCallback requestCallback,
+                         final ResponseExtractor<T> responseExtractor, final Object... urlVariables)
+            throws RestClientException {
+        final String previous = URI_TEMPLATE.get();
+        final boolean template = urlVariables != null && urlVariables.length > 0;
+        URI_TEMPLATE.set(template ? url : null);
+        try {
+            return doExecute(getUriTemplate(url, template).expand(urlVariables), method, requestCallback,
+                    responseExtractor);
+        } finally {
+            restore(previous);
+        }
+    }
+
+    @Override
+    public <T> T execute(final String url, final HttpMethod method, final RequestCallback requestCallback,
+                         final ResponseExtractor<T> responseExtractor, final Map<String, ?> urlVariables)
+            throws RestClientException {
+        final String previous = URI_TEMPLATE.get();
+        final boolean template = urlVariables != null && !urlVariables.isEmpty();
+        URI_TEMPLATE.set(template ? url : null);
+        try {
+            return doExecute(getUriTemplate(url, template).expand(urlVariables), method, requestCallback,
+                    responseExtractor);
+        } finally {
+            restore(previous);
+        }
+    }
+
+    private UriTemplate getUriTemplate(final String url, final boolean cache) {
+        UriTemplate template = templates.get(url);
+        if (template == null) {
+            template = new UriTemplate(url);
+            if (cache && templates.size() < MAX_CACHED_TEMPLATES) {
+                templates.putIfAbsent(url, template);
+            }
+        }
+        return template;
+    }
+
+    private static void restore(final String previous) {
+        if (previous == null) {
+            URI_TEMPLATE.remove();
+        } else {
+            URI_TEMPLATE.set(previous);
+        }
+    }
+}
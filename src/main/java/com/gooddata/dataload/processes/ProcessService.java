@@ -4,8 +4,10 @@ import com.gooddata.AbstractPollHandler;
 import com.gooddata.AbstractService;
 import com.gooddata.FutureResult;
 import com.gooddata.PollResult;
+import com.gooddata.PollScheduler;
 import com.gooddata.GoodDataException;
 import com.gooddata.GoodDataRestException;
+import com.gooddata.JournaledTask;
 import com.gooddata.account.AccountService;
 import com.gooddata.collections.Page;
 import com.gooddata.collections.PageableList;
@@ -34,16 +36,23 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collection;
+import java.util.Collections;
 
 import static com.gooddata.util.Validate.notEmpty;
 import static com.gooddata.util.Validate.notNull;
 import static java.util.Collections.emptyList;
+import static org.springframework.util.Assert.isTrue;
 
 /**
  * Service to manage dataload processes and process executions.
  */
 public class ProcessService extends AbstractService {
 
+    /**
+     * Type of the journaled process execution, see {@link #resumeExecution(JournaledTask)}
+     */
+    public static final String EXECUTION_TASK = "process.execution";
+
     private static final MediaType MEDIA_TYPE_ZIP = MediaType.parseMediaType("application/zip");
     private static final long MAX_MULTIPART_SIZE = 1024 * 1024;
 
@@ -63,6 +72,20 @@ public class ProcessService extends AbstractService {
         this.accountService = notNull(accountService, "accountService");
     }
 
+    /**
+     * Sets RESTful HTTP Spring template and scheduler driving the polling.
+     * @param restTemplate RESTful HTTP Spring template
+     * @param accountService service to access accounts
+     * @param dataStoreService service for upload process data
+     * @param pollScheduler scheduler driving the polling
+     */
+    public ProcessService(RestTemplate restTemplate, AccountService accountService, DataStoreService dataStoreService,
+                          PollScheduler pollScheduler) {
+        super(restTemplate, pollScheduler);
+        this.dataStoreService = dataStoreService;
+        this.accountService = notNull(accountService, "accountService");
+    }
+
     /**
      * Create new process with given data by given project.
      *
@@ -229,8 +252,27 @@ public class ProcessService extends AbstractService {
         }
 
         final String detailLink = executionTask.getDetailLink();
+        return pollExecution(executionTask.getPollLink(), detailLink, new JournaledTask(EXECUTION_TASK,
+                executionTask.getPollLink(), Collections.singletonMap("detailLink", detailLink)));
+    }
+
+    /**
+     * Resumes polling of the execution journaled before the JVM restart, see
+     * {@link com.gooddata.GoodDataSettings#setTaskJournalDirectory(File)}.
+     *
+     * @param task journaled task of the {@link #EXECUTION_TASK} type
+     * @return result of the execution
+     * @throws com.gooddata.TaskClaimedException when the task is polled by another result or finished already
+     */
+    public FutureResult<ProcessExecutionDetail> resumeExecution(JournaledTask task) {
+        notNull(task, "task");
+        isTrue(EXECUTION_TASK.equals(task.getType()), "task must be of type " + EXECUTION_TASK);
+        return pollExecution(task.getPollingUri(), task.getContext("detailLink"), task);
+    }
 
-        return new PollResult<>(this, new AbstractPollHandler<Void, ProcessExecutionDetail>(executionTask.getPollLink(), Void.class, ProcessExecutionDetail.class) {
+    private FutureResult<ProcessExecutionDetail> pollExecution(final String pollLink, final String detailLink,
+                                                               final JournaledTask task) {
+        return new PollResult<>(this, new AbstractPollHandler<Void, ProcessExecutionDetail>(pollLink, Void.class, ProcessExecutionDetail.class) {
             @Override
             public boolean isFinished(ClientHttpResponse response) throws IOException {
                 return HttpStatus.NO_CONTENT.equals(response.getStatusCode());
@@ -263,7 +305,7 @@ public class ProcessService extends AbstractService {
                 }
             }
 
-        });
+        }, task);
     }
 
     /**
@@ -7,9 +7,10 @@ import com.gooddata.AbstractPollHandler;
 import com.gooddata.AbstractService;
 import com.gooddata.FutureResult;
 import com.gooddata.PollResult;
+import com.gooddata.PollScheduler;
 import com.gooddata.GoodDataException;
 import com.gooddata.GoodDataRestException;
-import com.gooddata.SimplePollHandler;
+import com.gooddata.JournaledTask;
 import com.gooddata.gdc.DataStoreException;
 import com.gooddata.gdc.DataStoreService;
 import com.gooddata.gdc.TaskStatus;
@@ -27,7 +28,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.gooddata.util.Validate.notEmpty;
 import static com.gooddata.util.Validate.notNull;
@@ -35,6 +38,8 @@ import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static org.springframework.util.Assert.isTrue;
+import static org.springframework.util.StringUtils.collectionToCommaDelimitedString;
 import static org.springframework.util.StringUtils.isEmpty;
 
 /**
@@ -42,6 +47,11 @@ import static org.springframework.util.StringUtils.isEmpty;
  */
 public class DatasetService extends AbstractService {
 
+    /**
+     * Type of the journaled dataset load, see {@link #resumeLoad(JournaledTask)}
+     */
+    public static final String LOAD_TASK = "dataset.load";
+
     private static final String MANIFEST_FILE_NAME = "upload_info.json";
     private static final String STATUS_FILE_NAME = "upload_status.json";
 
@@ -52,6 +62,18 @@ public class DatasetService extends AbstractService {
         this.dataStoreService = notNull(dataStoreService, "dataStoreService");
     }
 
+    /**
+     * Constructs service for dataset management.
+     *
+     * @param restTemplate     RESTful HTTP Spring template
+     * @param dataStoreService service used to upload data to the staging area
+     * @param pollScheduler    scheduler driving the polling
+     */
+    public DatasetService(RestTemplate restTemplate, DataStoreService dataStoreService, PollScheduler pollScheduler) {
+        super(restTemplate, pollScheduler);
+        this.dataStoreService = notNull(dataStoreService, "dataStoreService");
+    }
+
     /**
      * Obtains manifest from given project by given datasetId
      *
@@ -80,7 +102,8 @@ public class DatasetService extends AbstractService {
     /**
      * Loads dataset into platform. Uploads given dataset and manifest to staging area and triggers ETL pull.
      * The call is asynchronous returning {@link com.gooddata.FutureResult} to let caller wait for results.
-     * Uploaded files are deleted from staging area when finished.
+     * Uploaded files are deleted from staging area when finished. The ETL pull can't be aborted, when the result
+     * is cancelled the pull keeps running and the files are deleted once it finishes.
      *
      * @param project  project to which dataset belongs
      * @param manifest dataset manifest
@@ -132,7 +155,8 @@ public class DatasetService extends AbstractService {
     /**
      * Loads datasets into platform. Uploads given datasets and their manifests to staging area and triggers ETL pull.
      * The call is asynchronous returning {@link com.gooddata.FutureResult} to let caller wait for results.
-     * Uploaded files are deleted from staging area when finished.
+     * Uploaded files are deleted from staging area when finished. The ETL pull can't be aborted, when the result
+     * is cancelled the pull keeps running and the files are deleted once it finishes.
      *
      * @param project  project to which dataset belongs
      * @param datasets map dataset manifests
@@ -183,14 +207,42 @@ public class DatasetService extends AbstractService {
         return pullLoad(project, dirPath, asList(dataset));
     }
 
+    /**
+     * Resumes polling of the dataset load journaled before the JVM restart, see
+     * {@link com.gooddata.GoodDataSettings#setTaskJournalDirectory(java.io.File)}.
+     *
+     * @param task journaled task of the {@link #LOAD_TASK} type
+     * @return {@link com.gooddata.FutureResult} of the task, which can throw {@link com.gooddata.dataset.DatasetException}
+     * in case the ETL pull task fails
+     * @throws com.gooddata.TaskClaimedException when the task is polled by another result or finished already
+     */
+    public FutureResult<Void> resumeLoad(final JournaledTask task) {
+        notNull(task, "task");
+        isTrue(LOAD_TASK.equals(task.getType()), "task must be of type " + LOAD_TASK);
+        return pollLoad(task.getPollingUri(), Paths.get(task.getContext("dirPath")),
+                asList(task.getContext("datasets").split(",")), task);
+    }
+
     private FutureResult<Void> pullLoad(Project project, final Path dirPath, final Collection<String> datasets) {
         final PullTask pullTask = restTemplate
                 .postForObject(Pull.URI, new Pull(dirPath.toString()), PullTask.class, project.getId());
-        return new PollResult<>(this, new SimplePollHandler<Void>(pullTask.getUri(), Void.class) {
+        final Map<String, String> context = new LinkedHashMap<>();
+        context.put("dirPath", dirPath.toString());
+        context.put("datasets", collectionToCommaDelimitedString(datasets));
+        return pollLoad(pullTask.getUri(), dirPath, datasets, new JournaledTask(LOAD_TASK, pullTask.getUri(), context));
+    }
+
+    private FutureResult<Void> pollLoad(final String pollingUri, final Path dirPath, final Collection<String> datasets,
+                                        final JournaledTask task) {
+        return new PollResult<>(this,
+                new AbstractPollHandler<PullTaskStatus, Void>(pollingUri, PullTaskStatus.class, Void.class) {
+            private volatile boolean pullFinished;
+
             @Override
             public boolean isFinished(ClientHttpResponse response) throws IOException {
                 final PullTaskStatus status = extractData(response, PullTaskStatus.class);
                 final boolean finished = status.isFinished();
+                pullFinished = finished;
                 if (finished && !status.isSuccess()) {
                     final String message = getErrorMessage(status, dirPath);
                     throw new DatasetException(message, datasets);
@@ -198,6 +250,11 @@ public class DatasetService extends AbstractService {
                 return finished;
             }
 
+            @Override
+            public void handlePollResult(final PullTaskStatus pollResult) {
+                setResult(null);
+            }
+
             @Override
             public void handlePollException(final GoodDataRestException e) {
                 throw new DatasetException("Unable to load", datasets, e);
@@ -205,14 +262,61 @@ public class DatasetService extends AbstractService {
 
             @Override
             protected void onFinish() {
-                try {
-                    dataStoreService.delete(dirPath.toString() + "/");
-                } catch (DataStoreException ignored) {
-                    // todo log?
+                deleteStaging(dirPath);
+            }
+
+            @Override
+            protected void onCancel() {
+                if (pullFinished) {
+                    deleteStaging(dirPath);
+                } else {
+                    // the pull can't be aborted by the API and may be still reading the uploaded data
+                    deleteStagingWhenFinished(getPollingUri(), dirPath);
                 }
             }
-        });
+        }, task);
+
+    }
+
+    private void deleteStaging(final Path dirPath) {
+        try {
+            dataStoreService.delete(dirPath.toString() + "/");
+        } catch (DataStoreException ignored) {
+            // todo log?
+        }
+    }
 
+    /**
+     * Keep polling the pull of the cancelled load in the background (not journaled) and delete its uploaded data
+     * once it finishes
+     */
+    private void deleteStagingWhenFinished(final String pollingUri, final Path dirPath) {
+        try {
+            new PollResult<>(this,
+                    new AbstractPollHandler<PullTaskStatus, Void>(pollingUri, PullTaskStatus.class, Void.class) {
+                @Override
+                public boolean isFinished(ClientHttpResponse response) throws IOException {
+                    return extractData(response, PullTaskStatus.class).isFinished();
+                }
+
+                @Override
+                public void handlePollResult(final PullTaskStatus pollResult) {
+                    setResult(null);
+                }
+
+                @Override
+                public void handlePollException(final GoodDataRestException e) {
+                    throw new GoodDataException("Unable to poll the cancelled load", e);
+                }
+
+                @Override
+                protected void onFinish() {
+                    deleteStaging(dirPath);
+                }
+            });
+        } catch (GoodDataException ignored) {
+            // polling has been shut down, the data stay in the staging area
+        }
     }
 
     private String getErrorMessage(final PullTaskStatus status, final Path dirPath) {
@@ -3,11 +3,12 @@
  */
 package com.gooddata.gdc;
 
-import com.github.sardine.Sardine;
 import com.github.sardine.impl.SardineImpl;
+import com.gooddata.FlightRecorderEvent;
 import com.gooddata.UriPrefixer;
 import org.apache.http.impl.client.HttpClientBuilder;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -20,7 +21,7 @@ import static com.gooddata.util.Validate.notNull;
  */
 public class DataStoreService {
 
-    private final Sardine sardine;
+    private final SardineImpl sardine;
     private final GdcService gdcService;
     private final URI gdcUri;
     private UriPrefixer prefixer;
@@ -68,7 +69,18 @@ public class DataStoreService {
     public void upload(String path, InputStream stream) {
         notEmpty(path, "path");
         notNull(stream, "stream");
-        upload(getUri(path), stream);
+        final URI uri = getUri(path);
+        final FlightRecorderEvent event = FlightRecorderEvent.STAGING_TRANSFER.begin();
+        if (event.isRecorded()) {
+            final CountingInputStream counting = new CountingInputStream(stream);
+            try {
+                upload(uri, counting);
+            } finally {
+                event.commit("upload", uri.toString(), counting.count);
+            }
+        } else {
+            upload(uri, stream);
+        }
     }
 
     private void upload(URI url, InputStream stream) {
@@ -88,9 +100,22 @@ public class DataStoreService {
     public InputStream download(String path) {
         notEmpty(path, "path");
         final URI uri = getUri(path);
+        final FlightRecorderEvent event = FlightRecorderEvent.STAGING_TRANSFER.begin();
         try {
-            return sardine.get(uri.toString());
+            final InputStream stream = sardine.get(uri.toString());
+            // the transfer is recorded when the stream is closed
+            return event.isRecorded() ? new CountingInputStream(stream) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        event.commit("download", uri.toString(), count);
+                    }
+                }
+            } : stream;
         } catch (IOException e) {
+            event.commit("download", uri.toString(), -1L);
             throw new DataStoreException("Unable to download from " + uri, e);
         }
     }
@@ -103,10 +128,46 @@ public class DataStoreService {
     public void delete(String path) {
         notEmpty(path, "path");
         final URI uri = getUri(path);
+        final FlightRecorderEvent event = FlightRecorderEvent.STAGING_TRANSFER.begin();
         try {
             sardine.delete(uri.toString());
         } catch (IOException e) {
             throw new DataStoreException("Unable to delete " + uri, e);
+        } finally {
+            event.commit("delete", uri.toString(), -1L);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        protected long count;
+
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = super.read();
+            if (result != -1) {
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long result = super.skip(n);
+            count += result;
+            return result;
         }
     }
 }
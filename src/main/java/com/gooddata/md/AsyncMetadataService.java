@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata.md;
+
+import com.gooddata.AsyncRestClient;
+import com.gooddata.FutureResultCallback;
+import com.gooddata.GoodDataException;
+import com.gooddata.GoodDataRestException;
+import com.gooddata.ListenableFutureResult;
+import com.gooddata.SettableFutureResult;
+import com.gooddata.project.Project;
+import org.springframework.http.HttpStatus;
+
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Non-blocking variant of {@link MetadataService} retrieving project metadata - attributes, facts, metrics,
+ * reports,... Many objects can be requested at once (e.g. when crawling the metadata graph) without occupying
+ * a thread per request.
+ */
+public class AsyncMetadataService {
+
+    private final AsyncRestClient restClient;
+
+    public AsyncMetadataService(AsyncRestClient restClient) {
+        this.restClient = notNull(restClient, "restClient");
+    }
+
+    /**
+     * Get metadata object by URI (format is <code>/gdc/md/{PROJECT_ID}/obj/{OBJECT_ID}</code>)
+     *
+     * @param uri URI in format <code>/gdc/md/{PROJECT_ID}/obj/{OBJECT_ID}</code>
+     * @param cls class of the resulting object
+     * @param <T> type of the object to be returned
+     * @return the metadata object, the result fails by {@link com.gooddata.md.ObjNotFoundException}
+     * if metadata object not found, by {@link com.gooddata.GoodDataRestException} if GoodData REST API returns
+     * unexpected status code or by {@link com.gooddata.GoodDataException} if no response from API or client-side
+     * HTTP error
+     */
+    public <T extends Obj> ListenableFutureResult<T> getObjByUri(final String uri, final Class<T> cls) {
+        notNull(uri, "uri");
+        notNull(cls, "cls");
+        final SettableFutureResult<T> result = new SettableFutureResult<>();
+        final ListenableFutureResult<T> obj = restClient.getForObject(uri, cls);
+        result.cancelWith(obj);
+        obj.addCallback(new FutureResultCallback<T>() {
+            @Override
+            public void onSuccess(final T obj) {
+                if (obj != null) {
+                    result.set(obj);
+                } else {
+                    result.setException(new GoodDataException("empty response from API call"));
+                }
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                if (cause instanceof GoodDataRestException
+                        && HttpStatus.NOT_FOUND.value() == ((GoodDataRestException) cause).getStatusCode()) {
+                    result.setException(new ObjNotFoundException(uri, cls, (GoodDataRestException) cause));
+                } else {
+                    result.setException(cause);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get metadata object by id.
+     *
+     * @param project project where to search for the object
+     * @param id      id of the object
+     * @param cls     class of the resulting object
+     * @param <T>     type of the object to be returned
+     * @return the metadata object, the result fails by {@link com.gooddata.md.ObjNotFoundException}
+     * if metadata object not found
+     * @see #getObjByUri(String, Class)
+     */
+    public <T extends Obj> ListenableFutureResult<T> getObjById(Project project, String id, Class<T> cls) {
+        notNull(project, "project");
+        notNull(id, "id");
+        notNull(cls, "cls");
+        return getObjByUri(Obj.OBJ_TEMPLATE.expand(project.getId(), id).toString(), cls);
+    }
+}
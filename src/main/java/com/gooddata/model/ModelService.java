@@ -6,6 +6,7 @@ package com.gooddata.model;
 import com.gooddata.AbstractService;
 import com.gooddata.FutureResult;
 import com.gooddata.PollResult;
+import com.gooddata.PollScheduler;
 import com.gooddata.GoodDataRestException;
 import com.gooddata.AbstractPollHandlerBase;
 import com.gooddata.SimplePollHandler;
@@ -36,6 +37,16 @@ public class ModelService extends AbstractService {
         super(restTemplate);
     }
 
+    /**
+     * Constructs service for project model manipulation.
+     *
+     * @param restTemplate  RESTful HTTP Spring template
+     * @param pollScheduler scheduler driving the polling
+     */
+    public ModelService(RestTemplate restTemplate, PollScheduler pollScheduler) {
+        super(restTemplate, pollScheduler);
+    }
+
     private FutureResult<ModelDiff> getProjectModelDiff(Project project, DiffRequest diffRequest) {
         notNull(project, "project");
         notNull(diffRequest, "diffRequest");
@@ -123,7 +134,7 @@ public class ModelService extends AbstractService {
         if (maqlDdl.isEmpty()) {
             throw new IllegalArgumentException("MAQL DDL string(s) should be given");
         }
-        return new PollResult<>(this, new AbstractPollHandlerBase<MaqlDdlLinks, Void>(MaqlDdlLinks.class, Void.class) {
+        return new PollResult<>(this, new AbstractPollHandlerBase<TaskStatus, Void>(TaskStatus.class, Void.class) {
 
             private final String projectId = project.getId();
             private final LinkedList<String> maqlChunks = new LinkedList<>(maqlDdl);
@@ -168,7 +179,7 @@ public class ModelService extends AbstractService {
             }
 
             @Override
-            public void handlePollResult(MaqlDdlLinks pollResult) {
+            public void handlePollResult(TaskStatus pollResult) {
                 setResult(null);
             }
 
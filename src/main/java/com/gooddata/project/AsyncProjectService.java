@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata.project;
+
+import com.gooddata.AsyncRestClient;
+import com.gooddata.FutureResultCallback;
+import com.gooddata.GoodDataException;
+import com.gooddata.GoodDataRestException;
+import com.gooddata.ListenableFutureResult;
+import com.gooddata.SettableFutureResult;
+import com.gooddata.account.Account;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collection;
+
+import static com.gooddata.util.Validate.notEmpty;
+import static com.gooddata.util.Validate.notNull;
+
+/**
+ * Non-blocking variant of {@link ProjectService} retrieving projects.
+ */
+public class AsyncProjectService {
+
+    private final AsyncRestClient restClient;
+
+    public AsyncProjectService(AsyncRestClient restClient) {
+        this.restClient = notNull(restClient, "restClient");
+    }
+
+    /**
+     * Get all projects current user has access to.
+     *
+     * @return collection of all projects current user has access to, the result fails
+     * by {@link com.gooddata.GoodDataException} when projects can't be accessed
+     */
+    public ListenableFutureResult<Collection<Project>> getProjects() {
+        final SettableFutureResult<Collection<Project>> result = new SettableFutureResult<>();
+        final ListenableFutureResult<Account> account = restClient.getForObject(Account.URI, Account.class,
+                Account.CURRENT_ID);
+        result.cancelWith(account);
+        account.addCallback(new FutureResultCallback<Account>() {
+            @Override
+            public void onSuccess(final Account account) {
+                final ListenableFutureResult<Projects> projects = restClient.getForObject(Project.PROJECTS_URI,
+                        Projects.class, account.getId());
+                result.cancelWith(projects);
+                projects.addCallback(new FutureResultCallback<Projects>() {
+                    @Override
+                    public void onSuccess(final Projects projects) {
+                        result.set(projects.getProjects());
+                    }
+
+                    @Override
+                    public void onFailure(final Throwable cause) {
+                        result.setException(new GoodDataException("Unable to get projects", cause));
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                result.setException(new GoodDataException("Unable to get projects", cause));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get project by URI.
+     *
+     * @param uri URI of project resource (/gdc/projects/{id})
+     * @return project, the result fails by {@link ProjectNotFoundException} if project doesn't exist
+     * or by {@link com.gooddata.GoodDataException} when project can't be accessed
+     */
+    public ListenableFutureResult<Project> getProjectByUri(final String uri) {
+        notEmpty(uri, "uri");
+        final SettableFutureResult<Project> result = new SettableFutureResult<>();
+        final ListenableFutureResult<Project> project = restClient.getForObject(uri, Project.class);
+        result.cancelWith(project);
+        project.addCallback(new FutureResultCallback<Project>() {
+            @Override
+            public void onSuccess(final Project project) {
+                result.set(project);
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                if (cause instanceof GoodDataRestException
+                        && HttpStatus.NOT_FOUND.value() == ((GoodDataRestException) cause).getStatusCode()) {
+                    result.setException(new ProjectNotFoundException(uri, cause));
+                } else {
+                    result.setException(cause);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get project by id.
+     *
+     * @param id id of project
+     * @return project
+     * @see #getProjectByUri(String)
+     */
+    public ListenableFutureResult<Project> getProjectById(String id) {
+        notEmpty(id, "id");
+        return getProjectByUri(Project.TEMPLATE.expand(id).toString());
+    }
+}
@@ -3,10 +3,10 @@
  */
 package com.gooddata.project;
 
-import com.gooddata.AbstractPollHandler;
 import com.gooddata.AbstractService;
 import com.gooddata.FutureResult;
 import com.gooddata.PollResult;
+import com.gooddata.PollScheduler;
 import com.gooddata.GoodDataException;
 import com.gooddata.GoodDataRestException;
 import com.gooddata.SimplePollHandler;
@@ -60,6 +60,18 @@ public class ProjectService extends AbstractService {
         this.accountService = notNull(accountService, "accountService");
     }
 
+    /**
+     * Constructs service for GoodData project management (list projects, create a project, ...).
+     *
+     * @param restTemplate   RESTful HTTP Spring template
+     * @param accountService GoodData account service
+     * @param pollScheduler  scheduler driving the polling
+     */
+    public ProjectService(RestTemplate restTemplate, AccountService accountService, PollScheduler pollScheduler) {
+        super(restTemplate, pollScheduler);
+        this.accountService = notNull(accountService, "accountService");
+    }
+
     /**
      * Get all projects current user has access to.
      *
@@ -230,8 +242,9 @@ public class ProjectService extends AbstractService {
         }
         return new PollResult<>(this,
                 // PollHandler able to poll on different URIs (by the Location header)
-                // poll class is Void because the object returned varies between invocations (even on the same URI)
-                new AbstractPollHandler<Void, ProjectValidationResults>(task.getUri(), Void.class, ProjectValidationResults.class) {
+                // the object returned varies between invocations (even on the same URI), the body is parsed
+                // as the results, which is used just when finished
+                new SimplePollHandler<ProjectValidationResults>(task.getUri(), ProjectValidationResults.class) {
 
                     @Override
                     public boolean isFinished(ClientHttpResponse response) throws IOException {
@@ -239,20 +252,15 @@ public class ProjectService extends AbstractService {
                         if (location != null) {
                             setPollingUri(location.toString());
                         }
-                        final boolean finished = super.isFinished(response);
-                        if (finished) {
-                            try {
-                                final ProjectValidationResults result = restTemplate.getForObject(getPollingUri(), getResultClass());
-                                setResult(result);
-                            } catch (GoodDataException | RestClientException e) {
-                                throw new GoodDataException("Unable to obtain validation results from " + getPollingUri());
-                            }
-                        }
-                        return finished;
+                        return super.isFinished(response);
                     }
 
                     @Override
-                    public void handlePollResult(final Void pollResult) {
+                    public void handlePollResult(final ProjectValidationResults pollResult) {
+                        if (pollResult == null) {
+                            throw new GoodDataException("Unable to obtain validation results from " + getPollingUri());
+                        }
+                        setResult(pollResult);
                     }
 
                     @Override
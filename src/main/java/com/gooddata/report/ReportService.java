@@ -6,8 +6,10 @@ package com.gooddata.report;
 import com.gooddata.AbstractService;
 import com.gooddata.FutureResult;
 import com.gooddata.PollResult;
+import com.gooddata.PollScheduler;
 import com.gooddata.GoodDataException;
 import com.gooddata.GoodDataRestException;
+import com.gooddata.JournaledTask;
 import com.gooddata.SimplePollHandler;
 import com.gooddata.gdc.UriResponse;
 import com.gooddata.md.report.Report;
@@ -15,6 +17,7 @@ import com.gooddata.md.report.ReportDefinition;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.node.ObjectNode;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.client.RestClientException;
@@ -22,10 +25,11 @@ import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collections;
 
 import static com.gooddata.util.Validate.notNull;
-import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.util.Assert.isTrue;
 
 /**
  * Service for report export
@@ -34,10 +38,25 @@ public class ReportService extends AbstractService {
 
     public static final String EXPORTING_URI = "/gdc/exporter/executor";
 
+    /**
+     * Type of the journaled report export, see {@link #resumeExport(JournaledTask, OutputStream)}
+     */
+    public static final String EXPORT_TASK = "report.export";
+
     public ReportService(final RestTemplate restTemplate) {
         super(restTemplate);
     }
 
+    /**
+     * Constructs service for report export.
+     *
+     * @param restTemplate  RESTful HTTP Spring template
+     * @param pollScheduler scheduler driving the polling
+     */
+    public ReportService(final RestTemplate restTemplate, final PollScheduler pollScheduler) {
+        super(restTemplate, pollScheduler);
+    }
+
     /**
      * Export the given report definition in the given format to the given output strream
      * @param reportDefinition report definition
@@ -75,6 +94,29 @@ public class ReportService extends AbstractService {
         notNull(format, "format");
         final JsonNode execResult = executeReport(request);
         final String uri = exportReport(execResult, format);
+        return pollExport(uri, output, new JournaledTask(EXPORT_TASK, uri, Collections.<String, String>emptyMap()));
+    }
+
+    /**
+     * Resumes polling of the export journaled before the JVM restart, see
+     * {@link com.gooddata.GoodDataSettings#setTaskJournalDirectory(java.io.File)}. The exported report is written
+     * to the given output stream, as the original one can't be journaled.
+     *
+     * @param task   journaled task of the {@link #EXPORT_TASK} type
+     * @param output target
+     * @return polling result
+     * @throws NoDataReportException in case report contains no data
+     * @throws ReportException on error
+     * @throws com.gooddata.TaskClaimedException when the task is polled by another result or finished already
+     */
+    public FutureResult<Void> resumeExport(final JournaledTask task, final OutputStream output) {
+        notNull(task, "task");
+        notNull(output, "output");
+        isTrue(EXPORT_TASK.equals(task.getType()), "task must be of type " + EXPORT_TASK);
+        return pollExport(task.getPollingUri(), output, task);
+    }
+
+    private FutureResult<Void> pollExport(final String uri, final OutputStream output, final JournaledTask task) {
         return new PollResult<>(this, new SimplePollHandler<Void>(uri, Void.class) {
             @Override
             public boolean isFinished(ClientHttpResponse response) throws IOException {
@@ -92,14 +134,25 @@ public class ReportService extends AbstractService {
             }
 
             @Override
-            protected void onFinish() {
+            protected boolean isStreaming() {
+                return true;
+            }
+
+            @Override
+            protected boolean isStreamed(final ClientHttpResponse response) throws IOException {
+                return HttpStatus.OK.equals(response.getStatusCode());
+            }
+
+            @Override
+            protected void streamBody(final ClientHttpResponse response) {
+                // the finished export is the body of the last poll response
                 try {
-                    restTemplate.execute(uri, GET, noopRequestCallback, new OutputStreamResponseExtractor(output));
-                } catch (GoodDataException | RestClientException e) {
+                    new OutputStreamResponseExtractor(output).extractData(response);
+                } catch (IOException e) {
                     throw new ReportException("Unable to export report", e);
                 }
             }
-        });
+        }, task);
     }
 
     private JsonNode executeReport(final ReportRequest request) {
@@ -4,6 +4,7 @@ import com.gooddata.AbstractPollHandler;
 import com.gooddata.AbstractService;
 import com.gooddata.FutureResult;
 import com.gooddata.PollResult;
+import com.gooddata.PollScheduler;
 import com.gooddata.GoodDataException;
 import com.gooddata.GoodDataRestException;
 import org.springframework.http.HttpStatus;
@@ -40,6 +41,21 @@ public class WarehouseService extends AbstractService {
         this.warehousePort = warehousePort;
     }
 
+    /**
+     * Sets RESTful HTTP Spring template and scheduler driving the polling.
+     *
+     * @param restTemplate RESTful HTTP Spring template
+     * @param warehouseHost host to connect warehouses
+     * @param warehousePort port to connect warehouses
+     * @param pollScheduler scheduler driving the polling
+     */
+    public WarehouseService(RestTemplate restTemplate, String warehouseHost, int warehousePort,
+                            PollScheduler pollScheduler) {
+        super(restTemplate, pollScheduler);
+        this.warehouseHost = notNull(warehouseHost, "warehouseHost");
+        this.warehousePort = warehousePort;
+    }
+
     /**
      * Create new warehouse.
      *
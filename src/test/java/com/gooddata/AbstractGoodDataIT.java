@@ -25,7 +25,7 @@ public abstract class AbstractGoodDataIT {
     @BeforeMethod
     public void commonSetUp() {
         initJadler().that().respondsWithDefaultContentType("application/json");
-        gd = new GoodData("localhost", "sdk@gooddata.com", "sdk", port(), "http", new GoodDataSettings()) {
+        gd = new GoodData("localhost", "sdk@gooddata.com", "sdk", port(), "http", createSettings()) {
             @Override
             protected HttpClient createHttpClient(final String login, final String password, final String hostname,
                                                   final int port, final String protocol,
@@ -35,6 +35,10 @@ public abstract class AbstractGoodDataIT {
         };
     }
 
+    protected GoodDataSettings createSettings() {
+        return new GoodDataSettings();
+    }
+
     @AfterMethod
     public void tearDown() {
         closeJadler();
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class AdaptivePollingPolicyTest {
+
+    private static final String URI = "/gdc/md/PROJECT_ID/tasks/TASK_ID/status";
+
+    private PollHandler<Void, Void> handler;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        handler = new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        };
+    }
+
+    @Test
+    public void shouldPollImmediatelyAndBackOffExponentially() throws Exception {
+        final AdaptivePollingPolicy policy = new AdaptivePollingPolicy(100, 1000, 2, 0);
+
+        assertThat(policy.getDelay(handler, 0, 0, -1), is(0L));
+        assertThat(policy.getDelay(handler, 1, 0, -1), is(100L));
+        assertThat(policy.getDelay(handler, 2, 100, -1), is(200L));
+        assertThat(policy.getDelay(handler, 3, 300, -1), is(400L));
+        assertThat(policy.getDelay(handler, 10, 5000, -1), is(1000L));
+    }
+
+    @Test
+    public void shouldHonorRetryAfter() throws Exception {
+        final AdaptivePollingPolicy policy = new AdaptivePollingPolicy(100, 1000, 2, 0);
+
+        assertThat(policy.getDelay(handler, 1, 0, 700), is(700L));
+    }
+
+    @Test
+    public void shouldCapRetryAfterByMaxDelay() throws Exception {
+        final AdaptivePollingPolicy policy = new AdaptivePollingPolicy(100, 1000, 2, 0);
+
+        assertThat(policy.getDelay(handler, 1, 0, 7000), is(1000L));
+    }
+
+    @Test
+    public void shouldWaitForEstimatedCompletion() throws Exception {
+        final AdaptivePollingPolicy policy = new AdaptivePollingPolicy(100, 1000, 2, 0);
+        assertThat(policy.getEstimatedDuration(handler), is(-1L));
+
+        policy.onFinish(handler, 3, 600);
+        assertThat(policy.getEstimatedDuration(handler), is(600L));
+        assertThat(policy.getDelay(handler, 1, 50, -1), is(550L));
+        assertThat(policy.getDelay(handler, 2, 700, -1), is(200L));
+
+        policy.onFinish(handler, 3, 1600);
+        assertThat(policy.getEstimatedDuration(handler), is(900L));
+    }
+
+    @Test
+    public void shouldRandomizeDelay() throws Exception {
+        final AdaptivePollingPolicy policy = new AdaptivePollingPolicy(1000, 1000, 2, 0.2);
+
+        assertThat(policy.getDelay(handler, 1, 0, -1), is(allOf(greaterThanOrEqualTo(800L), lessThanOrEqualTo(1200L))));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectInvalidJitter() throws Exception {
+        new AdaptivePollingPolicy(100, 1000, 2, 2);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.md.Metric;
+import com.gooddata.md.ObjNotFoundException;
+import com.gooddata.project.Project;
+import com.gooddata.project.ProjectNotFoundException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static com.gooddata.util.ResourceUtils.readStringFromResource;
+import static net.jadler.Jadler.closeJadler;
+import static net.jadler.Jadler.initJadler;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.port;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class AsyncMetadataClientIT {
+
+    private static final String PROJECT_URI = "/gdc/projects/PROJECT_ID";
+    private static final String METRIC_URI = "/gdc/md/PROJECT_ID/obj/1";
+
+    private AsyncMetadataClient gd;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        initJadler().that().respondsWithDefaultContentType("application/json");
+        gd = new AsyncMetadataClient("localhost", "sdk@gooddata.com", "sdk", port(), "http", new GoodDataSettings());
+
+        onRequest()
+                .havingMethodEqualTo("POST")
+                .havingPathEqualTo("/gdc/account/login")
+            .respond()
+                .withHeader("Set-Cookie", "GDCAuthSST=sst; Path=/gdc/account; HttpOnly")
+                .withBody("{}")
+        ;
+        onRequest()
+                .havingPathEqualTo(AsyncAuthenticator.TOKEN_URL)
+            .respond()
+                .withStatus(401)
+                .withHeader("WWW-Authenticate", "GoodData realm=\"GoodData API\" cookie=GDCAuthSST")
+        ;
+        onRequest()
+                .havingPathEqualTo(AsyncAuthenticator.TOKEN_URL)
+                .havingHeader("Cookie", hasItem(containsString("GDCAuthSST=sst")))
+            .respond()
+                .withHeader("Set-Cookie", "GDCAuthTT=tt; Path=/gdc; HttpOnly")
+                .withBody("{}")
+        ;
+        onRequest()
+                .havingPathEqualTo(PROJECT_URI)
+            .respond()
+                .withStatus(401)
+                .withHeader("WWW-Authenticate", "GoodData realm=\"GoodData API\" cookie=GDCAuthTT")
+        ;
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        gd.close();
+        closeJadler();
+    }
+
+    @Test
+    public void shouldAuthenticateAndGetProject() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo(PROJECT_URI)
+                .havingHeader("Cookie", hasItem(containsString("GDCAuthTT=tt")))
+            .respond()
+                .withBody(readStringFromResource("/project/project.json"))
+        ;
+
+        final Project project = gd.getProjectService().getProjectByUri(PROJECT_URI).get(10, TimeUnit.SECONDS);
+        assertThat(project.getTitle(), is("TITLE"));
+
+        verifyThatRequest().havingPathEqualTo("/gdc/account/login").receivedOnce();
+    }
+
+    @Test
+    public void shouldDecodeCompressedResponse() throws Exception {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            gzip.write(readStringFromResource("/project/project.json").getBytes("UTF-8"));
+        }
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo(PROJECT_URI)
+                .havingHeader("Cookie", hasItem(containsString("GDCAuthTT=tt")))
+                .havingHeader("Accept-Encoding", hasItem(containsString("gzip")))
+            .respond()
+                .withHeader("Content-Encoding", "gzip")
+                .withBody(body.toByteArray())
+        ;
+
+        final Project project = gd.getProjectService().getProjectByUri(PROJECT_URI).get(10, TimeUnit.SECONDS);
+        assertThat(project.getTitle(), is("TITLE"));
+    }
+
+    @Test
+    public void shouldGetObjectsInParallel() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo(METRIC_URI)
+            .respond()
+                .withBody(readStringFromResource("/md/metric.json"))
+        ;
+
+        final List<FutureResult<Metric>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(gd.getMetadataService().getObjByUri(METRIC_URI, Metric.class));
+        }
+        assertThat(FutureResults.allOf(results).get(10, TimeUnit.SECONDS), hasSize(10));
+    }
+
+    @Test(expectedExceptions = ProjectNotFoundException.class)
+    public void shouldFailWhenProjectNotFound() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo(PROJECT_URI)
+                .havingHeader("Cookie", hasItem(containsString("GDCAuthTT=tt")))
+            .respond()
+                .withStatus(404)
+        ;
+
+        gd.getProjectService().getProjectByUri(PROJECT_URI).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test(expectedExceptions = ObjNotFoundException.class)
+    public void shouldFailWhenObjNotFound() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo(METRIC_URI)
+            .respond()
+                .withStatus(404)
+        ;
+
+        gd.getMetadataService().getObjByUri(METRIC_URI, Metric.class).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test(expectedExceptions = GoodDataException.class, expectedExceptionsMessageRegExp = ".*obtain SST.*")
+    public void shouldFailWhenLoginFails() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("POST")
+                .havingPathEqualTo("/gdc/account/login")
+            .respond()
+                .withStatus(401)
+        ;
+
+        gd.getProjectService().getProjectByUri(PROJECT_URI).get(10, TimeUnit.SECONDS);
+    }
+}
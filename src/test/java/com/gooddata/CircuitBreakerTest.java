@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.testng.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void shouldOpenAfterThreshold() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker(2, 60000);
+        breaker.acquire();
+        breaker.onFailure();
+        breaker.acquire();
+        breaker.onFailure();
+
+        assertThat(breaker.isOpen(), is(true));
+        try {
+            breaker.acquire();
+            fail("Exception should be thrown");
+        } catch (CircuitBreakerOpenException e) {
+            assertThat(e.getRetryAfterMillis() > 0, is(true));
+        }
+    }
+
+    @Test
+    public void shouldResetFailuresOnSuccess() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker(2, 60000);
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertThat(breaker.isOpen(), is(false));
+        breaker.acquire();
+    }
+
+    @Test
+    public void shouldLetSingleTrialThroughAfterOpenTime() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 1);
+        breaker.onFailure();
+        Thread.sleep(10);
+
+        breaker.acquire();
+        try {
+            breaker.acquire();
+            fail("Exception should be thrown");
+        } catch (CircuitBreakerOpenException ignored) {
+        }
+        breaker.onSuccess();
+
+        assertThat(breaker.isOpen(), is(false));
+        breaker.acquire();
+    }
+
+    @Test
+    public void shouldReopenWhenTrialFails() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 1);
+        breaker.onFailure();
+        Thread.sleep(10);
+
+        breaker.acquire();
+        breaker.onFailure();
+
+        assertThat(breaker.isOpen(), is(true));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.dataset.DatasetManifest;
+import com.gooddata.dataset.PullTaskResponder;
+import com.gooddata.project.Project;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.testng.Assert.fail;
+
+public class DeadlineIT extends AbstractGoodDataIT {
+
+    @Test
+    public void shouldLimitRequestByDeadline() throws Exception {
+        onRequest()
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withDelay(3, TimeUnit.SECONDS)
+                .withBody(readFromResource("/gdc/gdc.json"));
+
+        final long start = System.currentTimeMillis();
+        try (Deadline ignored = Deadline.start(500, TimeUnit.MILLISECONDS)) {
+            gd.getGdcService().getGdc();
+            fail("Exception should be thrown");
+        } catch (GoodDataException e) {
+            assertThat(e.getCause(), is(instanceOf(DeadlineExceededException.class)));
+        }
+        assertThat(System.currentTimeMillis() - start, is(lessThan(2000L)));
+    }
+
+    @Test
+    public void shouldFailPollingAfterDeadline() throws Exception {
+        onRequest()
+                .havingPath(startsWith("/uploads/"))
+                .havingMethodEqualTo("PUT")
+            .respond()
+                .withStatus(200);
+        onRequest()
+                .havingPathEqualTo("/gdc/md/PROJECT_ID/etl/pull")
+                .havingMethodEqualTo("POST")
+            .respond()
+                .withStatus(201)
+                .withBody(readFromResource("/dataset/pullTask.json"));
+        final AtomicBoolean pullFinished = new AtomicBoolean();
+        onRequest()
+                .havingPathEqualTo("/gdc/md/PROJECT/etl/task/ID")
+            .respondUsing(new PullTaskResponder(pullFinished));
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"));
+
+        final Project project = MAPPER.readValue(readFromResource("/project/project.json"), Project.class);
+        final DatasetManifest manifest = MAPPER.readValue(readFromResource("/dataset/datasetManifest.json"),
+                DatasetManifest.class);
+        final FutureResult<Void> result;
+        try (Deadline ignored = Deadline.start(1, TimeUnit.SECONDS)) {
+            result = gd.getDatasetService().loadDataset(project, manifest, new ByteArrayInputStream(new byte[]{}));
+        }
+        try {
+            result.get();
+            fail("Exception should be thrown");
+        } catch (DeadlineExceededException expected) {
+        }
+
+        // the uploaded data are deleted as if the load was cancelled, but only once the pull finishes
+        Thread.sleep(500);
+        verifyThatRequest().havingMethodEqualTo("DELETE").havingPath(startsWith("/uploads/")).receivedNever();
+
+        pullFinished.set(true);
+        for (int i = 0; ; i++) {
+            try {
+                verifyThatRequest().havingMethodEqualTo("DELETE").havingPath(startsWith("/uploads/")).receivedOnce();
+                return;
+            } catch (AssertionError e) {
+                if (i == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+}
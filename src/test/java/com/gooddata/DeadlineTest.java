@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class DeadlineTest {
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        Deadline.attach(null);
+    }
+
+    @Test
+    public void shouldApplyToCurrentThreadUntilClosed() throws Exception {
+        try (Deadline deadline = Deadline.start(10, TimeUnit.SECONDS)) {
+            assertThat(Deadline.current(), is(sameInstance(deadline)));
+            assertThat(deadline.isExpired(), is(false));
+            assertThat(deadline.getRemainingMillis(), is(lessThanOrEqualTo(10000L)));
+            assertThat(deadline.getRemainingMillis(), is(greaterThan(9000L)));
+        }
+        assertThat(Deadline.current(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotExtendOuterDeadline() throws Exception {
+        try (Deadline outer = Deadline.start(1, TimeUnit.SECONDS)) {
+            try (Deadline inner = Deadline.start(1, TimeUnit.MINUTES)) {
+                assertThat(inner.getRemainingMillis(), is(lessThanOrEqualTo(1000L)));
+            }
+            assertThat(Deadline.current(), is(sameInstance(outer)));
+        }
+    }
+
+    @Test
+    public void shouldShortenOuterDeadline() throws Exception {
+        try (Deadline ignored = Deadline.start(1, TimeUnit.MINUTES)) {
+            try (Deadline inner = Deadline.start(1, TimeUnit.SECONDS)) {
+                assertThat(inner.getRemainingMillis(), is(lessThanOrEqualTo(1000L)));
+            }
+        }
+    }
+
+    @Test(expectedExceptions = DeadlineExceededException.class,
+            expectedExceptionsMessageRegExp = "Deadline of 10 ms exceeded")
+    public void shouldFailWhenExpired() throws Exception {
+        try (Deadline deadline = Deadline.start(10, TimeUnit.MILLISECONDS)) {
+            Thread.sleep(20);
+            assertThat(deadline.isExpired(), is(true));
+            assertThat(deadline.getRemainingMillis(), is(0L));
+            deadline.check();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * The JFR API is accessed reflectively, the tests are skipped on Java versions without it.
+ */
+public class FlightRecorderEventTest {
+
+    private Class<?> recordingClass;
+    private Object recording;
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        try {
+            recordingClass = Class.forName("jdk.jfr.Recording");
+        } catch (ClassNotFoundException e) {
+            throw new SkipException("JFR is not available");
+        }
+        file = File.createTempFile("gooddata", ".jfr");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        if (recording != null) {
+            recordingClass.getMethod("close").invoke(recording);
+            recording = null;
+        }
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void shouldNotRecordWithoutRecording() throws Exception {
+        final FlightRecorderEvent event = FlightRecorderEvent.HTTP_EXCHANGE.begin();
+        assertThat(event.isRecorded(), is(false));
+        event.commit("GET", "/gdc", 200, 0L, 10L);
+    }
+
+    @Test
+    public void shouldRecordEvent() throws Exception {
+        recording = recordingClass.newInstance();
+        recordingClass.getMethod("enable", String.class).invoke(recording, "com.gooddata.HttpExchange");
+        recordingClass.getMethod("start").invoke(recording);
+
+        final FlightRecorderEvent event = FlightRecorderEvent.HTTP_EXCHANGE.begin();
+        assertThat(event.isRecorded(), is(true));
+        event.commit("GET", "/gdc/md/{id}", 200, 0L, 10L);
+
+        recordingClass.getMethod("stop").invoke(recording);
+        recordingClass.getMethod("dump", Path.class).invoke(recording, file.toPath());
+
+        final List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                .getMethod("readAllEvents", Path.class).invoke(null, file.toPath());
+        assertThat(events, hasSize(1));
+        final Object recorded = events.get(0);
+        final Method getValue = recorded.getClass().getMethod("getValue", String.class);
+        assertThat(getValue.invoke(recorded, "uriTemplate"), is((Object) "/gdc/md/{id}"));
+        assertThat(getValue.invoke(recorded, "statusCode"), is((Object) 200));
+        assertThat(getValue.invoke(recorded, "bytesReceived"), is((Object) 10L));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.testng.Assert.fail;
+
+public class FutureResultsTest {
+
+    @Test
+    public void shouldCompleteWhenAllCompleted() throws Exception {
+        final TestResult<String> first = new TestResult<>();
+        final TestResult<String> second = new TestResult<>();
+
+        final FutureResult<List<String>> all = FutureResults.allOf(first, second);
+        second.complete("b");
+        assertThat(all.isDone(), is(false));
+
+        first.complete("a");
+        assertThat(all.isDone(), is(true));
+        assertThat(all.get(), contains("a", "b"));
+    }
+
+    @Test
+    public void shouldFailWhenAnyFailed() throws Exception {
+        final TestResult<String> first = new TestResult<>();
+        final TestResult<String> second = new TestResult<>();
+        final GoodDataException failure = new GoodDataException("failed");
+
+        final FutureResult<List<String>> all = FutureResults.allOf(asList(first, second));
+        second.fail(failure);
+
+        try {
+            all.get();
+            fail("Exception should be thrown");
+        } catch (GoodDataException e) {
+            assertThat(e, is(sameInstance(failure)));
+        }
+    }
+
+    @Test
+    public void shouldCancelAll() throws Exception {
+        final TestResult<String> first = new TestResult<>();
+        final TestResult<String> second = new TestResult<>();
+        first.complete("a");
+
+        final ListenableFutureResult<List<String>> all = FutureResults.allOf(first, second);
+        assertThat(all.cancel(), is(true));
+
+        assertThat(all.isCancelled(), is(true));
+        assertThat(first.isCancelled(), is(false));
+        assertThat(second.isCancelled(), is(true));
+    }
+
+    @Test
+    public void shouldCompleteEmpty() throws Exception {
+        final FutureResult<List<Object>> all = FutureResults.allOf(Collections.<FutureResult<Object>>emptyList());
+        assertThat(all.get(), is(empty()));
+    }
+
+    @Test
+    public void shouldNotifyCallbackRegisteredAfterCompletion() throws Exception {
+        final TestResult<String> result = new TestResult<>();
+        result.complete("a");
+
+        final AtomicReference<String> notified = new AtomicReference<>();
+        result.addCallback(new FutureResultCallback<String>() {
+            @Override
+            public void onSuccess(final String value) {
+                notified.set(value);
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+            }
+        });
+        assertThat(notified.get(), is("a"));
+    }
+
+    @Test
+    public void shouldNotifyFailureCallback() throws Exception {
+        final TestResult<String> result = new TestResult<>();
+        final AtomicReference<Throwable> notified = new AtomicReference<>();
+        result.addCallback(new FutureResultCallback<String>() {
+            @Override
+            public void onSuccess(final String value) {
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+                notified.set(cause);
+            }
+        });
+
+        final GoodDataException failure = new GoodDataException("failed");
+        result.fail(failure);
+        assertThat(notified.get(), is((Throwable) failure));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectForeignResult() throws Exception {
+        FutureResults.listenable(new FutureResult<String>() {
+            @Override
+            public boolean isDone() {
+                return true;
+            }
+
+            @Override
+            public String get() {
+                return "a";
+            }
+
+            @Override
+            public String get(final long timeout, final TimeUnit unit) {
+                return "a";
+            }
+        });
+    }
+
+    private static class TestResult<T> extends AbstractFutureResult<T> {
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.closeJadler;
+import static net.jadler.Jadler.initJadler;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.port;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class GoodDataClientFactoryIT {
+
+    private GoodDataClientFactory factory;
+
+    @BeforeMethod
+    public void setUp() {
+        initJadler().that().respondsWithDefaultContentType("application/json");
+        factory = new GoodDataClientFactory();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        factory.shutdown();
+        closeJadler();
+    }
+
+    @Test
+    public void shouldShareTransportResources() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+
+        final GoodData first = create("first@gooddata.com");
+        final GoodData second = create("second@gooddata.com");
+        first.getGdcService().getGdc();
+        second.getGdcService().getGdc();
+
+        assertThat(first.getPollScheduler(), is(sameInstance(second.getPollScheduler())));
+        assertThat(first.getMetrics(), is(sameInstance(factory.getMetrics())));
+        assertThat(second.getMetrics(), is(sameInstance(factory.getMetrics())));
+        assertThat(factory.getMetrics().getSnapshot(), hasSize(1));
+        assertThat(factory.getMetrics().getSnapshot().get(0).getCount(), is(2L));
+        // single connection kept alive for the single host
+        assertThat(factory.getApiConnectionPoolStats().getAvailable(), is(1));
+        assertThat(first.getApiConnectionPoolStats().getAvailable(), is(1));
+    }
+
+    @Test
+    public void shouldKeepSessionsSeparate() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withHeader("Set-Cookie", "session=first; Path=/")
+                .withStatus(200);
+
+        final GoodData first = create("first@gooddata.com");
+        final GoodData second = create("second@gooddata.com");
+        first.getGdcService().getGdc();
+        first.getGdcService().getGdc();
+        second.getGdcService().getGdc();
+
+        verifyThatRequest().havingPathEqualTo("/gdc").receivedTimes(3);
+        verifyThatRequest().havingPathEqualTo("/gdc").havingHeaderEqualTo("Cookie", "session=first").receivedOnce();
+    }
+
+    @Test
+    public void shouldWarmUpConnections() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc/account/profile/current")
+            .respond()
+                .withBody(readFromResource("/account/account.json"))
+                .withStatus(200);
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+
+        final GoodData gd = create("first@gooddata.com");
+        gd.warmUp(3);
+
+        assertThat(gd.getApiConnectionPoolStats().getAvailable(), is(3));
+        assertThat(gd.getApiConnectionPoolStats().getLeased(), is(0));
+        assertThat(gd.getStagingConnectionPoolStats().getAvailable(), is(3));
+        assertThat(gd.getStagingConnectionPoolStats().getLeased(), is(0));
+
+        // the kept alive connection is reused
+        gd.warmUp(3);
+        assertThat(gd.getApiConnectionPoolStats().getAvailable(), is(3));
+    }
+
+    @Test
+    public void shouldKeepSharedTransportOnLogout() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc/account/profile/current")
+            .respond()
+                .withBody(readFromResource("/account/account.json"))
+                .withStatus(200);
+        onRequest()
+                .havingMethodEqualTo("DELETE")
+            .respond()
+                .withStatus(204);
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+
+        final GoodData first = create("first@gooddata.com");
+        final GoodData second = create("second@gooddata.com");
+        first.logout();
+
+        assertThat(second.getGdcService().getGdc(), is(notNullValue()));
+        assertThat(second.getPollScheduler().isShutdown(), is(false));
+    }
+
+    private GoodData create(final String login) {
+        return new GoodData("localhost", login, "sdk", port(), "http", factory) {
+            @Override
+            protected HttpClient createHttpClient(final String login, final String password, final String hostname,
+                                                  final int port, final String protocol,
+                                                  final HttpClientBuilder builder) {
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.account.Account;
+import com.gooddata.md.Metric;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpStatus;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.onRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class GoodDataIT extends AbstractGoodDataIT {
+
+    @Test
+    public void shouldReturnConnectionToApiPool() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+
+        gd.getGdcService().getGdc();
+
+        final PoolStats api = gd.getApiConnectionPoolStats();
+        assertThat(api.getLeased(), is(0));
+        assertThat(api.getAvailable(), is(1));
+        assertThat(api.getMax(), is(20));
+        assertThat(gd.getStagingConnectionPoolStats().getAvailable(), is(0));
+    }
+
+    @Test
+    public void shouldRecordMetricsPerUriTemplate() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc/account/profile/current")
+            .respond()
+                .withBody(readFromResource("/account/account.json"))
+                .withStatus(200);
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc/md/PROJECT1/obj/1")
+            .respond()
+                .withStatus(404);
+
+        gd.getAccountService().getCurrent();
+        try {
+            gd.getMetadataService().getObjByUri("/gdc/md/PROJECT1/obj/1", Metric.class);
+        } catch (GoodDataException ignored) {
+        }
+
+        final List<EndpointMetrics> metrics = gd.getMetrics().getSnapshot();
+        assertThat(metrics, hasSize(2));
+        assertThat(metrics.get(0).getUriTemplate(), is(Account.URI));
+        assertThat(metrics.get(0).getCount(HttpStatus.Series.SUCCESSFUL), is(1L));
+        assertThat(metrics.get(0).getBytesReceived(), greaterThan(0L));
+        assertThat(metrics.get(1).getUriTemplate(), is("/gdc/md/{id}/obj/{id}"));
+        assertThat(metrics.get(1).getCount(HttpStatus.Series.CLIENT_ERROR), is(1L));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpStatus;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class GoodDataMetricsTest {
+
+    private GoodDataMetrics metrics;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        metrics = new GoodDataMetrics();
+    }
+
+    @Test
+    public void shouldReplaceIdSegments() throws Exception {
+        assertThat(GoodDataMetrics.toUriTemplate("/gdc/md/q1w2e3/obj/123"), is("/gdc/md/{id}/obj/{id}"));
+        assertThat(GoodDataMetrics.toUriTemplate("/gdc/md/q1w2e3/query/attributes"), is("/gdc/md/{id}/query/attributes"));
+        assertThat(GoodDataMetrics.toUriTemplate("/gdc"), is("/gdc"));
+        assertThat(GoodDataMetrics.toUriTemplate(""), is("/"));
+        assertThat(GoodDataMetrics.toUriTemplate("/gdc/md/q1w2e3/"), is("/gdc/md/{id}/"));
+        assertThat(GoodDataMetrics.toUriTemplate("/123"), is("/{id}"));
+        final String path = "/gdc/account/profile/current";
+        assertThat(GoodDataMetrics.toUriTemplate(path), is(sameInstance(path)));
+    }
+
+    @Test
+    public void shouldAggregatePerEndpoint() throws Exception {
+        metrics.record("GET", "/gdc/md/{projectId}/query/{type}", 200, 0, 100, TimeUnit.MILLISECONDS.toNanos(10));
+        metrics.record("GET", "/gdc/md/{projectId}/query/{type}", 404, 0, 50, TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.record("POST", "/gdc/md/{projectId}/query/{type}", 0, 10, -1, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.record("GET", "/gdc", 200, 0, 10, TimeUnit.MILLISECONDS.toNanos(1));
+
+        final List<EndpointMetrics> snapshot = metrics.getSnapshot();
+        assertThat(snapshot, hasSize(3));
+        assertThat(snapshot.get(0).getUriTemplate(), is("/gdc"));
+
+        final EndpointMetrics get = snapshot.get(1);
+        assertThat(get.getMethod(), is("GET"));
+        assertThat(get.getCount(), is(2L));
+        assertThat(get.getCount(HttpStatus.Series.SUCCESSFUL), is(1L));
+        assertThat(get.getCount(HttpStatus.Series.CLIENT_ERROR), is(1L));
+        assertThat(get.getFailedCount(), is(0L));
+        assertThat(get.getBytesReceived(), is(150L));
+        assertThat(get.getMaxLatency(TimeUnit.MILLISECONDS), is(30L));
+        assertThat(get.getMeanLatency(TimeUnit.MILLISECONDS), is(20L));
+        assertThat(get.getTotalLatency(TimeUnit.MILLISECONDS), is(40L));
+
+        final EndpointMetrics post = snapshot.get(2);
+        assertThat(post.getMethod(), is("POST"));
+        assertThat(post.getFailedCount(), is(1L));
+        assertThat(post.getBytesSent(), is(10L));
+        assertThat(post.getBytesReceived(), is(0L));
+    }
+
+    @Test
+    public void shouldNotifyListener() throws Exception {
+        final GoodDataMetricsListener listener = mock(GoodDataMetricsListener.class);
+        metrics.addListener(listener);
+        metrics.record("GET", "/gdc", 200, 0, 10, 1000);
+        metrics.removeListener(listener);
+        metrics.record("GET", "/gdc", 200, 0, 10, 1000);
+
+        verify(listener).requestCompleted("GET", "/gdc", 200, 0, 10, 1000);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void shouldReset() throws Exception {
+        metrics.record("GET", "/gdc", 200, 0, 10, 1000);
+        metrics.reset();
+        assertThat(metrics.getSnapshot(), is(empty()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.gooddata;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
@@ -16,6 +17,22 @@ public class GoodDataSettingsTest {
         assertTrue(settings.getMaxConnections() > 0);
         assertTrue(settings.getConnectionTimeout() >= 0);
         assertTrue(settings.getSocketTimeout() >= 0);
+        assertEquals(CompressionMode.RESPONSES, settings.getCompressionMode());
+        assertEquals(0, settings.getRetry().getMaxRetries());
+        assertEquals(0, settings.getRetry().getCircuitBreakerThreshold());
+    }
+
+    @Test
+    public void testRetryBackoffGrowsUpToMax() throws Exception {
+        final RetrySettings retry = new RetrySettings();
+        retry.setInitialBackoff(100);
+        retry.setBackoffMultiplier(3);
+        retry.setMaxBackoff(1000);
+
+        assertEquals(100, retry.getBackoff(1));
+        assertEquals(300, retry.getBackoff(2));
+        assertEquals(900, retry.getBackoff(3));
+        assertEquals(1000, retry.getBackoff(4));
     }
 
     @Test
@@ -27,4 +44,26 @@ public class GoodDataSettingsTest {
         assertEquals(53000, settings.getConnectionTimeout());
         assertEquals(71000, settings.getSocketTimeout());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSetMaxConnectionsOfBothPools() throws Exception {
+        final GoodDataSettings settings = new GoodDataSettings();
+        settings.setMaxConnections(7);
+
+        assertEquals(7, settings.getMaxConnections());
+        assertEquals(7, settings.getApiConnectionPool().getMaxTotal());
+        assertEquals(7, settings.getApiConnectionPool().getMaxPerRoute());
+        assertEquals(7, settings.getStagingConnectionPool().getMaxTotal());
+        assertEquals(7, settings.getStagingConnectionPool().getMaxPerRoute());
+    }
+
+    @Test
+    public void testPoolsAreIndependent() throws Exception {
+        final GoodDataSettings settings = new GoodDataSettings();
+        settings.getStagingConnectionPool().setMaxTotal(2);
+
+        assertEquals(20, settings.getApiConnectionPool().getMaxTotal());
+        assertEquals(2, settings.getStagingConnectionPool().getMaxTotal());
+        assertNotEquals(new GoodDataSettings(), settings);
+    }
+}
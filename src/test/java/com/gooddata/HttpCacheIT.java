@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.gdc.Gdc;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.port;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class HttpCacheIT extends AbstractGoodDataIT {
+
+    @Override
+    protected GoodDataSettings createSettings() {
+        final GoodDataSettings settings = new GoodDataSettings();
+        settings.getCache().setEnabled(true);
+        return settings;
+    }
+
+    @Test
+    public void shouldServeFreshResponseFromCache() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withHeader("Cache-Control", "private, max-age=60")
+                .withStatus(200);
+
+        final Gdc first = gd.getGdcService().getGdc();
+        final Gdc second = gd.getGdcService().getGdc();
+
+        assertThat(second.getHomeLink(), is(first.getHomeLink()));
+        verifyThatRequest().havingPathEqualTo("/gdc").receivedOnce();
+    }
+
+    @Test
+    public void shouldRevalidateStaleResponse() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withHeader("Cache-Control", "private, max-age=0")
+                .withHeader("ETag", "\"v1\"")
+                .withStatus(200);
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+                .havingHeaderEqualTo("If-None-Match", "\"v1\"")
+            .respond()
+                .withHeader("Cache-Control", "private, max-age=0")
+                .withHeader("ETag", "\"v1\"")
+                .withStatus(304);
+
+        gd.getGdcService().getGdc();
+        final Gdc revalidated = gd.getGdcService().getGdc();
+
+        assertThat(revalidated.getHomeLink(), is(notNullValue()));
+        verifyThatRequest().havingPathEqualTo("/gdc").havingHeaderEqualTo("If-None-Match", "\"v1\"").receivedOnce();
+    }
+
+    @Test
+    public void shouldDeleteSpooledBodiesOnLogout() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withHeader("Cache-Control", "private, max-age=60")
+                .withStatus(200);
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc/account/profile/current")
+            .respond()
+                .withBody(readFromResource("/account/account.json"))
+                .withStatus(200);
+        onRequest()
+                .havingMethodEqualTo("DELETE")
+            .respond()
+                .withStatus(204);
+
+        final File directory = Files.createTempDirectory("gooddata-cache").toFile();
+        try {
+            final GoodDataSettings settings = createSettings();
+            settings.getCache().setDirectory(directory);
+            final GoodData spooling = new GoodData("localhost", "sdk@gooddata.com", "sdk", port(), "http", settings) {
+                @Override
+                protected HttpClient createHttpClient(final String login, final String password,
+                                                      final String hostname, final int port, final String protocol,
+                                                      final HttpClientBuilder builder) {
+                    return builder.build();
+                }
+            };
+            spooling.getGdcService().getGdc();
+            spooling.getGdcService().getGdc();
+            verifyThatRequest().havingPathEqualTo("/gdc").receivedOnce();
+            assertThat(directory.list(), is(not(emptyArray())));
+
+            spooling.logout();
+            assertThat(directory.list(), is(emptyArray()));
+        } finally {
+            directory.delete();
+        }
+    }
+}
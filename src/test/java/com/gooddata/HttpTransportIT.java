@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.closeJadler;
+import static net.jadler.Jadler.initJadler;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.port;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class HttpTransportIT {
+
+    private final AtomicInteger executed = new AtomicInteger();
+    private GoodDataClientFactory factory;
+    private GoodData gd;
+
+    @BeforeMethod
+    public void setUp() {
+        initJadler().that().respondsWithDefaultContentType("application/json");
+        final HttpTransport delegate = new HttpComponentsTransport(
+                HttpClientBuilder.create().disableCookieManagement().build());
+        factory = new GoodDataClientFactory(new GoodDataSettings(), new HttpTransport() {
+            @Override
+            public ClientHttpResponse execute(final HttpRequest request, final RequestBody body) throws IOException {
+                executed.incrementAndGet();
+                return delegate.execute(request, body);
+            }
+        });
+        gd = new GoodData("localhost", "sdk@gooddata.com", "sdk", port(), "http", factory) {
+        };
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        factory.shutdown();
+        closeJadler();
+    }
+
+    @Test
+    public void shouldAuthenticateThroughCustomTransport() throws Exception {
+        onRequest()
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withStatus(401)
+                .withHeader("WWW-Authenticate", "GoodData realm=\"GoodData API\" cookie=GDCAuthTT");
+        onRequest()
+                .havingPathEqualTo("/gdc")
+                .havingHeaderEqualTo("Cookie", "GDCAuthTT=tt")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+        onRequest()
+                .havingPathEqualTo("/gdc/account/token")
+            .respond()
+                .withStatus(401);
+        onRequest()
+                .havingPathEqualTo("/gdc/account/token")
+                .havingHeaderEqualTo("Cookie", "GDCAuthSST=sst")
+            .respond()
+                .withHeader("Set-Cookie", "GDCAuthTT=tt; Path=/gdc; HttpOnly")
+                .withStatus(200);
+        onRequest()
+                .havingMethodEqualTo("POST")
+                .havingPathEqualTo("/gdc/account/login")
+                .havingBodyEqualTo("{\"postUserLogin\":{\"login\":\"sdk@gooddata.com\",\"password\":\"sdk\",\"remember\":0}}")
+            .respond()
+                .withHeader("Set-Cookie", "GDCAuthSST=sst; Path=/gdc/account; HttpOnly")
+                .withStatus(200);
+
+        assertThat(gd.getGdcService().getGdc(), is(notNullValue()));
+        assertThat(gd.getGdcService().getGdc(), is(notNullValue()));
+
+        verifyThatRequest().havingPathEqualTo("/gdc/account/login").receivedOnce();
+        verifyThatRequest().havingPathEqualTo("/gdc/account/token").receivedOnce();
+        verifyThatRequest().havingPathEqualTo("/gdc").receivedTimes(3);
+        assertThat(executed.get(), is(5));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+public class LargeUploadIT extends AbstractGoodDataIT {
+
+    private static final int UPLOAD_SIZE = 16 * 1024 * 1024;
+
+    @Test
+    public void shouldNotBufferUploadOnHeap() throws Exception {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            throw new SkipException("thread allocation measurement not supported");
+        }
+        onRequest()
+                .havingMethodEqualTo("POST")
+                .havingPathEqualTo("/gdc/upload")
+            .respond()
+                .withStatus(201);
+
+        final File file = File.createTempFile("upload", ".zip");
+        try {
+            try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+                data.setLength(UPLOAD_SIZE);
+            }
+            final MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>(1);
+            final HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            parts.add("data", new HttpEntity<>(new FileSystemResource(file), headers));
+
+            // warm up, so the measurement doesn't include the one-time initialization
+            gd.getRestTemplate().postForLocation(URI.create("/gdc/upload"), "{}");
+
+            final long threadId = Thread.currentThread().getId();
+            final long before = threads.getThreadAllocatedBytes(threadId);
+            gd.getRestTemplate().postForLocation(URI.create("/gdc/upload"), parts);
+            final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            verifyThatRequest().havingPathEqualTo("/gdc/upload").receivedTimes(2);
+            assertThat(allocated, lessThan(UPLOAD_SIZE / 16L));
+        } finally {
+            file.delete();
+        }
+    }
+}
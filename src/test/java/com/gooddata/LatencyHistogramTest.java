@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldKeepSmallValuesExact() throws Exception {
+        for (int i = 0; i < 32; i++) {
+            assertThat(LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(i)), is((long) i));
+        }
+    }
+
+    @Test
+    public void shouldKeepRelativePrecision() throws Exception {
+        for (long value = 1; value < 1L << 36; value = value * 3 + 1) {
+            final long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+            assertThat(highest, greaterThanOrEqualTo(value));
+            assertThat((double) (highest - value) / value, lessThan(0.07));
+        }
+    }
+
+    @Test
+    public void shouldCountHugeValuesInLastBucket() throws Exception {
+        assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE), is(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    public void shouldComputePercentiles() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        final long[] counts = new long[LatencyHistogram.BUCKETS];
+        histogram.copyCounts(counts);
+
+        final long median = LatencyHistogram.percentile(counts, 100, 50);
+        assertThat(median, greaterThanOrEqualTo(50000L));
+        assertThat(median, lessThan(53500L));
+        assertThat(LatencyHistogram.percentile(counts, 100, 100), greaterThanOrEqualTo(100000L));
+        assertThat(histogram.getMax(), is(100000L));
+        assertThat(histogram.getSum(), is(5050000L));
+    }
+
+    @Test
+    public void shouldReturnZeroPercentileOfEmptyHistogram() throws Exception {
+        assertThat(LatencyHistogram.percentile(new long[LatencyHistogram.BUCKETS], 0, 99), is(0L));
+    }
+}
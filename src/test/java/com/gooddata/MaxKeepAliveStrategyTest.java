@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class MaxKeepAliveStrategyTest {
+
+    private final MaxKeepAliveStrategy strategy = new MaxKeepAliveStrategy(30000);
+
+    @Test
+    public void shouldLimitUnspecifiedKeepAlive() throws Exception {
+        assertThat(strategy.getKeepAliveDuration(response(null), new BasicHttpContext()), is(30000L));
+    }
+
+    @Test
+    public void shouldRespectShorterKeepAlive() throws Exception {
+        assertThat(strategy.getKeepAliveDuration(response("timeout=5"), new BasicHttpContext()), is(5000L));
+    }
+
+    @Test
+    public void shouldLimitLongerKeepAlive() throws Exception {
+        assertThat(strategy.getKeepAliveDuration(response("timeout=300"), new BasicHttpContext()), is(30000L));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectNonPositiveMaximum() throws Exception {
+        new MaxKeepAliveStrategy(0);
+    }
+
+    private static HttpResponse response(final String keepAlive) {
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        if (keepAlive != null) {
+            response.setHeader("Keep-Alive", keepAlive);
+        }
+        return response;
+    }
+}
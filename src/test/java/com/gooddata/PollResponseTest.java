@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.gdc.TaskStatus;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonHttpMessageConverter;
+import org.springframework.util.FileCopyUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PollResponseTest {
+
+    private static final String TASK_STATUS = "{\"wTaskStatus\":{\"status\":\"OK\",\"poll\":\"/gdc/md/PROJECT_ID/tasks/TASK_ID/status\"}}";
+
+    private static final List<HttpMessageConverter<?>> CONVERTERS =
+            Collections.<HttpMessageConverter<?>>singletonList(new MappingJacksonHttpMessageConverter());
+
+    @Mock
+    private ClientHttpResponse response;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        when(response.getHeaders()).thenReturn(headers);
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(TASK_STATUS.getBytes("UTF-8")));
+    }
+
+    @Test
+    public void shouldParseBodyOnce() throws Exception {
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+
+        final PollResponse pollResponse = new PollResponse(response, TaskStatus.class, CONVERTERS);
+        final TaskStatus status = pollResponse.getData(TaskStatus.class);
+
+        assertThat(status.isSuccess(), is(true));
+        assertThat(pollResponse.getData(Object.class), is(sameInstance((Object) status)));
+        verify(response, times(1)).getBody();
+    }
+
+    @Test
+    public void shouldNotReadBodyOfVoidPollClass() throws Exception {
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+
+        final PollResponse pollResponse = new PollResponse(response, Void.class, CONVERTERS);
+
+        assertThat(pollResponse.getData(Void.class), is(nullValue()));
+        verify(response, never()).getBody();
+    }
+
+    @Test
+    public void shouldNotReadBodyOfNoContent() throws Exception {
+        when(response.getStatusCode()).thenReturn(HttpStatus.NO_CONTENT);
+
+        final PollResponse pollResponse = new PollResponse(response, TaskStatus.class, CONVERTERS);
+
+        assertThat(pollResponse.getData(TaskStatus.class), is(nullValue()));
+        verify(response, never()).getBody();
+    }
+
+    @Test(expectedExceptions = GoodDataException.class)
+    public void shouldFailToReadAsDifferentClass() throws Exception {
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+
+        new PollResponse(response, TaskStatus.class, CONVERTERS).getData(String.class);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldNotProvideBody() throws Exception {
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+
+        new PollResponse(response, TaskStatus.class, CONVERTERS).getBody();
+    }
+
+    @Test
+    public void shouldProvideBufferedRawBody() throws Exception {
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+
+        final PollResponse pollResponse = new PollResponse(response, TaskStatus.class, CONVERTERS, false, true);
+
+        assertThat(pollResponse.getData(TaskStatus.class).isSuccess(), is(true));
+        assertThat(pollResponse.getData(Map.class).containsKey("wTaskStatus"), is(true));
+        assertThat(FileCopyUtils.copyToString(new InputStreamReader(pollResponse.getBody(), "UTF-8")),
+                is(TASK_STATUS));
+        verify(response, times(1)).getBody();
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.hamcrest.Matchers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.hamcrest.Matchers.typeCompatibleWith;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpMethod.GET;
+import static org.testng.Assert.fail;
+
+public class PollResultTest {
+
+    private static final String URI = "/gdc/md/PROJECT_ID/tasks/TASK_ID/status";
+
+    @Mock
+    private RestTemplate restTemplate;
+    @Mock
+    private ClientHttpResponse response;
+
+    private PollScheduler scheduler;
+    private AbstractService service;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        scheduler = new PollScheduler(1);
+        service = new AbstractService(restTemplate, scheduler) {};
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shouldCompleteWhenFinished() throws Exception {
+        respondWith(HttpStatus.OK);
+
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+
+        assertThat(result.get(), is(nullValue()));
+        assertThat(result.isDone(), is(true));
+    }
+
+    @Test
+    public void shouldNotifyCallbackUsingExecutor() throws Exception {
+        respondWith(HttpStatus.OK);
+        final CountDownLatch notified = new CountDownLatch(1);
+        final AtomicReference<String> threadName = new AtomicReference<>();
+
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+        result.addCallback(new FutureResultCallback<Void>() {
+            @Override
+            public void onSuccess(final Void value) {
+                threadName.set(Thread.currentThread().getName());
+                notified.countDown();
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+            }
+        }, new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                new Thread(command, "callback").start();
+            }
+        });
+
+        assertThat(notified.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(threadName.get(), is("callback"));
+    }
+
+    @Test
+    public void shouldTimeoutWithoutWaitingForNextPoll() throws Exception {
+        respondWith(HttpStatus.ACCEPTED);
+
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+
+        final long start = System.currentTimeMillis();
+        try {
+            result.get(100, TimeUnit.MILLISECONDS);
+            fail("Exception should be thrown");
+        } catch (GoodDataException e) {
+            assertThat(System.currentTimeMillis() - start, is(lessThan((long) AbstractService.WAIT_BEFORE_RETRY_IN_MILLIS)));
+        }
+        assertThat(result.isDone(), is(false));
+    }
+
+    @Test
+    public void shouldRethrowHandlerException() throws Exception {
+        final GoodDataRestException restException = new GoodDataRestException(400, "requestId", "bad", "c", "e");
+        when(restTemplate.execute(eq(URI), eq(GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenThrow(restException);
+        final GoodDataException handlerException = new GoodDataException("handled", restException);
+
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw handlerException;
+            }
+        });
+
+        try {
+            result.get();
+            fail("Exception should be thrown");
+        } catch (GoodDataException e) {
+            assertThat(e, is(sameInstance(handlerException)));
+        }
+    }
+
+    @Test
+    public void shouldFireLifecycleEvents() throws Exception {
+        respondWith(HttpStatus.OK);
+        final RecordingListener listener = new RecordingListener(2);
+        scheduler.addListener(listener);
+
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+        result.get();
+
+        assertThat(listener.await(), is(true));
+        assertThat(listener.events.get(0).getType(), is(PollEvent.Type.SUBMITTED));
+        assertThat(listener.events.get(0).getAttempts(), is(0));
+        final PollEvent finished = listener.events.get(1);
+        assertThat(finished.getType(), is(PollEvent.Type.FINISHED));
+        assertThat(finished.getPollingUri(), is(URI));
+        assertThat(finished.getRequestId(), is("requestId"));
+        assertThat(finished.getStatusCode(), is(200));
+        assertThat(finished.getAttempts(), is(1));
+        assertThat(finished.getPollClass(), is(typeCompatibleWith(Void.class)));
+    }
+
+    @Test
+    public void shouldFireFailedEvent() throws Exception {
+        final GoodDataRestException restException = new GoodDataRestException(400, "requestId", "bad", "c", "e");
+        when(restTemplate.execute(eq(URI), eq(GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenThrow(restException);
+        final RecordingListener listener = new RecordingListener(2);
+        scheduler.addListener(listener);
+
+        new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+
+        assertThat(listener.await(), is(true));
+        final PollEvent failed = listener.events.get(1);
+        assertThat(failed.getType(), is(PollEvent.Type.FAILED));
+        assertThat(failed.getStatusCode(), is(400));
+        assertThat(failed.getRequestId(), is("requestId"));
+        assertThat(failed.getFailure().getCause(), is(sameInstance((Throwable) restException)));
+    }
+
+    @Test
+    public void shouldFireTimedOutEvent() throws Exception {
+        respondWith(HttpStatus.ACCEPTED);
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+        final RecordingListener listener = new RecordingListener(1);
+        scheduler.addListener(listener);
+
+        try {
+            result.get(10, TimeUnit.MILLISECONDS);
+            fail("Exception should be thrown");
+        } catch (GoodDataException e) {
+            assertThat(listener.events, hasItem(Matchers.<PollEvent>hasProperty("type", is(PollEvent.Type.TIMED_OUT))));
+        }
+    }
+
+    @Test
+    public void shouldCancelPolling() throws Exception {
+        respondWith(HttpStatus.ACCEPTED);
+        scheduler.shutdown();
+        scheduler = new PollScheduler(1, new FixedPollingPolicy());
+        service = new AbstractService(restTemplate, scheduler) {};
+        final RecordingListener listener = new RecordingListener(2);
+        scheduler.addListener(listener);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+
+            @Override
+            protected void onCancel() {
+                cancelled.countDown();
+            }
+        });
+
+        assertThat(result.cancel(), is(true));
+        assertThat(result.cancel(), is(false));
+        assertThat(result.isCancelled(), is(true));
+        assertThat(cancelled.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(listener.await(), is(true));
+        assertThat(listener.events.get(1).getType(), is(PollEvent.Type.CANCELLED));
+        try {
+            result.get();
+            fail("Exception should be thrown");
+        } catch (ResultCancelledException expected) {
+        }
+        // the scheduled poll was removed
+        Thread.sleep(500);
+        verify(restTemplate, never())
+                .execute(eq(URI), eq(GET), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    public void shouldSharePollsOfSameTask() throws Exception {
+        respondWith(HttpStatus.ACCEPTED);
+        scheduler.shutdown();
+        scheduler = new PollScheduler(1, new FixedPollingPolicy());
+        service = new AbstractService(restTemplate, scheduler) {};
+        // 2 submitted and 6 polled
+        final RecordingListener listener = new RecordingListener(8);
+        scheduler.addListener(listener);
+
+        final PollResult<Void> result1 = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+        final PollResult<Void> result2 = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+
+        assertThat(listener.await(), is(true));
+        result1.cancel();
+        result2.cancel();
+        verify(restTemplate, atMost(4))
+                .execute(eq(URI), eq(GET), any(RequestCallback.class), any(ResponseExtractor.class));
+        // only the polls sending the request are reported as polled
+        assertThat(listener.count(PollEvent.Type.POLLED), is(lessThanOrEqualTo(4)));
+        assertThat(listener.count(PollEvent.Type.COALESCED), is(greaterThanOrEqualTo(2)));
+    }
+
+    @Test
+    public void shouldNotWaitForPollOfAnotherObserver() throws Exception {
+        respondWith(HttpStatus.OK);
+        final CountDownLatch inFlight = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.execute(eq(URI), eq(GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(final InvocationOnMock invocation) throws Throwable {
+                        inFlight.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                        return ((ResponseExtractor) invocation.getArguments()[3]).extractData(response);
+                    }
+                });
+        scheduler.shutdown();
+        scheduler = new PollScheduler(2, new FixedPollingPolicy());
+        service = new AbstractService(restTemplate, scheduler) {};
+        // 2 submitted, 1 skipped while the other poll is in flight
+        final RecordingListener listener = new RecordingListener(3);
+        scheduler.addListener(listener);
+
+        final PollResult<Void> result1 = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+        assertThat(inFlight.await(5, TimeUnit.SECONDS), is(true));
+        final PollResult<Void> result2 = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+
+        assertThat(listener.await(), is(true));
+        assertThat(listener.count(PollEvent.Type.COALESCED), is(1));
+        release.countDown();
+        result1.get(5, TimeUnit.SECONDS);
+        result2.get(5, TimeUnit.SECONDS);
+        verify(restTemplate, times(1))
+                .execute(eq(URI), eq(GET), any(RequestCallback.class), any(ResponseExtractor.class));
+    }
+
+    @Test
+    public void shouldStreamOffPollThreads() throws Exception {
+        respondWith(HttpStatus.OK);
+        final AtomicReference<String> threadName = new AtomicReference<>();
+
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+
+            @Override
+            protected boolean isStreaming() {
+                return true;
+            }
+
+            @Override
+            protected boolean isStreamed(final ClientHttpResponse response) {
+                return true;
+            }
+
+            @Override
+            protected void streamBody(final ClientHttpResponse response) {
+                threadName.set(Thread.currentThread().getName());
+            }
+        });
+
+        result.get(5, TimeUnit.SECONDS);
+        assertThat(threadName.get(), startsWith("gooddata-transfer-"));
+    }
+
+    @Test
+    public void shouldNotCancelCompletedResult() throws Exception {
+        respondWith(HttpStatus.OK);
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+        result.get();
+
+        assertThat(result.cancel(), is(false));
+        assertThat(result.isCancelled(), is(false));
+    }
+
+    @Test
+    public void shouldRetryTransientFailureByNextPoll() throws Exception {
+        respondWith(HttpStatus.OK);
+        final Answer<?> answer = new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                return ((ResponseExtractor) invocation.getArguments()[3]).extractData(response);
+            }
+        };
+        when(restTemplate.execute(eq(URI), eq(GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenThrow(new PollRetryException(0, null))
+                .thenAnswer(answer);
+
+        final PollResult<Void> result = new PollResult<>(service, new SimplePollHandler<Void>(URI, Void.class) {
+            @Override
+            public void handlePollException(final GoodDataRestException e) {
+                throw new GoodDataException("failed", e);
+            }
+        });
+
+        assertThat(result.get(5, TimeUnit.SECONDS), is(nullValue()));
+        verify(restTemplate, times(2)).execute(eq(URI), eq(GET), any(RequestCallback.class),
+                any(ResponseExtractor.class));
+    }
+
+    private static class RecordingListener implements PollListener {
+        private final List<PollEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch latch;
+
+        private RecordingListener(final int count) {
+            latch = new CountDownLatch(count);
+        }
+
+        @Override
+        public void onPollEvent(final PollEvent event) {
+            events.add(event);
+            latch.countDown();
+        }
+
+        private boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+
+        private int count(final PollEvent.Type type) {
+            int count = 0;
+            for (PollEvent event : events) {
+                if (event.getType() == type) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static class FixedPollingPolicy implements PollingPolicy {
+        @Override
+        public long getDelay(final PollHandler<?, ?> handler, final int attempts, final long elapsedMillis,
+                             final long retryAfterMillis) {
+            return 200;
+        }
+
+        @Override
+        public void onFinish(final PollHandler<?, ?> handler, final int attempts, final long elapsedMillis) {
+        }
+    }
+
+    private void respondWith(final HttpStatus status) throws Exception {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(GoodData.GDC_REQUEST_ID_HEADER, "requestId");
+        when(response.getStatusCode()).thenReturn(status);
+        when(response.getRawStatusCode()).thenReturn(status.value());
+        when(response.getHeaders()).thenReturn(headers);
+        when(restTemplate.execute(eq(URI), eq(GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(final InvocationOnMock invocation) throws Throwable {
+                        return ((ResponseExtractor) invocation.getArguments()[3]).extractData(response);
+                    }
+                });
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.testng.Assert.fail;
+
+public class RateLimiterTest {
+
+    @Test
+    public void shouldFailFastWhenPauseExceedsDeadline() throws Exception {
+        final RateLimiter limiter = new RateLimiter(new RateLimitSettings());
+        limiter.onResponse(RequestCategory.READ, RateLimiter.TOO_MANY_REQUESTS, 10000);
+
+        final long start = System.currentTimeMillis();
+        try (Deadline ignored = Deadline.start(100, TimeUnit.MILLISECONDS)) {
+            limiter.acquire(RequestCategory.READ);
+            fail("Exception should be thrown");
+        } catch (DeadlineExceededException e) {
+            assertThat(System.currentTimeMillis() - start, is(lessThan(1000L)));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.testng.annotations.Test;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.port;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.testng.Assert.fail;
+
+public class RateLimitingRequestIT extends AbstractGoodDataIT {
+
+    @Override
+    protected GoodDataSettings createSettings() {
+        final GoodDataSettings settings = new GoodDataSettings();
+        settings.getRateLimit().setRate(RequestCategory.READ, 1000);
+        return settings;
+    }
+
+    @Test
+    public void shouldWaitForRetryAfterWhenThrottled() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withStatus(429)
+                .withHeader("Retry-After", "1")
+            .thenRespond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+
+        try {
+            gd.getGdcService().getGdc();
+            fail("Exception should be thrown");
+        } catch (GoodDataException ignored) {
+        }
+        final long start = System.currentTimeMillis();
+        gd.getGdcService().getGdc();
+        assertThat(System.currentTimeMillis() - start, is(greaterThanOrEqualTo(900L)));
+    }
+
+    @Test
+    public void shouldSlowDownWhenRetriedRequestWasThrottled() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withStatus(429)
+                .withHeader("Retry-After", "0")
+            .thenRespond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+
+        final GoodDataSettings settings = createSettings();
+        settings.getRetry().setMaxRetries(1);
+        final GoodDataClientFactory factory = new GoodDataClientFactory(settings);
+        try {
+            final GoodData retrying = new GoodData("localhost", "sdk@gooddata.com", "sdk", port(), "http", factory) {
+                @Override
+                protected HttpClient createHttpClient(final String login, final String password,
+                                                      final String hostname, final int port, final String protocol,
+                                                      final HttpClientBuilder builder) {
+                    return builder.build();
+                }
+            };
+            assertThat(retrying.getGdcService().getGdc(), is(notNullValue()));
+
+            verifyThatRequest().havingPathEqualTo("/gdc").receivedTimes(2);
+            assertThat(factory.getRateLimiter().getRate(RequestCategory.READ), is(lessThan(1000.0)));
+        } finally {
+            factory.shutdown();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.apache.http.HttpEntity;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class RequestBodyTest {
+
+    @Test
+    public void shouldKeepSmallBodyInMemory() throws Exception {
+        final RequestBody body = new RequestBody();
+        body.write("{\"a\":1}".getBytes());
+
+        assertThat(body.isSpooled(), is(false));
+        assertThat(body.getSize(), is(7L));
+        assertThat(content(body.toEntity()), is("{\"a\":1}".getBytes()));
+        body.release();
+    }
+
+    @Test
+    public void shouldSpoolLargeBody() throws Exception {
+        final RequestBody body = new RequestBody();
+        final byte[] chunk = new byte[RequestBody.MEMORY_THRESHOLD - 1];
+        chunk[0] = 1;
+        body.write(chunk);
+        body.write(2);
+        body.write(3);
+
+        assertThat(body.isSpooled(), is(true));
+        assertThat(body.getSize(), is(RequestBody.MEMORY_THRESHOLD + 1L));
+        final HttpEntity entity = body.toEntity();
+        assertThat(entity.isRepeatable(), is(true));
+        final byte[] content = content(entity);
+        assertThat(content.length, is(RequestBody.MEMORY_THRESHOLD + 1));
+        assertThat(content[0], is((byte) 1));
+        assertThat(content[RequestBody.MEMORY_THRESHOLD - 1], is((byte) 2));
+        assertThat(content[RequestBody.MEMORY_THRESHOLD], is((byte) 3));
+        // can be sent again
+        assertThat(content(entity), is(content));
+        body.release();
+    }
+
+    @Test(expectedExceptions = FileNotFoundException.class)
+    public void shouldDeleteSpooledBodyOnRelease() throws Exception {
+        final RequestBody body = new RequestBody();
+        body.write(new byte[RequestBody.MEMORY_THRESHOLD + 1]);
+        final HttpEntity entity = body.toEntity();
+
+        body.release();
+        entity.getContent();
+    }
+
+    private static byte[] content(final HttpEntity entity) throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        entity.writeTo(output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.web.client.RestClientException;
+import org.testng.annotations.Test;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.testng.Assert.fail;
+
+public class RetryingRequestIT extends AbstractGoodDataIT {
+
+    @Override
+    protected GoodDataSettings createSettings() {
+        final GoodDataSettings settings = new GoodDataSettings();
+        settings.getRetry().setMaxRetries(2);
+        settings.getRetry().setInitialBackoff(1);
+        settings.getRetry().setCircuitBreakerThreshold(3);
+        settings.getRetry().setCircuitBreakerOpenTime(60000);
+        return settings;
+    }
+
+    @Test
+    public void shouldRetryGetOnServiceUnavailable() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withStatus(503)
+            .thenRespond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+
+        assertThat(gd.getGdcService().getGdc(), notNullValue());
+        verifyThatRequest().havingPathEqualTo("/gdc").receivedTimes(2);
+    }
+
+    @Test
+    public void shouldRetryThrottledGet() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withStatus(429)
+                .withHeader("Retry-After", "0")
+            .thenRespond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+
+        assertThat(gd.getGdcService().getGdc(), notNullValue());
+        verifyThatRequest().havingPathEqualTo("/gdc").receivedTimes(2);
+    }
+
+    @Test
+    public void shouldNotRetryPost() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("POST")
+                .havingPathEqualTo("/gdc/test")
+            .respond()
+                .withStatus(503);
+
+        try {
+            gd.getRestTemplate().postForObject("/gdc/test", "{}", String.class);
+            fail("Exception should be thrown");
+        } catch (GoodDataRestException e) {
+            verifyThatRequest().havingPathEqualTo("/gdc/test").receivedOnce();
+        }
+    }
+
+    @Test
+    public void shouldFailFastWhenCircuitBreakerIsOpen() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withStatus(503);
+
+        try {
+            gd.getRestTemplate().getForObject("/gdc", String.class);
+            fail("Exception should be thrown");
+        } catch (GoodDataRestException e) {
+            verifyThatRequest().havingPathEqualTo("/gdc").receivedTimes(3);
+        }
+        try {
+            gd.getRestTemplate().getForObject("/gdc", String.class);
+            fail("Exception should be thrown");
+        } catch (CircuitBreakerOpenException e) {
+            verifyThatRequest().havingPathEqualTo("/gdc").receivedTimes(3);
+        }
+    }
+}
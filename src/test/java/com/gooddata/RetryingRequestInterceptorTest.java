@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.fail;
+
+public class RetryingRequestInterceptorTest {
+
+    private CircuitBreaker breaker;
+    private RetryingRequestInterceptor interceptor;
+    private HttpRequest request;
+    private RequestInterceptor.Execution execution;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        breaker = new CircuitBreaker(1, 50);
+        interceptor = new RetryingRequestInterceptor(new RetrySettings(), breaker);
+        request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn(HttpMethod.GET);
+        execution = mock(RequestInterceptor.Execution.class);
+    }
+
+    @Test
+    public void shouldReleaseTrialWhenChainThrows() throws Exception {
+        breaker.onFailure();
+        Thread.sleep(100);
+        when(execution.execute(any(HttpRequest.class), any(RequestBody.class)))
+                .thenThrow(new DeadlineExceededException(100));
+
+        try {
+            interceptor.intercept(request, new RequestBody(), execution);
+            fail("Exception should be thrown");
+        } catch (DeadlineExceededException ignored) {
+        }
+
+        assertThat(breaker.isOpen(), is(true));
+        assertThat(breaker.acquire(), is(true));
+    }
+
+    @Test
+    public void shouldReopenWhenTrialFailsByIoError() throws Exception {
+        breaker.onFailure();
+        Thread.sleep(100);
+        when(execution.execute(any(HttpRequest.class), any(RequestBody.class)))
+                .thenThrow(new IOException("connection reset"));
+
+        try {
+            interceptor.intercept(request, new RequestBody(), execution);
+            fail("Exception should be thrown");
+        } catch (IOException | CircuitBreakerOpenException ignored) {
+        }
+
+        try {
+            breaker.acquire();
+            fail("Exception should be thrown");
+        } catch (CircuitBreakerOpenException ignored) {
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.annotations.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class SettableFutureResultTest {
+
+    @Test
+    public void shouldCancelSourceWhenCancelled() throws Exception {
+        final SettableFutureResult<String> source = new SettableFutureResult<>();
+        final SettableFutureResult<String> result = new SettableFutureResult<>();
+        result.cancelWith(source);
+
+        assertThat(result.cancel(), is(true));
+        assertThat(source.isCancelled(), is(true));
+    }
+
+    @Test
+    public void shouldCancelSourceAddedAfterCancel() throws Exception {
+        final SettableFutureResult<String> source = new SettableFutureResult<>();
+        final SettableFutureResult<String> result = new SettableFutureResult<>();
+        result.cancel();
+
+        result.cancelWith(source);
+        assertThat(source.isCancelled(), is(true));
+    }
+
+    @Test
+    public void shouldNotCancelSourceWhenCompleted() throws Exception {
+        final SettableFutureResult<String> source = new SettableFutureResult<>();
+        final SettableFutureResult<String> result = new SettableFutureResult<>();
+        result.cancelWith(source);
+
+        result.set("a");
+        assertThat(result.cancel(), is(false));
+        assertThat(source.isCancelled(), is(false));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.FileCopyUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SingleFlightRequestInterceptorTest {
+
+    private static final byte[] BODY = "{\"a\":1}".getBytes();
+
+    private SingleFlightRequestInterceptor interceptor;
+    private RequestInterceptor.Execution execution;
+    private CountDownLatch release;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        interceptor = new SingleFlightRequestInterceptor();
+        execution = mock(RequestInterceptor.Execution.class);
+        release = new CountDownLatch(1);
+    }
+
+    @Test
+    public void shouldShareConcurrentIdenticalGets() throws Exception {
+        respondWith(MediaType.APPLICATION_JSON);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<ClientHttpResponse> leader = executor.submit(intercept());
+            final Future<ClientHttpResponse> follower = executor.submit(intercept());
+            // let the follower join the in-flight request
+            Thread.sleep(100);
+            release.countDown();
+
+            final ClientHttpResponse first = leader.get(5, TimeUnit.SECONDS);
+            final ClientHttpResponse second = follower.get(5, TimeUnit.SECONDS);
+            assertThat(FileCopyUtils.copyToByteArray(first.getBody()), is(BODY));
+            assertThat(FileCopyUtils.copyToByteArray(second.getBody()), is(BODY));
+            assertThat(first.getHeaders(), is(not(sameInstance(second.getHeaders()))));
+            verify(execution, times(1)).execute(any(HttpRequest.class), any(RequestBody.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotShareNonJsonResponse() throws Exception {
+        respondWith(MediaType.APPLICATION_OCTET_STREAM);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<ClientHttpResponse> leader = executor.submit(intercept());
+            final Future<ClientHttpResponse> follower = executor.submit(intercept());
+            Thread.sleep(100);
+            release.countDown();
+
+            leader.get(5, TimeUnit.SECONDS);
+            follower.get(5, TimeUnit.SECONDS);
+            verify(execution, times(2)).execute(any(HttpRequest.class), any(RequestBody.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotShareSequentialGets() throws Exception {
+        respondWith(MediaType.APPLICATION_JSON);
+        release.countDown();
+
+        intercept().call();
+        intercept().call();
+        verify(execution, times(2)).execute(any(HttpRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    public void shouldNotShareOtherMethods() throws Exception {
+        respondWith(MediaType.APPLICATION_JSON);
+        release.countDown();
+
+        interceptor.intercept(request(HttpMethod.POST), new RequestBody(), execution);
+        verify(execution).execute(any(HttpRequest.class), any(RequestBody.class));
+    }
+
+    private Callable<ClientHttpResponse> intercept() {
+        return new Callable<ClientHttpResponse>() {
+            @Override
+            public ClientHttpResponse call() throws Exception {
+                return interceptor.intercept(request(HttpMethod.GET), new RequestBody(), execution);
+            }
+        };
+    }
+
+    private static HttpRequest request(final HttpMethod method) {
+        final HttpRequest request = mock(HttpRequest.class);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        when(request.getMethod()).thenReturn(method);
+        when(request.getURI()).thenReturn(URI.create("/gdc/md/PROJECT_ID/obj/1"));
+        when(request.getHeaders()).thenReturn(headers);
+        return request;
+    }
+
+    private void respondWith(final MediaType contentType) throws Exception {
+        when(execution.execute(any(HttpRequest.class), any(RequestBody.class))).thenAnswer(new Answer<ClientHttpResponse>() {
+            @Override
+            public ClientHttpResponse answer(final InvocationOnMock invocation) throws Throwable {
+                release.await();
+                final ClientHttpResponse response = mock(ClientHttpResponse.class);
+                final HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(contentType);
+                when(response.getRawStatusCode()).thenReturn(200);
+                when(response.getHeaders()).thenReturn(headers);
+                when(response.getBody()).thenReturn(new ByteArrayInputStream(BODY));
+                return response;
+            }
+        });
+    }
+}
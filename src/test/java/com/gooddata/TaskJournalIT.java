@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.dataset.DatasetManifest;
+import com.gooddata.dataset.DatasetService;
+import com.gooddata.project.Project;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.util.FileSystemUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.port;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public class TaskJournalIT extends AbstractGoodDataIT {
+
+    private File journalDirectory;
+
+    @Override
+    protected GoodDataSettings createSettings() {
+        try {
+            journalDirectory = Files.createTempDirectory("gooddata-tasks").toFile();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        final GoodDataSettings settings = new GoodDataSettings();
+        settings.setTaskJournalDirectory(journalDirectory);
+        // the worker is "restarted" before the first poll
+        settings.setPollingPolicy(new PollingPolicy() {
+            @Override
+            public long getDelay(final PollHandler<?, ?> handler, final int attempts, final long elapsedMillis,
+                                 final long retryAfterMillis) {
+                return 60000;
+            }
+
+            @Override
+            public void onFinish(final PollHandler<?, ?> handler, final int attempts, final long elapsedMillis) {
+            }
+        });
+        return settings;
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"));
+        onRequest()
+                .havingPath(startsWith("/uploads/"))
+                .havingMethodEqualTo("PUT")
+            .respond()
+                .withStatus(200);
+        onRequest()
+                .havingPathEqualTo("/gdc/md/PROJECT_ID/etl/pull")
+                .havingMethodEqualTo("POST")
+            .respond()
+                .withStatus(201)
+                .withBody(readFromResource("/dataset/pullTask.json"));
+        onRequest()
+                .havingPathEqualTo("/gdc/md/PROJECT/etl/task/ID")
+            .respond()
+                .withStatus(200)
+                .withBody(readFromResource("/dataset/pullTaskStatusOk.json"));
+    }
+
+    @AfterMethod
+    public void deleteJournal() {
+        FileSystemUtils.deleteRecursively(journalDirectory);
+    }
+
+    @Test
+    public void shouldResumeJournaledLoad() throws Exception {
+        final Project project = MAPPER.readValue(readFromResource("/project/project.json"), Project.class);
+        final DatasetManifest manifest = MAPPER.readValue(readFromResource("/dataset/datasetManifest.json"),
+                DatasetManifest.class);
+        gd.getDatasetService().loadDataset(project, manifest, new ByteArrayInputStream(new byte[]{}));
+
+        final List<JournaledTask> tasks = gd.getTaskJournal().getTasks();
+        assertThat(tasks, hasSize(1));
+        assertThat(tasks.get(0).getType(), is(DatasetService.LOAD_TASK));
+        assertThat(tasks.get(0).getPollingUri(), is("/gdc/md/PROJECT/etl/task/ID"));
+        assertThat(tasks.get(0).getContext("datasets"), is("dataset.person"));
+
+        // e.g. restarted worker
+        gd.getPollScheduler().shutdown();
+        assertThat(gd.getTaskJournal().getTasks(), hasSize(1));
+
+        final GoodDataSettings settings = new GoodDataSettings();
+        settings.setTaskJournalDirectory(journalDirectory);
+        final GoodData resumed = new GoodData("localhost", "sdk@gooddata.com", "sdk", port(), "http", settings) {
+            @Override
+            protected HttpClient createHttpClient(final String login, final String password, final String hostname,
+                                                  final int port, final String protocol,
+                                                  final HttpClientBuilder builder) {
+                return builder.build();
+            }
+        };
+        final Map<JournaledTask, FutureResult<?>> results = resumed.resumeTasks();
+        assertThat(results.size(), is(1));
+        // polled or finished already
+        assertThat(resumed.resumeTasks().size(), is(0));
+        results.values().iterator().next().get();
+        assertThat(resumed.getTaskJournal().getTasks(), is(empty()));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.FileSystemUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class TaskJournalTest {
+
+    private File directory;
+    private TaskJournal journal;
+    private PollScheduler scheduler;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("gooddata-tasks").toFile();
+        journal = new TaskJournal(directory);
+        scheduler = new PollScheduler(1);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        scheduler.shutdown();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Test
+    public void shouldRecordTask() throws Exception {
+        final JournaledTask task = new JournaledTask("dataset.load", "/gdc/md/PROJECT/etl/task/ID",
+                Collections.singletonMap("dirPath", "/PROJECT_abc"));
+        journal.record(task);
+
+        final List<JournaledTask> tasks = journal.getTasks();
+        assertThat(tasks, hasSize(1));
+        assertThat(tasks.get(0).getId(), is(task.getId()));
+        assertThat(tasks.get(0).getType(), is("dataset.load"));
+        assertThat(tasks.get(0).getPollingUri(), is("/gdc/md/PROJECT/etl/task/ID"));
+        assertThat(tasks.get(0).getContext("dirPath"), is("/PROJECT_abc"));
+    }
+
+    @Test
+    public void shouldReplaceTask() throws Exception {
+        final JournaledTask task = new JournaledTask("report.export", "/gdc/exporter/result/1",
+                Collections.<String, String>emptyMap());
+        journal.record(task);
+        journal.record(task.withPollingUri("/gdc/exporter/result/2"));
+
+        final List<JournaledTask> tasks = journal.getTasks();
+        assertThat(tasks, hasSize(1));
+        assertThat(tasks.get(0).getPollingUri(), is("/gdc/exporter/result/2"));
+        assertThat(directory.listFiles(), is(arrayWithSize(1)));
+    }
+
+    @Test
+    public void shouldRemoveTask() throws Exception {
+        final JournaledTask task = new JournaledTask("report.export", "/gdc/exporter/result/1",
+                Collections.<String, String>emptyMap());
+        journal.record(task);
+        journal.remove(task);
+
+        assertThat(journal.getTasks(), is(empty()));
+        assertThat(directory.listFiles(), is(arrayWithSize(0)));
+    }
+
+    @Test
+    public void shouldClaimTaskOnce() throws Exception {
+        final JournaledTask task = new JournaledTask("report.export", "/gdc/exporter/result/1",
+                Collections.<String, String>emptyMap());
+        assertThat(journal.claim(task, scheduler), is(true));
+        journal.record(task);
+
+        final JournaledTask recorded = journal.getTasks().get(0);
+        assertThat(journal.claim(recorded, scheduler), is(false));
+        assertThat(new TaskJournal(directory).claim(recorded, scheduler), is(false));
+
+        journal.release(task);
+        assertThat(new TaskJournal(directory).claim(recorded, scheduler), is(true));
+    }
+
+    @Test
+    public void shouldNotClaimFinishedTask() throws Exception {
+        final JournaledTask task = new JournaledTask("report.export", "/gdc/exporter/result/1",
+                Collections.<String, String>emptyMap());
+        journal.claim(task, scheduler);
+        journal.record(task);
+        final JournaledTask recorded = journal.getTasks().get(0);
+
+        journal.remove(task);
+        assertThat(journal.claim(recorded, scheduler), is(false));
+        assertThat(directory.listFiles(), is(arrayWithSize(0)));
+    }
+
+    @Test
+    public void shouldTakeOverClaimOfStoppedPolling() throws Exception {
+        final JournaledTask task = new JournaledTask("report.export", "/gdc/exporter/result/1",
+                Collections.<String, String>emptyMap());
+        final PollScheduler stopped = new PollScheduler(1);
+        journal.claim(task, stopped);
+        journal.record(task);
+        stopped.shutdown();
+
+        assertThat(new TaskJournal(directory).claim(journal.getTasks().get(0), scheduler), is(true));
+    }
+
+    @Test
+    public void shouldSkipUnreadableTask() throws Exception {
+        FileCopyUtils.copy("{\"id\":".getBytes("UTF-8"), new File(directory, "broken.task"));
+        assertThat(journal.getTasks(), is(empty()));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldFailOnMissingContext() throws Exception {
+        new JournaledTask("report.export", "/gdc/exporter/result/1", Collections.<String, String>emptyMap())
+                .getContext("dirPath");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class TokenBucketTest {
+
+    @Test
+    public void shouldAllowBurstAndThenPace() throws Exception {
+        final TokenBucket bucket = new TokenBucket(20);
+        for (int i = 0; i < 20; i++) {
+            assertThat(bucket.reserve(Long.MAX_VALUE), is(0L));
+        }
+
+        assertThat(millis(bucket.reserve(Long.MAX_VALUE)), is(lessThanOrEqualTo(50L)));
+        assertThat(millis(bucket.reserve(Long.MAX_VALUE)), is(greaterThanOrEqualTo(80L)));
+    }
+
+    @Test
+    public void shouldNotReserveWhenWaitIsTooLong() throws Exception {
+        final TokenBucket bucket = new TokenBucket(1);
+        bucket.reserve(Long.MAX_VALUE);
+
+        assertThat(bucket.reserve(0), is(greaterThan(0L)));
+        assertThat(millis(bucket.reserve(Long.MAX_VALUE)), is(lessThanOrEqualTo(1000L)));
+    }
+
+    @Test
+    public void shouldHalveRateWhenThrottled() throws Exception {
+        final TokenBucket bucket = new TokenBucket(100);
+        bucket.throttled(-1);
+        assertThat(bucket.getRate(), is(closeTo(50, 0.001)));
+
+        for (int i = 0; i < 10; i++) {
+            bucket.throttled(-1);
+        }
+        assertThat(bucket.getRate(), is(closeTo(5, 0.001)));
+    }
+
+    @Test
+    public void shouldRestoreRateGradually() throws Exception {
+        final TokenBucket bucket = new TokenBucket(100);
+        bucket.throttled(-1);
+        bucket.succeeded();
+        assertThat(bucket.getRate(), is(closeTo(52, 0.001)));
+
+        for (int i = 0; i < 100; i++) {
+            bucket.succeeded();
+        }
+        assertThat(bucket.getRate(), is(closeTo(100, 0.001)));
+    }
+
+    @Test
+    public void shouldPauseForRetryAfterEvenWithoutLimit() throws Exception {
+        final TokenBucket bucket = new TokenBucket(0);
+        bucket.throttled(100);
+
+        assertThat(millis(bucket.reserve(Long.MAX_VALUE)), is(greaterThanOrEqualTo(90L)));
+        assertThat(bucket.getRate(), is(closeTo(0, 0.001)));
+    }
+
+    @Test
+    public void shouldCapRetryAfterPause() throws Exception {
+        final TokenBucket bucket = new TokenBucket(0);
+        bucket.throttled(TimeUnit.HOURS.toMillis(1));
+
+        assertThat(millis(bucket.reserve(Long.MAX_VALUE)), is(lessThanOrEqualTo(TimeUnit.MINUTES.toMillis(1))));
+    }
+
+    private static long millis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import org.springframework.util.FileSystemUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static com.gooddata.util.ResourceUtils.readFromResource;
+import static net.jadler.Jadler.closeJadler;
+import static net.jadler.Jadler.initJadler;
+import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.port;
+import static net.jadler.Jadler.verifyThatRequest;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class TokenRefreshIT {
+
+    private GoodDataSettings settings;
+    private File sstDirectory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        initJadler().that().respondsWithDefaultContentType("application/json");
+        settings = new GoodDataSettings();
+        sstDirectory = Files.createTempDirectory("gooddata-sst").toFile();
+
+        onRequest()
+                .havingPathEqualTo("/gdc")
+            .respond()
+                .withStatus(401)
+                .withHeader("WWW-Authenticate", "GoodData realm=\"GoodData API\" cookie=GDCAuthTT");
+        onRequest()
+                .havingPathEqualTo("/gdc")
+                .havingHeaderEqualTo("Cookie", "GDCAuthTT=tt")
+            .respond()
+                .withBody(readFromResource("/gdc/gdc.json"))
+                .withStatus(200);
+        onRequest()
+                .havingPathEqualTo("/gdc/account/token")
+            .respond()
+                .withStatus(401);
+        onRequest()
+                .havingPathEqualTo("/gdc/account/token")
+                .havingHeaderEqualTo("Cookie", "GDCAuthSST=sst")
+            .respond()
+                .withHeader("Set-Cookie", "GDCAuthTT=tt; Max-Age=2; Path=/gdc; HttpOnly")
+                .withStatus(200);
+        onRequest()
+                .havingMethodEqualTo("POST")
+                .havingPathEqualTo("/gdc/account/login")
+            .respond()
+                .withHeader("Set-Cookie", "GDCAuthSST=sst; Path=/gdc/account; HttpOnly")
+                .withStatus(200);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        closeJadler();
+        FileSystemUtils.deleteRecursively(sstDirectory);
+    }
+
+    @Test
+    public void shouldRefreshTokenAhead() throws Exception {
+        settings.getAuthentication().setTokenRefreshAhead(1500);
+        final GoodDataClientFactory factory = new GoodDataClientFactory(settings);
+        try {
+            assertThat(create(factory).getGdcService().getGdc(), is(notNullValue()));
+            // no request refused, the tokens were obtained upfront
+            verifyThatRequest().havingPathEqualTo("/gdc").receivedOnce();
+            verifyThatRequest().havingPathEqualTo("/gdc/account/login").receivedOnce();
+
+            awaitTokenRequests(2);
+            verifyThatRequest().havingPathEqualTo("/gdc/account/login").receivedOnce();
+        } finally {
+            factory.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldReuseStoredSst() throws Exception {
+        settings.getAuthentication().setSstDirectory(sstDirectory);
+        final GoodDataClientFactory factory = new GoodDataClientFactory(settings);
+        try {
+            assertThat(create(factory).getGdcService().getGdc(), is(notNullValue()));
+            assertThat(sstDirectory.listFiles(), is(arrayWithSize(1)));
+
+            // e.g. restarted worker
+            assertThat(create(factory).getGdcService().getGdc(), is(notNullValue()));
+            verifyThatRequest().havingPathEqualTo("/gdc/account/login").receivedOnce();
+            verifyThatRequest().havingPathEqualTo("/gdc/account/token").havingHeaderEqualTo("Cookie", "GDCAuthSST=sst")
+                    .receivedTimes(2);
+        } finally {
+            factory.shutdown();
+        }
+    }
+
+    private static GoodData create(final GoodDataClientFactory factory) {
+        return new GoodData("localhost", "sdk@gooddata.com", "sdk", port(), "http", factory) {
+        };
+    }
+
+    private static void awaitTokenRequests(final int count) throws InterruptedException {
+        for (int i = 0; ; i++) {
+            try {
+                verifyThatRequest().havingPathEqualTo("/gdc/account/token").receivedTimes(count);
+                return;
+            } catch (AssertionError e) {
+                if (i == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+}
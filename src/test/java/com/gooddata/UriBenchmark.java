@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata;
+
+import com.gooddata.md.Obj;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriTemplate;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the URI handling done for every request: expansion of the URI template and prefixing of the expanded
+ * URI by the host. The <code>*Builder</code> and <code>*Parsed</code> benchmarks measure the former approach.
+ * <p>
+ * Run by <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.gooddata.UriBenchmark</code>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriBenchmark {
+
+    private static final URI PREFIX = URI.create("https://secure.gooddata.com:443");
+    private static final URI POLL_URI = URI.create("/gdc/md/PROJECT_ID/tasks/task/TASK_ID/status");
+
+    private final UriPrefixer prefixer = new UriPrefixer(PREFIX);
+    private final UriTemplate template = new UriTemplate(Obj.OBJ_URI);
+
+    @Benchmark
+    public URI mergeUris() {
+        return prefixer.mergeUris(POLL_URI);
+    }
+
+    @Benchmark
+    public URI mergeUrisBuilder() {
+        return UriComponentsBuilder.fromUri(PREFIX)
+                .pathSegment(POLL_URI.getRawPath().substring(1))
+                .query(POLL_URI.getRawQuery())
+                .fragment(POLL_URI.getRawFragment())
+                .build().toUri();
+    }
+
+    @Benchmark
+    public URI expandTemplate() {
+        return template.expand("PROJECT_ID", "123");
+    }
+
+    @Benchmark
+    public URI expandTemplateParsed() {
+        return new UriTemplate(Obj.OBJ_URI).expand("PROJECT_ID", "123");
+    }
+
+    public static void main(String... args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UriBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -25,4 +25,25 @@ public class UriPrefixerTest {
         final URI result = prefixer.mergeUris("test");
         assertThat(result.toString(), is("http://localhost:1/uploads/test"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMergeUrisWithQueryAndFragment() throws Exception {
+        final UriPrefixer prefixer = new UriPrefixer("https://secure.gooddata.com:443");
+        final URI result = prefixer.mergeUris("/gdc/md/PROJECT_ID/query/metrics/?limit=10#top");
+        assertThat(result.toString(), is("https://secure.gooddata.com:443/gdc/md/PROJECT_ID/query/metrics?limit=10#top"));
+    }
+
+    @Test
+    public void testMergeUrisRoot() throws Exception {
+        final UriPrefixer prefixer = new UriPrefixer("http://localhost:1/uploads/");
+        final URI result = prefixer.mergeUris("/");
+        assertThat(result.toString(), is("http://localhost:1/uploads"));
+    }
+
+    @Test
+    public void testMergeUrisIgnoresHost() throws Exception {
+        final UriPrefixer prefixer = new UriPrefixer("http://localhost:1");
+        final URI result = prefixer.mergeUris("https://other:2/gdc?x=1");
+        assertThat(result.toString(), is("http://localhost:1/gdc?x=1"));
+    }
+}
@@ -2,6 +2,7 @@ package com.gooddata.dataset;
 
 import com.gooddata.AbstractGoodDataIT;
 import com.gooddata.GoodDataException;
+import com.gooddata.ListenableFutureResult;
 import com.gooddata.gdc.TaskStatus;
 import com.gooddata.project.Project;
 import com.gooddata.util.ResourceUtils;
@@ -13,9 +14,11 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.gooddata.util.ResourceUtils.readFromResource;
 import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.verifyThatRequest;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
@@ -118,6 +121,35 @@ public class DatasetServiceIT extends AbstractGoodDataIT {
         }
     }
 
+    @Test
+    public void shouldKeepUploadedDataOfCancelledLoadUntilPullFinishes() throws Exception {
+        final AtomicBoolean pullFinished = new AtomicBoolean();
+        onRequest()
+                .havingPathEqualTo("/gdc/md/PROJECT/etl/task/ID")
+            .respondUsing(new PullTaskResponder(pullFinished));
+
+        final DatasetManifest manifest = MAPPER.readValue(readFromResource("/dataset/datasetManifest.json"), DatasetManifest.class);
+        final ListenableFutureResult<Void> result = (ListenableFutureResult<Void>)
+                gd.getDatasetService().loadDataset(project, manifest, new ByteArrayInputStream(new byte[]{}));
+        assertThat(result.cancel(), is(true));
+
+        Thread.sleep(500);
+        verifyThatRequest().havingMethodEqualTo("DELETE").havingPath(startsWith("/uploads/")).receivedNever();
+
+        pullFinished.set(true);
+        for (int i = 0; ; i++) {
+            try {
+                verifyThatRequest().havingMethodEqualTo("DELETE").havingPath(startsWith("/uploads/")).receivedOnce();
+                return;
+            } catch (AssertionError e) {
+                if (i == 50) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
     @Test
     public void shouldReadErrorMessages() throws Exception {
         onRequest()
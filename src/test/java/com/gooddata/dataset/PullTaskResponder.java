@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2007-2015, GoodData(R) Corporation. All rights reserved.
+ */
+package com.gooddata.dataset;
+
+import net.jadler.Request;
+import net.jadler.stubbing.Responder;
+import net.jadler.stubbing.StubResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.gooddata.util.ResourceUtils.readStringFromResource;
+
+/**
+ * Responds to the polls of the ETL pull task as running until the given flag is set, then as successfully finished.
+ */
+public class PullTaskResponder implements Responder {
+
+    private final AtomicBoolean finished;
+
+    public PullTaskResponder(final AtomicBoolean finished) {
+        this.finished = finished;
+    }
+
+    @Override
+    public StubResponse nextResponse(final Request request) {
+        final boolean done = finished.get();
+        return StubResponse.builder()
+                .status(done ? 200 : 202)
+                .header("Content-Type", "application/json")
+                .body(readStringFromResource(done ? "/dataset/pullTaskStatusOk.json" : "/dataset/pullTask.json"),
+                        StandardCharsets.UTF_8)
+                .build();
+    }
+}
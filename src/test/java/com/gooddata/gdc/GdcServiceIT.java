@@ -2,10 +2,16 @@ package com.gooddata.gdc;
 
 import com.gooddata.AbstractGoodDataIT;
 import com.gooddata.util.ResourceUtils;
+import org.apache.commons.io.IOUtils;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPOutputStream;
+
 import static com.gooddata.util.ResourceUtils.readFromResource;
 import static net.jadler.Jadler.onRequest;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -39,4 +45,23 @@ public class GdcServiceIT extends AbstractGoodDataIT {
         final Gdc gdc = gd.getGdcService().getGdc();
         assertThat(gdc, is(notNullValue()));
     }
+
+    @Test
+    public void shouldDecodeCompressedResponse() throws Exception {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(body)) {
+            IOUtils.copy(readFromResource("/gdc/gdc.json"), gzip);
+        }
+        onRequest()
+                .havingMethodEqualTo("GET")
+                .havingPathEqualTo("/gdc")
+                .havingHeader("Accept-Encoding", hasItem(containsString("gzip")))
+            .respond()
+                .withHeader("Content-Encoding", "gzip")
+                .withBody(body.toByteArray())
+                .withStatus(200);
+
+        final Gdc gdc = gd.getGdcService().getGdc();
+        assertThat(gdc.getUserStagingLink(), is("/uploads"));
+    }
 }
@@ -16,6 +16,7 @@ import static com.gooddata.project.ProjectFeatureFlag.FEATURE_FLAG_TEMPLATE;
 import static com.gooddata.util.ResourceUtils.readFromResource;
 import static com.gooddata.util.ResourceUtils.readStringFromResource;
 import static net.jadler.Jadler.onRequest;
+import static net.jadler.Jadler.verifyThatRequest;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.contains;
@@ -203,6 +204,7 @@ public class ProjectServiceIT extends AbstractGoodDataIT {
         final ProjectValidationResults validateResult = gd.getProjectService().validateProject(enabled).get();
 
         assertThat(validateResult, notNullValue());
+        verifyThatRequest().havingPathEqualTo(resultUri).receivedOnce();
     }
 
     @Test
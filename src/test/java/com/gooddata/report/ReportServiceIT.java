@@ -14,6 +14,7 @@ import java.nio.charset.StandardCharsets;
 import static com.gooddata.util.ResourceUtils.readFromResource;
 import static net.jadler.Jadler.onRequest;
 import static net.jadler.Jadler.port;
+import static net.jadler.Jadler.verifyThatRequest;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -60,6 +61,8 @@ public class ReportServiceIT extends AbstractGoodDataIT {
         final ByteArrayOutputStream output = new ByteArrayOutputStream();
         gd.getReportService().exportReport(rd, ReportExportFormat.CSV, output).get();
         assertThat(output.toString(StandardCharsets.US_ASCII.name()), is(RESPONSE));
+        // the export is streamed from the last poll response
+        verifyThatRequest().havingPathEqualTo(URI).receivedTimes(2);
     }
 
     @Test(expectedExceptions = ReportException.class, expectedExceptionsMessageRegExp = "Unable to export report")